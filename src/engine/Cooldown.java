@@ -1,5 +1,7 @@
 package engine;
 
+import java.util.SplittableRandom;
+
 /**
  * Imposes a cooldown period between two actions.
  * 
@@ -8,6 +10,11 @@ package engine;
  */
 public class Cooldown {
 
+	/** Beginning time of a cooldown that was never started. */
+	private static final long NOT_STARTED = Long.MIN_VALUE;
+
+	/** Clock the cooldown is measured against. */
+	private GameClock clock;
 	/** Cooldown duration. */
 	private int milliseconds;
 	/** Maximum difference between durations. */
@@ -16,34 +23,46 @@ public class Cooldown {
 	private int duration;
 	/** Beginning time. */
 	private long time;
+	/** Source of the duration variation. */
+	private SplittableRandom random;
 
 	/**
 	 * Constructor, established the time until the action can be performed
 	 * again.
 	 * 
+	 * @param clock
+	 *            Clock the cooldown is measured against.
 	 * @param milliseconds
 	 *            Time until cooldown period is finished.
 	 */
-	protected Cooldown(final int milliseconds) {
+	protected Cooldown(final GameClock clock, final int milliseconds) {
+		this.clock = clock;
 		this.milliseconds = milliseconds;
 		this.variance = 0;
 		this.duration = milliseconds;
-		this.time = 0;
+		this.time = NOT_STARTED;
 	}
 
 	/**
 	 * Constructor, established the time until the action can be performed
 	 * again, with a variation of +/- variance.
 	 * 
+	 * @param clock
+	 *            Clock the cooldown is measured against.
 	 * @param milliseconds
 	 *            Time until cooldown period is finished.
 	 * @param variance
 	 *            Variance in the cooldown period.
+	 * @param random
+	 *            Source of the duration variation.
 	 */
-	protected Cooldown(final int milliseconds, final int variance) {
+	protected Cooldown(final GameClock clock, final int milliseconds,
+			final int variance, final SplittableRandom random) {
+		this.clock = clock;
 		this.milliseconds = milliseconds;
 		this.variance = variance;
-		this.time = 0;
+		this.random = random;
+		this.time = NOT_STARTED;
 	}
 
 	/**
@@ -52,8 +71,8 @@ public class Cooldown {
 	 * @return Cooldown state.
 	 */
 	public final boolean checkFinished() {
-		if ((this.time == 0)
-				|| this.time + this.duration < System.currentTimeMillis())
+		if ((this.time == NOT_STARTED)
+				|| this.time + this.duration < this.clock.getMillis())
 			return true;
 		return false;
 	}
@@ -62,10 +81,10 @@ public class Cooldown {
 	 * Restarts the cooldown.
 	 */
 	public final void reset() {
-		this.time = System.currentTimeMillis();
+		this.time = this.clock.getMillis();
 		if (this.variance != 0)
 			this.duration = (this.milliseconds - this.variance)
-					+ (int) (Math.random()
+					+ (int) (this.random.nextDouble()
 							* (this.milliseconds + this.variance));
 	}
 
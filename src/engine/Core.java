@@ -2,8 +2,10 @@ package engine;
 
 import audio.SoundManager;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
 import java.util.logging.Handler;
@@ -37,6 +39,17 @@ public final class Core {
 	/** Max fps of current screen. */
 	private static final int FPS = 60;
 
+	/** Options the game can be launched with. */
+	private static final String USAGE = "Usage: engine.Core [--speed=N]"
+			+ " [--framebuffer=rgb|indexed]"
+			+ " [--renderer=rectangles|images|raster|parallel_raster]\n"
+			+ "  --speed=N        run N times faster than real time, N >= 1\n"
+			+ "  --framebuffer=F  pixel format of the back buffer, indexed"
+			+ " for boards short on memory bandwidth\n"
+			+ "  --renderer=R     way sprites are drawn, parallel_raster to"
+			+ " draw busy frames in bands on every core";
+	/** File the frame profile is written to on exit. */
+	private static final String PROFILE_FILE = "profile";
 	/** Max lives. */
 	private static final int MAX_LIVES = 3;
 	/** Levels between extra life. */
@@ -48,6 +61,12 @@ public final class Core {
 	private static Screen currentScreen;
 	/** Level manager for loading level settings. */
 	private static LevelManager levelManager;
+	/** Game time of the current session. */
+	private static GameClock clock = new GameClock();
+	/** Random numbers of the current session. */
+	private static GameRandom random = new GameRandom(System.nanoTime());
+	/** If the game runs without a frame, drawing and waiting nothing. */
+	private static boolean headless = false;
 	/** Application logger. */
 	private static final Logger LOGGER = Logger.getLogger(Core.class
 			.getSimpleName());
@@ -61,7 +80,7 @@ public final class Core {
 	 * Test implementation.
 	 * 
 	 * @param args
-	 *            Program args, ignored.
+	 *            Program args, see {@link #USAGE}.
 	 */
 	public static void main(final String[] args) {
 		try {
@@ -82,6 +101,14 @@ public final class Core {
 			e.printStackTrace();
 		}
 
+		if (!applyArguments(args))
+			LOGGER.warning(USAGE);
+
+		// Closing the window exits without returning here, so the profile
+		// is written on the way out of the virtual machine instead.
+		Runtime.getRuntime().addShutdownHook(
+				new Thread(Core::dumpProfile, "Profile dump"));
+
 		frame = new Frame(WIDTH, HEIGHT);
 		DrawManager.getInstance().setFrame(frame);
 		int width = frame.getWidth();
@@ -102,73 +129,11 @@ public final class Core {
 					SoundManager.playLoop("sfx/menu_music.wav");
                     LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
                             + " title screen at " + FPS + " fps.");
-                    returnCode = frame.setScreen(currentScreen);
+                    returnCode = showScreen(currentScreen);
                     LOGGER.info("Closing title screen.");
                     break;
                 case 2:
-                    do {
-                        // One extra life every few levels
-                        boolean bonusLife = gameState.getLevel()
-                                % EXTRA_LIFE_FRECUENCY == 0
-                                && gameState.getLivesRemaining() < MAX_LIVES;
-
-						// Music for each level
-						SoundManager.stopAll();
-						SoundManager.playLoop("sfx/level" + gameState.getLevel() + ".wav");
-
-                        engine.level.Level currentLevel = levelManager.getLevel(gameState.getLevel());
-
-                        // TODO: Handle case where level is not found after JSON loading is implemented.
-                        if (currentLevel == null) {
-                          // For now, we can just break or default to level 1 if we run out of levels.
-                          // This will be important when the number of levels is defined by maps.json
-                          break;
-                        }
-
-						SoundManager.stopAll();
-						SoundManager.playLoop("sfx/level" + gameState.getLevel() + ".wav");
-
-                        // Start a new level
-                        currentScreen = new GameScreen(
-                                gameState,
-                                currentLevel,
-                                bonusLife,
-                                MAX_LIVES,
-                                width,
-                                height,
-                                FPS
-                        );
-
-                        LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
-                                + " game screen at " + FPS + " fps.");
-                        frame.setScreen(currentScreen);
-                        LOGGER.info("Closing game screen.");
-                        gameState = ((GameScreen) currentScreen).getGameState();
-                        if (gameState.getLivesRemaining() > 0 || gameState.getLivesRemainingP2() > 0) {
-							SoundManager.stopAll();
-							SoundManager.play("sfx/levelup.wav");
-
-							LOGGER.info("Opening shop screen with "
-                                    + gameState.getCoin() + " coins.");
-
-                            //Launch the ShopScreen (between levels)
-                            currentScreen = new ShopScreen(gameState, width, height, FPS, true);
-
-                            frame.setScreen(currentScreen);
-                            LOGGER.info("Closing shop screen.");
-
-                            gameState = new GameState(
-                                    gameState.getLevel() + 1,          // Increment level
-                                    gameState.getScore(),              // Keep current score
-                                    gameState.getLivesRemaining(),     // Keep remaining lives
-									gameState.getLivesRemainingP2(),   // Keep remaining livesP2
-                                    gameState.getBulletsShot(),        // Keep bullets fired
-                                    gameState.getShipsDestroyed(),     // Keep ships destroyed
-                                    gameState.getCoin()                // Keep current coins
-                            );
-                        }
-                        // Loop while player still has lives and levels remaining
-                    } while (gameState.getLivesRemaining() > 0 || gameState.getLivesRemainingP2() > 0);
+                    gameState = playLevels(gameState);
 
 					SoundManager.stopAll();
 					SoundManager.play("sfx/gameover.wav");
@@ -181,7 +146,7 @@ public final class Core {
                             + gameState.getShipsDestroyed() + " ships destroyed.");
 
                     currentScreen = new ScoreScreen(width, height, FPS, gameState);
-                    returnCode = frame.setScreen(currentScreen);
+                    returnCode = showScreen(currentScreen);
                     LOGGER.info("Closing score screen.");
                     break;
                 case 3:
@@ -189,7 +154,7 @@ public final class Core {
                     currentScreen = new HighScoreScreen(width, height, FPS);
                     LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
                             + " high score screen at " + FPS + " fps.");
-                    returnCode = frame.setScreen(currentScreen);
+                    returnCode = showScreen(currentScreen);
                     LOGGER.info("Closing high score screen.");
                     break;
                 case 4:
@@ -197,7 +162,7 @@ public final class Core {
 
                     currentScreen = new ShopScreen(gameState, width, height, FPS, false);
                     LOGGER.info("Starting shop screen (menu) with " + gameState.getCoin() + " coins.");
-                    returnCode = frame.setScreen(currentScreen);
+                    returnCode = showScreen(currentScreen);
                     LOGGER.info("Closing shop screen (menu).");
                     break;
                 case 6:
@@ -205,13 +170,13 @@ public final class Core {
                     currentScreen = new AchievementScreen(width, height, FPS);
                     LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
                             + " achievement screen at " + FPS + " fps.");
-                    returnCode = frame.setScreen(currentScreen);
+                    returnCode = showScreen(currentScreen);
                     LOGGER.info("Closing achievement screen.");
                     break;
 				case 8: // (추가) CreditScreen
 					currentScreen = new CreditScreen(width, height, FPS);
 					LOGGER.info("Starting " + currentScreen.getClass().getSimpleName() + " screen.");
-					returnCode = frame.setScreen(currentScreen);
+					returnCode = showScreen(currentScreen);
 					break;
                 default:
                     break;
@@ -224,6 +189,267 @@ public final class Core {
         System.exit(0);
 	}
 
+	/**
+	 * Applies the launch options. Options that are not understood are
+	 * logged and skipped, so a bad option never stops the game.
+	 * 
+	 * @param args
+	 *            Program args.
+	 * @return False if any option was not understood.
+	 */
+	private static boolean applyArguments(final String[] args) {
+		boolean valid = true;
+		for (String arg : args) {
+			int equals = arg.indexOf('=');
+			String name = equals < 0 ? arg : arg.substring(0, equals);
+			String value = equals < 0 ? "" : arg.substring(equals + 1);
+			if (name.equals("--speed")) {
+				int speed = parsePositive(value);
+				if (speed < 1) {
+					LOGGER.warning("Invalid speed: " + arg);
+					valid = false;
+				} else if (speed > 1) {
+					clock.fastForward(speed);
+					LOGGER.info("Running " + speed
+							+ " times faster than real time.");
+				}
+			} else if (name.equals("--framebuffer")) {
+				DrawManager.FramebufferFormat format = parseEnum(
+						DrawManager.FramebufferFormat.class, value);
+				if (format == null) {
+					LOGGER.warning("Invalid framebuffer format: " + arg);
+					valid = false;
+				} else {
+					getDrawManager().setFramebufferFormat(format);
+					LOGGER.info("Back buffer format: " + format + ".");
+				}
+			} else if (name.equals("--renderer")) {
+				DrawManager.SpriteRenderer renderer = parseEnum(
+						DrawManager.SpriteRenderer.class, value);
+				if (renderer == null) {
+					LOGGER.warning("Invalid sprite renderer: " + arg);
+					valid = false;
+				} else {
+					getDrawManager().setSpriteRenderer(renderer);
+					LOGGER.info("Sprite renderer: " + renderer + ".");
+				}
+			} else {
+				LOGGER.warning("Unknown option: " + arg);
+				valid = false;
+			}
+		}
+		return valid;
+	}
+
+	/**
+	 * Parses a whole number of at least 1.
+	 * 
+	 * @param value
+	 *            Text to parse.
+	 * @return The number, or 0 if the text is not a number of at least 1.
+	 */
+	private static int parsePositive(final String value) {
+		try {
+			return Math.max(0, Integer.parseInt(value));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Parses one of the constants of an enum, in any case.
+	 * 
+	 * @param <E>
+	 *            Type of the enum.
+	 * @param type
+	 *            Class of the enum.
+	 * @param value
+	 *            Text to parse.
+	 * @return The constant, or null if no constant has that name.
+	 */
+	private static <E extends Enum<E>> E parseEnum(final Class<E> type,
+			final String value) {
+		for (E constant : type.getEnumConstants())
+			if (constant.name().equalsIgnoreCase(value))
+				return constant;
+		return null;
+	}
+
+	/**
+	 * Plays levels one after another, starting from the given state, until
+	 * no player has lives left or there are no more levels. Between levels
+	 * the shop is shown, unless running headless.
+	 * 
+	 * @param gameState
+	 *            State to start playing from.
+	 * @return State after the last level played.
+	 */
+	public static GameState playLevels(GameState gameState) {
+		if (levelManager == null)
+			levelManager = new LevelManager();
+
+		do {
+			// One extra life every few levels
+			boolean bonusLife = gameState.getLevel()
+					% EXTRA_LIFE_FRECUENCY == 0
+					&& gameState.getLivesRemaining() < MAX_LIVES;
+
+			engine.level.Level currentLevel = levelManager.getLevel(gameState.getLevel());
+
+			// TODO: Handle case where level is not found after JSON loading is implemented.
+			if (currentLevel == null) {
+				// For now, we can just break or default to level 1 if we run out of levels.
+				// This will be important when the number of levels is defined by maps.json
+				break;
+			}
+
+			// Music for each level
+			SoundManager.stopAll();
+			SoundManager.playLoop("sfx/level" + gameState.getLevel() + ".wav");
+
+			gameState = playLevel(gameState, currentLevel, bonusLife);
+			if (gameState.getLivesRemaining() > 0 || gameState.getLivesRemainingP2() > 0) {
+				SoundManager.stopAll();
+				SoundManager.play("sfx/levelup.wav");
+
+				if (!headless) {
+					LOGGER.info("Opening shop screen with "
+							+ gameState.getCoin() + " coins.");
+
+					//Launch the ShopScreen (between levels)
+					currentScreen = new ShopScreen(gameState, getScreenWidth(),
+							getScreenHeight(), FPS, true);
+
+					showScreen(currentScreen);
+					LOGGER.info("Closing shop screen.");
+				}
+
+				gameState = new GameState(
+						gameState.getLevel() + 1,          // Increment level
+						gameState.getScore(),              // Keep current score
+						gameState.getLivesRemaining(),     // Keep remaining lives
+						gameState.getLivesRemainingP2(),   // Keep remaining livesP2
+						gameState.getBulletsShot(),        // Keep bullets fired
+						gameState.getShipsDestroyed(),     // Keep ships destroyed
+						gameState.getCoin()                // Keep current coins
+				);
+			}
+			// Loop while player still has lives and levels remaining
+		} while (gameState.getLivesRemaining() > 0 || gameState.getLivesRemainingP2() > 0);
+
+		return gameState;
+	}
+
+	/**
+	 * Plays a single level.
+	 * 
+	 * @param gameState
+	 *            State at the start of the level.
+	 * @param level
+	 *            Level to play.
+	 * @param bonusLife
+	 *            Checks if a bonus life is awarded this level.
+	 * @return State at the end of the level.
+	 */
+	public static GameState playLevel(final GameState gameState,
+			final engine.level.Level level, final boolean bonusLife) {
+		currentScreen = new GameScreen(gameState, level, bonusLife,
+				MAX_LIVES, getScreenWidth(), getScreenHeight(), FPS);
+
+		LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
+				+ " game screen at " + FPS + " fps.");
+		showScreen(currentScreen);
+		LOGGER.info("Closing game screen.");
+		return ((GameScreen) currentScreen).getGameState();
+	}
+
+	/**
+	 * Getter for the width screens are created with.
+	 * 
+	 * @return Drawable width of the frame, or the default width if headless.
+	 */
+	private static int getScreenWidth() {
+		return frame != null ? frame.getWidth() : WIDTH;
+	}
+
+	/**
+	 * Getter for the height screens are created with.
+	 * 
+	 * @return Drawable height of the frame, or the default height if headless.
+	 */
+	private static int getScreenHeight() {
+		return frame != null ? frame.getHeight() : HEIGHT;
+	}
+
+	/**
+	 * Shows a screen on the frame, or runs it directly when headless.
+	 * 
+	 * @param screen
+	 *            Screen to show.
+	 * @return Return code of the finished screen.
+	 */
+	private static int showScreen(final Screen screen) {
+		if (frame != null)
+			return frame.setScreen(screen);
+		screen.initialize();
+		return screen.run();
+	}
+
+	/**
+	 * Sets whether the game runs without a frame. Headless screens are
+	 * stepped as fast as possible, without drawing, sound or waiting for
+	 * real time.
+	 * 
+	 * @param isHeadless
+	 *            If the game runs without a frame.
+	 */
+	public static void setHeadless(final boolean isHeadless) {
+		headless = isHeadless;
+		if (headless)
+			SoundManager.cutAllSound();
+	}
+
+	/**
+	 * Checks if the game runs without a frame.
+	 * 
+	 * @return True when running headless.
+	 */
+	public static boolean isHeadless() {
+		return headless;
+	}
+
+	/**
+	 * Starts a new session, with its own game clock and a random seed.
+	 */
+	public static void resetSession() {
+		resetSession(System.nanoTime());
+	}
+
+	/**
+	 * Starts a new session, with its own game clock, reproducible from the
+	 * given seed.
+	 * 
+	 * @param seed
+	 *            Seed of the session random numbers.
+	 */
+	public static void resetSession(final long seed) {
+		clock = new GameClock();
+		random = new GameRandom(seed);
+		LOGGER.fine("Session seed: " + seed);
+	}
+
+	/**
+	 * Writes the frame profile of the run to a file.
+	 */
+	public static void dumpProfile() {
+		try {
+			getProfiler().dump(PROFILE_FILE);
+			LOGGER.info("Frame profile written to " + PROFILE_FILE);
+		} catch (IOException e) {
+			LOGGER.warning("Couldn't write frame profile: " + e.getMessage());
+		}
+	}
+
 	/**
 	 * Constructor, not called.
 	 */
@@ -231,6 +457,15 @@ public final class Core {
 
 	}
 
+	/**
+	 * Getter for the number of lives a game starts with.
+	 * 
+	 * @return Max lives.
+	 */
+	public static int getMaxLives() {
+		return MAX_LIVES;
+	}
+
 	/**
 	 * Controls access to the logger.
 	 * 
@@ -267,6 +502,63 @@ public final class Core {
 		return FileManager.getInstance();
 	}
 
+	/**
+	 * Controls access to the frame profiler.
+	 * 
+	 * @return Application frame profiler.
+	 */
+	public static FrameProfiler getProfiler() {
+		return FrameProfiler.getInstance();
+	}
+
+	/**
+	 * Controls access to the performance overlay.
+	 * 
+	 * @return Application performance overlay.
+	 */
+	public static PerformanceOverlay getPerformanceOverlay() {
+		return PerformanceOverlay.getInstance();
+	}
+
+	/**
+	 * Controls access to the quality governor.
+	 * 
+	 * @return Application quality governor.
+	 */
+	public static QualityGovernor getQualityGovernor() {
+		return QualityGovernor.getInstance();
+	}
+
+	/**
+	 * Controls access to the game clock, shared by every cooldown and timer
+	 * of the session.
+	 * 
+	 * @return Session game clock.
+	 */
+	public static GameClock getClock() {
+		return clock;
+	}
+
+	/**
+	 * Controls access to the random numbers of the session.
+	 * 
+	 * @param stream
+	 *            Subsystem drawing the numbers.
+	 * @return Random number generator of the subsystem.
+	 */
+	public static SplittableRandom getRandom(final GameRandom.Stream stream) {
+		return random.get(stream);
+	}
+
+	/**
+	 * Getter for the seed of the session.
+	 * 
+	 * @return Seed the session was started with.
+	 */
+	public static long getSeed() {
+		return random.getSeed();
+	}
+
 	/**
 	 * Controls creation of new cooldowns.
 	 * 
@@ -275,7 +567,7 @@ public final class Core {
 	 * @return A new cooldown.
 	 */
 	public static Cooldown getCooldown(final int milliseconds) {
-		return new Cooldown(milliseconds);
+		return new Cooldown(clock, milliseconds);
 	}
 
 	/**
@@ -289,6 +581,7 @@ public final class Core {
 	 */
 	public static Cooldown getVariableCooldown(final int milliseconds,
 			final int variance) {
-		return new Cooldown(milliseconds, variance);
+		return new Cooldown(clock, milliseconds, variance,
+				random.get(GameRandom.Stream.COOLDOWN));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package engine;
+
+/**
+ * Bends the frame like the bulging glass of a CRT, leaving the corners
+ * black. Where each pixel of the output is read from is worked out once per
+ * frame size, so each frame is a single lookup per pixel.
+ *
+ */
+public final class CurvatureEffect implements PostProcessor.PostEffect {
+
+	/** Source pixel of each output pixel, -1 for black. */
+	private int[] sourceIndexes;
+	/** How strongly the frame bends. */
+	private final float strength;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param strength
+	 *            How strongly the frame bends, 0 for flat.
+	 */
+	public CurvatureEffect(final float strength) {
+		this.strength = strength;
+		this.sourceIndexes = new int[0];
+	}
+
+	@Override
+	public String getName() {
+		return "Curvature";
+	}
+
+	@Override
+	public void prepare(final int width, final int height) {
+		this.sourceIndexes = new int[width * height];
+		for (int y = 0; y < height; y++) {
+			float v = 2f * (y + 0.5f) / height - 1f;
+			for (int x = 0; x < width; x++) {
+				float u = 2f * (x + 0.5f) / width - 1f;
+				float bentU = u * (1f + this.strength * v * v);
+				float bentV = v * (1f + this.strength * u * u);
+				int sourceX = (int) Math.floor((bentU + 1f) * width / 2f);
+				int sourceY = (int) Math.floor((bentV + 1f) * height / 2f);
+				this.sourceIndexes[y * width + x] = sourceX < 0
+						|| sourceX >= width || sourceY < 0
+						|| sourceY >= height ? -1 : sourceY * width + sourceX;
+			}
+		}
+	}
+
+	@Override
+	public void apply(final int[] source, final int[] target,
+			final int width, final int height, final int top,
+			final int bottom) {
+		for (int i = top * width; i < bottom * width; i++) {
+			int index = this.sourceIndexes[i];
+			target[i] = index < 0 ? 0 : source[index];
+		}
+	}
+}
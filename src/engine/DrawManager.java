@@ -1,27 +1,35 @@
 package engine;
 
+import java.awt.AWTException;
+import java.awt.BufferCapabilities;
+import java.awt.Canvas;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.FontFormatException;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.ImageCapabilities;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
 import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
+import entity.DropItem;
 import entity.Entity;
 import entity.FinalBoss;
-import entity.Ship;
 import engine.Achievement;
 import screen.CreditScreen;
 import screen.Screen;
 import engine.Score;
 import screen.TitleScreen;
-import screen.TitleScreen.Star;
-import screen.TitleScreen.ShootingStar;
 
 /**
  * Manages screen drawing.
@@ -39,12 +47,18 @@ public final class DrawManager {
 	private static FileManager fileManager;
 	/** Application logger. */
 	private static final Logger logger = Core.getLogger();
-	/** Graphics context. */
-	private static Graphics graphics;
+	/** Buffers flipped onto the frame, null to draw passively. */
+	private static BufferStrategy bufferStrategy;
+	/** Width of the view the buffers were made for. */
+	private static int strategyWidth;
+	/** Height of the view the buffers were made for. */
+	private static int strategyHeight;
 	/** Buffer Graphics. */
 	private static Graphics backBufferGraphics;
-	/** Buffer image. */
+	/** Buffer image, kept between frames. */
 	private static BufferedImage backBuffer;
+	/** Font of a new graphics context, restored every frame. */
+	private static Font defaultFont;
 	/** Normal sized font. */
 	private static Font fontRegular;
 	/** Normal sized font properties. */
@@ -57,9 +71,84 @@ public final class DrawManager {
     private static Font fontSmall;
     /** Small sized font properties. */
     private static FontMetrics fontSmallMetrics;
+	/** Glyphs of the normal sized font. */
+	private static GlyphAtlas regularAtlas;
+	/** Glyphs of the big sized font. */
+	private static GlyphAtlas bigAtlas;
+	/** Glyphs of the small sized font. */
+	private static GlyphAtlas smallAtlas;
+	/** Characters of the text being formatted, reused every frame. */
+	private static final char[] textBuffer = new char[32];
+
+	/** Alpha of an opaque color. */
+	private static final int OPAQUE = 255;
+	/** Most sprite and color pairs kept rasterized. */
+	private static final int SPRITE_CACHE_SIZE = 128;
 
 	/** Sprite types mapped to their images. */
-	private static Map<SpriteType, boolean[][]> spriteMap;
+	private static Map<SpriteType, SpriteMask> spriteMap;
+	/** Sprites already rasterized in a color. */
+	private static SpriteCache spriteCache;
+	/** Writes sprites straight into the back buffer pixels. */
+	private static RasterBlitter rasterBlitter;
+	/** Scales the back buffer up to the window. */
+	private static Presenter presenter;
+	/** Effects run over finished frames. */
+	private static PostProcessor postProcessor;
+	/** Brightness of the darkened scanlines. */
+	private static final float SCANLINE_BRIGHTNESS = 0.7f;
+	/** Bend of the screen curvature. */
+	private static final float CURVATURE = 0.06f;
+	/** Share of the phosphor glow. */
+	private static final float GLOW = 0.25f;
+	/** Side of the square drawn for each particle. */
+	private static final int PARTICLE_SIZE = 2;
+	/** Translucent fill behind the pop-ups. */
+	private static final Color POPUP_BACKGROUND = new Color(0, 0, 0, 200);
+	/** Text of pop-ups for health gained. */
+	private static final Color POPUP_GAIN = new Color(50, 255, 50);
+	/** Text of pop-ups for health lost. */
+	private static final Color POPUP_LOSS = new Color(255, 50, 50);
+	/** How sprites are drawn. */
+	private static SpriteRenderer spriteRenderer = SpriteRenderer.RASTER;
+	/** Colors of indexed back buffers. */
+	private static Palette palette;
+	/** How the back buffer stores its pixels. */
+	private static FramebufferFormat framebufferFormat = FramebufferFormat.RGB;
+	/** True while sprites are queued instead of drawn. */
+	private static boolean batchingSprites;
+	/** Time the frame being drawn was started, in nanoseconds. */
+	private static long frameStart;
+	/** Frames drawn, to space out HUD refreshes. */
+	private static long frameCount;
+	/** True if the HUD values are read again this frame. */
+	private static boolean refreshHud;
+	/** Top bar of the game screen: scores, lives and their line. */
+	private static HudLayer topHud;
+	/** Bottom panel of the game screen: items, coins, level and time. */
+	private static HudLayer bottomHud;
+	/** True while drawing into a HUD layer instead of the back buffer. */
+	private static boolean drawingLayer;
+
+	/** Ways of drawing sprites. */
+	public static enum SpriteRenderer {
+		/** One rectangle per lit pixel. */
+		RECTANGLES,
+		/** One cached image per sprite and color. */
+		IMAGES,
+		/** Runs of pixels written into the back buffer. */
+		RASTER,
+		/** Runs of pixels written into bands of the back buffer at once. */
+		PARALLEL_RASTER
+	}
+
+	/** Ways the back buffer stores its pixels. */
+	public static enum FramebufferFormat {
+		/** Four bytes per pixel, any color. */
+		RGB,
+		/** One byte per pixel, the closest color of the palette. */
+		INDEXED
+	}
 
 	/** Sprite types. */
 	public static enum SpriteType {
@@ -78,41 +167,52 @@ public final class DrawManager {
 		logger.info("Started loading resources.");
 
 		try {
-			spriteMap = new LinkedHashMap<SpriteType, boolean[][]>();
-
-			spriteMap.put(SpriteType.Ship, new boolean[13][8]);
-			spriteMap.put(SpriteType.ShipDestroyed, new boolean[13][8]);
-			spriteMap.put(SpriteType.Bullet, new boolean[3][5]);
-			spriteMap.put(SpriteType.EnemyBullet, new boolean[3][5]);
-			spriteMap.put(SpriteType.EnemyShipA1, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipA2, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipB1, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipB2, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipC1, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipC2, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipSpecial, new boolean[16][7]);
-			spriteMap.put(SpriteType.Explosion, new boolean[13][7]);
-			spriteMap.put(SpriteType.SoundOn, new boolean[15][15]);
-			spriteMap.put(SpriteType.SoundOff, new boolean[15][15]);
-			spriteMap.put(SpriteType.Item_Explode, new boolean[5][5]);
-			spriteMap.put(SpriteType.Item_Slow, new boolean[5][5]);
-			spriteMap.put(SpriteType.Item_Stop, new boolean[5][5]);
-			spriteMap.put(SpriteType.Item_Push, new boolean[5][5]);
-			spriteMap.put(SpriteType.Item_Shield, new boolean[5][5]);
-			spriteMap.put(SpriteType.Item_Heal, new boolean[5][5]);
-			spriteMap.put(SpriteType.FinalBoss1, new boolean[50][40]);
-			spriteMap.put(SpriteType.FinalBoss2, new boolean[50][40]);
-			spriteMap.put(SpriteType.FinalBossBullet,new boolean[3][5]);
-			spriteMap.put(SpriteType.FinalBossDeath, new boolean[50][40]);
-			spriteMap.put(SpriteType.OmegaBoss1, new boolean[32][14]);
-			spriteMap.put(SpriteType.OmegaBoss2, new boolean[32][14]);
-			spriteMap.put(SpriteType.OmegaBossDeath, new boolean[16][16]);
+			spriteMap = new LinkedHashMap<SpriteType, SpriteMask>();
+			spriteCache = new SpriteCache(spriteMap, SPRITE_CACHE_SIZE);
+			rasterBlitter = new RasterBlitter(spriteMap);
+			presenter = new Presenter();
+			postProcessor = new PostProcessor(ForkJoinPool.commonPool());
+			postProcessor.addEffect(new GlowEffect(GLOW));
+			postProcessor.addEffect(new ScanlineEffect(SCANLINE_BRIGHTNESS));
+			postProcessor.addEffect(new CurvatureEffect(CURVATURE));
+			palette = new Palette();
+
+			spriteMap.put(SpriteType.Ship, new SpriteMask(13, 8));
+			spriteMap.put(SpriteType.ShipDestroyed, new SpriteMask(13, 8));
+			spriteMap.put(SpriteType.Bullet, new SpriteMask(3, 5));
+			spriteMap.put(SpriteType.EnemyBullet, new SpriteMask(3, 5));
+			spriteMap.put(SpriteType.EnemyShipA1, new SpriteMask(12, 8));
+			spriteMap.put(SpriteType.EnemyShipA2, new SpriteMask(12, 8));
+			spriteMap.put(SpriteType.EnemyShipB1, new SpriteMask(12, 8));
+			spriteMap.put(SpriteType.EnemyShipB2, new SpriteMask(12, 8));
+			spriteMap.put(SpriteType.EnemyShipC1, new SpriteMask(12, 8));
+			spriteMap.put(SpriteType.EnemyShipC2, new SpriteMask(12, 8));
+			spriteMap.put(SpriteType.EnemyShipSpecial, new SpriteMask(16, 7));
+			spriteMap.put(SpriteType.Explosion, new SpriteMask(13, 7));
+			spriteMap.put(SpriteType.SoundOn, new SpriteMask(15, 15));
+			spriteMap.put(SpriteType.SoundOff, new SpriteMask(15, 15));
+			spriteMap.put(SpriteType.Item_Explode, new SpriteMask(5, 5));
+			spriteMap.put(SpriteType.Item_Slow, new SpriteMask(5, 5));
+			spriteMap.put(SpriteType.Item_Stop, new SpriteMask(5, 5));
+			spriteMap.put(SpriteType.Item_Push, new SpriteMask(5, 5));
+			spriteMap.put(SpriteType.Item_Shield, new SpriteMask(5, 5));
+			spriteMap.put(SpriteType.Item_Heal, new SpriteMask(5, 5));
+			spriteMap.put(SpriteType.FinalBoss1, new SpriteMask(50, 40));
+			spriteMap.put(SpriteType.FinalBoss2, new SpriteMask(50, 40));
+			spriteMap.put(SpriteType.FinalBossBullet, new SpriteMask(3, 5));
+			spriteMap.put(SpriteType.FinalBossDeath, new SpriteMask(50, 40));
+			spriteMap.put(SpriteType.OmegaBoss1, new SpriteMask(32, 14));
+			spriteMap.put(SpriteType.OmegaBoss2, new SpriteMask(32, 14));
+			spriteMap.put(SpriteType.OmegaBossDeath, new SpriteMask(16, 16));
 			fileManager.loadSprite(spriteMap);
 			logger.info("Finished loading the sprites.");
 
 			fontRegular = fileManager.loadFont(14f);
 			fontBig = fileManager.loadFont(24f);
 			fontSmall = fileManager.loadFont(9f);
+			regularAtlas = new GlyphAtlas(fontRegular);
+			bigAtlas = new GlyphAtlas(fontBig);
+			smallAtlas = new GlyphAtlas(fontSmall);
 			logger.info("Finished loading the fonts.");
 
 		} catch (IOException e) {
@@ -136,46 +236,258 @@ public final class DrawManager {
 	 */
 	public void setFrame(final Frame currentFrame) {
 		frame = currentFrame;
+		bufferStrategy = createBufferStrategy(currentFrame);
+		strategyWidth = currentFrame.getViewWidth();
+		strategyHeight = currentFrame.getViewHeight();
 	}
 
 	/**
-	 * First part of the drawing process.
+	 * Creates page flipped buffers on the view of the frame, falling back
+	 * to blitted buffers, and to passive drawing if the view supports
+	 * neither. The buffers are made on the view rather than the frame, since
+	 * the frame reports the size screens draw at instead of its real size.
+	 *
+	 * @param currentFrame
+	 *            Frame to draw on.
+	 * @return Buffer strategy of the view, or null to draw passively.
 	 */
-	public void initDrawing(final Screen screen) {
-		backBuffer = new BufferedImage(screen.getWidth(), screen.getHeight(),
-				BufferedImage.TYPE_INT_RGB);
+	private static BufferStrategy createBufferStrategy(
+			final Frame currentFrame) {
+		Canvas view = currentFrame.getView();
+		try {
+			try {
+				view.createBufferStrategy(2, new BufferCapabilities(
+						new ImageCapabilities(true), new ImageCapabilities(true),
+						BufferCapabilities.FlipContents.UNDEFINED));
+				logger.info("Drawing with page flipping.");
+			} catch (AWTException e) {
+				view.createBufferStrategy(2);
+				logger.info("Page flipping not available, drawing with "
+						+ "blitted buffers.");
+			}
+			currentFrame.setIgnoreRepaint(true);
+			return view.getBufferStrategy();
+		} catch (IllegalStateException e) {
+			logger.warning("Buffer strategy not available, drawing "
+					+ "passively.");
+			return null;
+		}
+	}
 
-		graphics = frame.getGraphics();
-		backBufferGraphics = backBuffer.getGraphics();
+	/**
+	 * First part of the drawing process. The back buffer is kept between
+	 * frames and only created again when the screen size or the pixel
+	 * format changes. Without a frame, drawing goes to the back buffer
+	 * only.
+	 */
+	public void initDrawing(final Screen screen) {
+		frameStart = System.nanoTime();
+		refreshHud = frameCount++ % Core.getQualityGovernor().getTier()
+				.getHudInterval() == 0;
+		int bufferType = framebufferFormat == FramebufferFormat.INDEXED
+				? BufferedImage.TYPE_BYTE_INDEXED : BufferedImage.TYPE_INT_RGB;
+		if (backBuffer == null || backBuffer.getWidth() != screen.getWidth()
+				|| backBuffer.getHeight() != screen.getHeight()
+				|| backBuffer.getType() != bufferType) {
+			if (backBufferGraphics != null)
+				backBufferGraphics.dispose();
+			if (bufferType == BufferedImage.TYPE_BYTE_INDEXED)
+				backBuffer = new BufferedImage(screen.getWidth(),
+						screen.getHeight(), bufferType,
+						palette.getColorModel());
+			else
+				backBuffer = new BufferedImage(screen.getWidth(),
+						screen.getHeight(), bufferType);
+			backBufferGraphics = backBuffer.getGraphics();
+			defaultFont = backBufferGraphics.getFont();
+			rasterBlitter.setTarget(backBuffer, palette);
+
+			fontRegularMetrics = backBufferGraphics.getFontMetrics(fontRegular);
+			fontBigMetrics = backBufferGraphics.getFontMetrics(fontBig);
+			fontSmallMetrics = backBufferGraphics.getFontMetrics(fontSmall);
+		}
 
+		backBufferGraphics.setFont(defaultFont);
 		backBufferGraphics.setColor(Color.BLACK);
 		backBufferGraphics.fillRect(0, 0, screen.getWidth(), screen.getHeight());
-
-		fontRegularMetrics = backBufferGraphics.getFontMetrics(fontRegular);
-		fontBigMetrics = backBufferGraphics.getFontMetrics(fontBig);
-		fontSmallMetrics = backBufferGraphics.getFontMetrics(fontSmall);
 	}
 
 	/**
-	 * Draws the completed drawing on screen.
+	 * Draws the completed drawing on screen. The time spent drawing the
+	 * frame up to here is handed to the quality governor, so waiting for
+	 * the display does not count as load.
 	 */
 	public void completeDrawing(final Screen screen) {
-		graphics.drawImage(backBuffer, frame.getInsets().left,
-				frame.getInsets().top, frame);
+		endSpriteBatch();
+		QualityGovernor governor = Core.getQualityGovernor();
+		boolean postProcessing = Core.getInputManager()
+				.isPostProcessingEnabled()
+				&& governor.getTier().allowsPostProcessing()
+				&& postProcessor.canProcess(backBuffer);
+		if (postProcessing)
+			postProcessor.process(backBuffer);
+		long now = System.nanoTime();
+		governor.recordFrame(now - frameStart);
+		PerformanceOverlay overlay = Core.getPerformanceOverlay();
+		overlay.frameCompleted(now);
+		if (Core.getInputManager().isOverlayVisible())
+			overlay.draw(backBufferGraphics, fontSmall,
+					fontSmallMetrics.getHeight(),
+					postProcessing ? postProcessor : null);
+		if (frame == null)
+			return;
+		int viewWidth = frame.getViewWidth();
+		int viewHeight = frame.getViewHeight();
+		if (viewWidth <= 0 || viewHeight <= 0)
+			return;
+		if (bufferStrategy != null && (viewWidth != strategyWidth
+				|| viewHeight != strategyHeight)) {
+			// The window was resized, make buffers the size of the view.
+			bufferStrategy.dispose();
+			bufferStrategy = createBufferStrategy(frame);
+			strategyWidth = viewWidth;
+			strategyHeight = viewHeight;
+			logger.fine("View resized to " + viewWidth + "x" + viewHeight
+					+ ".");
+		}
+		if (bufferStrategy == null) {
+			Graphics graphics = frame.getView().getGraphics();
+			presenter.draw(graphics, backBuffer, 0, 0, viewWidth,
+					viewHeight);
+			graphics.dispose();
+			return;
+		}
+
+		// Buffers may be lost to the system at any time, draw again until
+		// the frame is shown whole.
+		do {
+			do {
+				Graphics graphics = bufferStrategy.getDrawGraphics();
+				try {
+					presenter.draw(graphics, backBuffer, 0, 0, viewWidth,
+							viewHeight);
+				} finally {
+					graphics.dispose();
+				}
+			} while (bufferStrategy.contentsRestored());
+			bufferStrategy.show();
+		} while (bufferStrategy.contentsLost());
+		Toolkit.getDefaultToolkit().sync();
 	}
 
 	/**
 	 * Draws an entity.
 	 */
 	public void drawEntity(final Entity entity, final int positionX, final int positionY) {
-		boolean[][] image = spriteMap.get(entity.getSpriteType());
-		backBufferGraphics.setColor(entity.getColor());
-		for (int i = 0; i < image.length; i++)
-			for (int j = 0; j < image[i].length; j++)
-				if (image[i][j])
-					backBufferGraphics.drawRect(positionX + i * 2, positionY + j * 2, 1, 1);
+		drawSprite(entity.getSpriteType(), entity.getColor(), positionX,
+				positionY);
+	}
+
+	/**
+	 * Draws a sprite.
+	 */
+	public void drawSprite(final SpriteType spriteType, final Color color,
+			final int positionX, final int positionY) {
+		if ((spriteRenderer == SpriteRenderer.RASTER
+				|| spriteRenderer == SpriteRenderer.PARALLEL_RASTER)
+				&& color.getAlpha() == OPAQUE && !drawingLayer) {
+			if (batchingSprites)
+				rasterBlitter.submit(spriteType, color.getRGB(), positionX,
+						positionY);
+			else
+				rasterBlitter.draw(spriteType, color.getRGB(), positionX,
+						positionY);
+			return;
+		}
+		// Sprites queued before this one must be under it.
+		if (batchingSprites && rasterBlitter != null)
+			rasterBlitter.flush();
+		if (spriteRenderer == SpriteRenderer.RECTANGLES) {
+			SpriteMask image = spriteMap.get(spriteType);
+			backBufferGraphics.setColor(color);
+			for (int i = 0; i < image.getWidth(); i++)
+				for (int j = 0; j < image.getHeight(); j++)
+					if (image.isLit(i, j))
+						backBufferGraphics.drawRect(positionX + i * 2,
+								positionY + j * 2, 1, 1);
+		} else {
+			spriteCache.draw(backBufferGraphics, spriteType, color,
+					positionX, positionY);
+		}
+	}
+
+	/**
+	 * Starts queueing sprites, to draw them together in the order queued.
+	 * Nothing but sprites may be drawn until the batch ends.
+	 */
+	public void beginSpriteBatch() {
+		batchingSprites = true;
+	}
+
+	/**
+	 * Draws the queued sprites and stops queueing.
+	 */
+	public void endSpriteBatch() {
+		if (rasterBlitter != null)
+			rasterBlitter.flush();
+		batchingSprites = false;
+	}
+
+	/**
+	 * Getter for the effects run over finished frames while
+	 * post-processing is on, by default glow, scanlines and curvature.
+	 *
+	 * @return Chain of post-processing effects.
+	 */
+	public PostProcessor getPostProcessor() {
+		return postProcessor;
+	}
+
+	/**
+	 * Getter for the lit pixels of a sprite, for pixel-accurate collision
+	 * checks.
+	 *
+	 * @param spriteType
+	 *            Sprite.
+	 * @return Mask of the sprite, null if it was not loaded.
+	 */
+	public SpriteMask getSpriteMask(final SpriteType spriteType) {
+		return spriteMap.get(spriteType);
+	}
 
+	/**
+	 * Getter for the back buffer, for tools checking what was drawn.
+	 *
+	 * @return Image the current frame is drawn on.
+	 */
+	static BufferedImage getBackBuffer() {
+		return backBuffer;
+	}
 
+	/**
+	 * Sets how the back buffer stores its pixels, from the next frame on.
+	 * Indexed frames move a quarter of the bytes of RGB ones, with every
+	 * color drawn as the closest one of the palette.
+	 *
+	 * @param format
+	 *            Pixel format of the back buffer.
+	 */
+	public void setFramebufferFormat(final FramebufferFormat format) {
+		endSpriteBatch();
+		framebufferFormat = format;
+	}
+
+	/**
+	 * Sets how sprites are drawn.
+	 *
+	 * @param renderer
+	 *            Way of drawing sprites.
+	 */
+	public void setSpriteRenderer(final SpriteRenderer renderer) {
+		endSpriteBatch();
+		spriteRenderer = renderer;
+		rasterBlitter.setPool(renderer == SpriteRenderer.PARALLEL_RASTER
+				? ForkJoinPool.commonPool() : null);
 	}
 
 	/**
@@ -184,16 +496,18 @@ public final class DrawManager {
 	public void drawScore(final Screen screen, final int score) {
 		backBufferGraphics.setFont(fontRegular);
 		backBufferGraphics.setColor(Color.WHITE);
-		String scoreString = String.format("P1:%04d", score);
-		backBufferGraphics.drawString(scoreString, screen.getWidth() - 120, 25);
+		int length = appendText(textBuffer, 0, "P1:");
+		length = appendNumber(textBuffer, length, score, 4);
+		drawText(textBuffer, length, screen.getWidth() - 120, 25);
 	}
     //  === [ADD] Draw P2's score on the line below P1's score ===
     public void drawScoreP2(final Screen screen, final int scoreP2) {
         backBufferGraphics.setFont(fontRegular);
         backBufferGraphics.setColor(Color.WHITE);
-        String text = String.format("P2:%04d", scoreP2);
+        int length = appendText(textBuffer, 0, "P2:");
+        length = appendNumber(textBuffer, length, scoreP2, 4);
         //  Y coordinate is 15px lower than P1 score to avoid overlapping
-        backBufferGraphics.drawString(text, screen.getWidth() - 120, 40);
+        drawText(textBuffer, length, screen.getWidth() - 120, 40);
     }
 
     /**
@@ -205,10 +519,13 @@ public final class DrawManager {
         long seconds = milliseconds / 1000;
         long minutes = seconds / 60;
         seconds %= 60;
-        String timeString = String.format("Time: %02d:%02d", minutes, seconds);
+        int length = appendText(textBuffer, 0, "Time: ");
+        length = appendNumber(textBuffer, length, minutes, 2);
+        textBuffer[length++] = ':';
+        length = appendNumber(textBuffer, length, seconds, 2);
 		int x = 10;
 		int y = screen.getHeight() - 20;
-		backBufferGraphics.drawString(timeString, x, y);
+		drawText(textBuffer, length, x, y);
     }
 
     /**
@@ -217,10 +534,11 @@ public final class DrawManager {
     public void drawCoin(final Screen screen, final int coin) {
         backBufferGraphics.setFont(fontRegular);
         backBufferGraphics.setColor(Color.WHITE);
-        String coinString = String.format("%03d$", coin);
-        int x = screen.getWidth() / 2 - fontRegularMetrics.stringWidth(coinString) / 2;
+        int length = appendNumber(textBuffer, 0, coin, 3);
+        textBuffer[length++] = '$';
+        int x = screen.getWidth() / 2 - charsWidth(textBuffer, length) / 2;
         int y = screen.getHeight() - 50;
-        backBufferGraphics.drawString(coinString, x, y);
+        drawText(textBuffer, length, x, y);
     }
 
 	/**
@@ -230,32 +548,130 @@ public final class DrawManager {
 		backBufferGraphics.setFont(fontRegular);
 		backBufferGraphics.setColor(Color.WHITE);
 		// backBufferGraphics.drawString("P1:" + Integer.toString(lives), 10, 25);
-		backBufferGraphics.drawString("P1:", 15, 25);
-		Ship dummyShip = new Ship(0, 0,Color.green);
+		drawText("P1:", 15, 25);
 		for (int i = 0; i < lives; i++)
-			drawEntity(dummyShip, 40 + 35 * i, 10);
+			drawSprite(SpriteType.Ship, Color.green, 40 + 35 * i, 10);
 	}
 
 	public void drawLivesP2(final Screen screen, final int lives) {
 		backBufferGraphics.setFont(fontRegular);
 		backBufferGraphics.setColor(Color.WHITE);
 		// backBufferGraphics.drawString("P2:" + Integer.toString(lives), 10, 40);
-		backBufferGraphics.drawString("P2:", 15, 40);
+		drawText("P2:", 15, 40);
 
-		Ship dummyShip = new Ship(0, 0,Color.pink);
 		for (int i = 0; i < lives; i++) {
-			drawEntity(dummyShip, 40 + 35 * i, 30);
+			drawSprite(SpriteType.Ship, Color.pink, 40 + 35 * i, 30);
 		}
 	}
 
 
+	/**
+	 * Draws the top bar of the game screen, scores and lives over a line,
+	 * from a layer drawn again only when one of them changes. At low
+	 * quality the values are only read every few frames.
+	 */
+	public void drawTopHud(final Screen screen, final int lineY,
+			final int scoreP1, final int scoreP2, final int livesP1,
+			final int livesP2) {
+		int height = lineY + 2;
+		if (topHud == null || !topHud.covers(screen.getWidth(), 0, height))
+			topHud = new HudLayer(screen.getWidth(), 0, height, 4);
+		if (refreshHud) {
+			topHud.setValue(0, scoreP1);
+			topHud.setValue(1, scoreP2);
+			topHud.setValue(2, livesP1);
+			topHud.setValue(3, livesP2);
+		}
+		if (topHud.isDirty()) {
+			Graphics frameGraphics = beginLayer(topHud);
+			drawScore(screen, scoreP1);   // Top line still displays P1
+			drawScoreP2(screen, scoreP2); // Added second line for P2
+			drawLives(screen, livesP1);
+			drawLivesP2(screen, livesP2);
+			drawHorizontalLine(screen, lineY);
+			endLayer(frameGraphics);
+		}
+		topHud.draw(backBufferGraphics);
+	}
+
+	/**
+	 * Draws the bottom panel of the game screen, items, coins, level and
+	 * time under a line, from a layer drawn again only when one of them
+	 * changes. At low quality the values are only read every few frames.
+	 */
+	public void drawBottomHud(final Screen screen, final int lineY,
+			final int coin, final long milliseconds, final String levelName,
+			final DropItem.ItemType[] droppedItems, final int droppedItemCount) {
+		int height = screen.getHeight() - lineY;
+		if (bottomHud == null
+				|| !bottomHud.covers(screen.getWidth(), lineY, height))
+			bottomHud = new HudLayer(screen.getWidth(), lineY, height,
+					3 + ItemHUDManager.MAX_DYNAMIC_ITEMS);
+		if (refreshHud) {
+			bottomHud.setValue(0, coin);
+			bottomHud.setValue(1, milliseconds / 1000);
+			bottomHud.setValue(2, droppedItemCount);
+			for (int i = 0; i < droppedItemCount; i++)
+				bottomHud.setValue(3 + i, droppedItems[i].ordinal());
+			bottomHud.setText(levelName);
+		}
+		if (bottomHud.isDirty()) {
+			Graphics frameGraphics = beginLayer(bottomHud);
+			drawCoin(screen, coin);
+			drawTime(screen, milliseconds);
+			drawItemsHUD(screen, droppedItems, droppedItemCount);
+			drawLevel(screen, levelName);
+			drawHorizontalLine(screen, lineY);
+			endLayer(frameGraphics);
+		}
+		bottomHud.draw(backBufferGraphics);
+	}
+
+	/**
+	 * Draws the HUD layers again on their next use, for values they are not
+	 * keyed on, such as the shop item levels.
+	 */
+	public void invalidateHud() {
+		if (topHud != null)
+			topHud.invalidate();
+		if (bottomHud != null)
+			bottomHud.invalidate();
+	}
+
+	/**
+	 * Makes the drawing methods draw into a HUD layer.
+	 *
+	 * @param layer
+	 *            Layer to draw again.
+	 * @return Graphics context of the back buffer, to restore afterwards.
+	 */
+	private static Graphics beginLayer(final HudLayer layer) {
+		Graphics frameGraphics = backBufferGraphics;
+		backBufferGraphics = layer.beginRender();
+		drawingLayer = true;
+		return frameGraphics;
+	}
+
+	/**
+	 * Makes the drawing methods draw into the back buffer again.
+	 *
+	 * @param frameGraphics
+	 *            Graphics context of the back buffer.
+	 */
+	private static void endLayer(final Graphics frameGraphics) {
+		backBufferGraphics = frameGraphics;
+		drawingLayer = false;
+	}
+
 	/**
 	 * Draws the items HUD.
 	 */
-	public void drawItemsHUD(final Screen screen) {
+	public void drawItemsHUD(final Screen screen,
+			final DropItem.ItemType[] droppedItems, final int droppedItemCount) {
 		ItemHUDManager itemHUD = ItemHUDManager.getInstance();
 		itemHUD.initialize(screen);
-		itemHUD.drawItems(screen, backBufferGraphics);
+		itemHUD.drawItems(screen, backBufferGraphics, droppedItems,
+				droppedItemCount);
 	}
 
     /**
@@ -267,18 +683,19 @@ public final class DrawManager {
         backBufferGraphics.setFont(fontRegular);
         backBufferGraphics.setColor(Color.WHITE);
         int yPos = screen.getHeight() - paddingY;
-        backBufferGraphics.drawString(levelName, paddingX, yPos);
+        drawText(levelName, paddingX, yPos);
     }
 
     /**
-     * Draws an achievement pop-up message on the screen.
+     * Draws an achievement pop-up message on the screen, over an opaque
+     * fill instead of a translucent one at low quality.
      */
     public void drawAchievementPopup(final Screen screen, final String text) {
         int popupWidth = 250;
         int popupHeight = 50;
         int x = screen.getWidth() / 2 - popupWidth / 2;
         int y = 80;
-        backBufferGraphics.setColor(new Color(0, 0, 0, 200));
+        backBufferGraphics.setColor(getPopupBackground());
         backBufferGraphics.fillRoundRect(x, y, popupWidth, popupHeight, 15, 15);
         backBufferGraphics.setColor(Color.YELLOW);
         backBufferGraphics.drawRoundRect(x, y, popupWidth, popupHeight, 15, 15);
@@ -288,25 +705,36 @@ public final class DrawManager {
     }
 
     /**
-     * Draws a notification popup for changes in health.
+     * Draws a notification popup for changes in health, over an opaque
+     * fill instead of a translucent one at low quality.
      */
     public void drawHealthPopup(final Screen screen, final String text) {
         int popupWidth = 250;
         int popupHeight = 40;
         int x = screen.getWidth() / 2 - popupWidth / 2;
         int y = 100;
-        backBufferGraphics.setColor(new Color(0, 0, 0, 200));
+        backBufferGraphics.setColor(getPopupBackground());
         backBufferGraphics.fillRoundRect(x, y, popupWidth, popupHeight, 15, 15);
         Color textColor;
         if (text.startsWith("+")) {
-            textColor = new Color(50, 255, 50);
+            textColor = POPUP_GAIN;
         } else {
-            textColor = new Color(255, 50, 50);
+            textColor = POPUP_LOSS;
         }
         backBufferGraphics.setColor(textColor);
         drawCenteredBigString(screen, text, y + popupHeight / 2 + 5);
     }
 
+	/**
+	 * Getter for the fill behind pop-ups at the current quality.
+	 *
+	 * @return Translucent black, or opaque black when blending is shed.
+	 */
+	private static Color getPopupBackground() {
+		return Core.getQualityGovernor().getTier().hasTranslucentPopups()
+				? POPUP_BACKGROUND : Color.BLACK;
+	}
+
 	/**
 	 * Draws a thick line from side to side of the screen.
 	 */
@@ -339,7 +767,7 @@ public final class DrawManager {
         String exitString = "Exit";
 
 		// Pulsing color for selected item
-		float pulse = (float) ((Math.sin(System.currentTimeMillis() / 200.0) + 1.0) / 2.0);
+		float pulse = (float) ((Math.sin(Core.getClock().getMillis() / 200.0) + 1.0) / 2.0);
 		Color pulseColor = new Color(0, 0.5f + pulse * 0.5f, 0);
 
         if (option == 2) backBufferGraphics.setColor(pulseColor);
@@ -397,7 +825,8 @@ public final class DrawManager {
 			else backBufferGraphics.setColor(Color.WHITE);
 			positionX += fontRegularMetrics.getWidths()[name[i]] / 2;
 			positionX = i == 0 ? positionX : positionX + (fontRegularMetrics.getWidths()[name[i - 1]] + fontRegularMetrics.getWidths()[' ']) / 2;
-			backBufferGraphics.drawString(Character.toString(name[i]), positionX, screen.getHeight() / 4 + fontRegularMetrics.getHeight() * 14);
+			textBuffer[0] = name[i];
+			drawText(textBuffer, 1, positionX, screen.getHeight() / 4 + fontRegularMetrics.getHeight() * 14);
 		}
 	}
 
@@ -482,7 +911,7 @@ public final class DrawManager {
 		for (CreditScreen.Credit credit : creditList) {
 			backBufferGraphics.setColor(Color.GREEN);
 			String teamInfo = String.format("%s - %s", credit.getTeamName(), credit.getRole());
-			backBufferGraphics.drawString(teamInfo, xPosition, yPosition);
+			drawText(teamInfo, xPosition, yPosition);
 			yPosition += lineSpacing;
 			yPosition += teamSpacing;
 		}
@@ -493,7 +922,7 @@ public final class DrawManager {
 	 */
 	public void drawCenteredRegularString(final Screen screen, final String string, final int height) {
 		backBufferGraphics.setFont(fontRegular);
-		backBufferGraphics.drawString(string, screen.getWidth() / 2 - fontRegularMetrics.stringWidth(string) / 2, height);
+		drawText(string, screen.getWidth() / 2 - stringWidth(string) / 2, height);
 	}
 
 	/**
@@ -501,7 +930,157 @@ public final class DrawManager {
 	 */
 	public void drawCenteredBigString(final Screen screen, final String string, final int height) {
 		backBufferGraphics.setFont(fontBig);
-		backBufferGraphics.drawString(string, screen.getWidth() / 2 - fontBigMetrics.stringWidth(string) / 2, height);
+		drawText(string, screen.getWidth() / 2 - stringWidth(string) / 2, height);
+	}
+
+	/**
+	 * Getter for the glyphs baked for a font.
+	 *
+	 * @param font
+	 *            Font to look up.
+	 * @return Atlas of the font, null if it was not baked.
+	 */
+	private static GlyphAtlas getAtlas(final Font font) {
+		if (regularAtlas != null && font == regularAtlas.getFont())
+			return regularAtlas;
+		if (bigAtlas != null && font == bigAtlas.getFont())
+			return bigAtlas;
+		if (smallAtlas != null && font == smallAtlas.getFont())
+			return smallAtlas;
+		return null;
+	}
+
+	/**
+	 * Draws a string in the current font and color, from the glyph atlas
+	 * when the font was baked and the string has only baked characters.
+	 *
+	 * @param string
+	 *            String to draw.
+	 * @param x
+	 *            Position of the start of the baseline in the x-axis.
+	 * @param y
+	 *            Position of the baseline in the y-axis.
+	 */
+	private static void drawText(final String string, final int x,
+			final int y) {
+		GlyphAtlas atlas = getAtlas(backBufferGraphics.getFont());
+		if (atlas != null && atlas.canDraw(string))
+			atlas.drawString(backBufferGraphics, string, x, y);
+		else
+			backBufferGraphics.drawString(string, x, y);
+	}
+
+	/**
+	 * Draws characters in the current font and color, from the glyph atlas
+	 * when the font was baked and the characters were all baked.
+	 *
+	 * @param chars
+	 *            Characters to draw.
+	 * @param length
+	 *            Number of characters.
+	 * @param x
+	 *            Position of the start of the baseline in the x-axis.
+	 * @param y
+	 *            Position of the baseline in the y-axis.
+	 */
+	private static void drawText(final char[] chars, final int length,
+			final int x, final int y) {
+		GlyphAtlas atlas = getAtlas(backBufferGraphics.getFont());
+		if (atlas != null && atlas.canDraw(chars, length))
+			atlas.drawChars(backBufferGraphics, chars, length, x, y);
+		else
+			backBufferGraphics.drawChars(chars, 0, length, x, y);
+	}
+
+	/**
+	 * Getter for the width of a string in the current font.
+	 *
+	 * @param string
+	 *            String to measure.
+	 * @return Width of the string.
+	 */
+	private static int stringWidth(final String string) {
+		GlyphAtlas atlas = getAtlas(backBufferGraphics.getFont());
+		if (atlas != null && atlas.canDraw(string))
+			return atlas.stringWidth(string);
+		return backBufferGraphics.getFontMetrics().stringWidth(string);
+	}
+
+	/**
+	 * Getter for the width of characters in the current font.
+	 *
+	 * @param chars
+	 *            Characters to measure.
+	 * @param length
+	 *            Number of characters.
+	 * @return Width of the characters.
+	 */
+	private static int charsWidth(final char[] chars, final int length) {
+		GlyphAtlas atlas = getAtlas(backBufferGraphics.getFont());
+		if (atlas != null && atlas.canDraw(chars, length))
+			return atlas.charsWidth(chars, length);
+		return backBufferGraphics.getFontMetrics().charsWidth(chars, 0,
+				length);
+	}
+
+	/**
+	 * Copies a string into a character buffer.
+	 *
+	 * @param buffer
+	 *            Buffer to write to.
+	 * @param offset
+	 *            Position to write from.
+	 * @param string
+	 *            String to copy.
+	 * @return Position after the last character written.
+	 */
+	private static int appendText(final char[] buffer, final int offset,
+			final String string) {
+		string.getChars(0, string.length(), buffer, offset);
+		return offset + string.length();
+	}
+
+	/**
+	 * Writes a number into a character buffer, padded with leading zeros.
+	 *
+	 * @param buffer
+	 *            Buffer to write to.
+	 * @param offset
+	 *            Position to write from.
+	 * @param value
+	 *            Number to write.
+	 * @param minDigits
+	 *            Fewest digits written.
+	 * @return Position after the last character written.
+	 */
+	private static int appendNumber(final char[] buffer, final int offset,
+			final long value, final int minDigits) {
+		int position = offset;
+		long magnitude = value;
+		if (magnitude < 0) {
+			buffer[position++] = '-';
+			magnitude = -magnitude;
+		}
+		int digits = 1;
+		for (long rest = magnitude / 10; rest > 0; rest /= 10)
+			digits++;
+		digits = Math.max(digits, minDigits);
+		for (int i = position + digits - 1; i >= position; i--) {
+			buffer[i] = (char) ('0' + magnitude % 10);
+			magnitude /= 10;
+		}
+		return position + digits;
+	}
+
+	/**
+	 * Draws a banner over the game while it is paused.
+	 */
+	public void drawPaused(final Screen screen) {
+		int rectHeight = screen.getHeight() / 6;
+		backBufferGraphics.setColor(Color.BLACK);
+		backBufferGraphics.fillRect(0, screen.getHeight() / 2 - rectHeight / 2, screen.getWidth(), rectHeight);
+		backBufferGraphics.setColor(Color.GREEN);
+		drawCenteredBigString(screen, "Paused", screen.getHeight() / 2 + fontBigMetrics.getHeight() / 3);
 	}
 
 	/**
@@ -608,11 +1187,11 @@ public final class DrawManager {
 		}
 		String levelInfo = currentLevel > 0 ? " [Lv." + currentLevel + "/" + maxLevel + "]" : " [Not Owned]";
 		backBufferGraphics.setFont(fontRegular);
-		backBufferGraphics.drawString(itemName + levelInfo, 30, yPosition);
+		drawText(itemName + levelInfo, 30, yPosition);
 
 		if (isSelected || isLevelSelection) {
 			backBufferGraphics.setColor(Color.GRAY);
-			backBufferGraphics.drawString(description, 30, yPosition + 15);
+			drawText(description, 30, yPosition + 15);
 		}
 
 		if (isLevelSelection) {
@@ -639,13 +1218,13 @@ public final class DrawManager {
 					backBufferGraphics.setColor(Color.RED);
 				}
 				String levelText = "Lv." + lvl + (isOwned ? " [OWNED]" : " (" + price + "$)");
-				int textWidth = fontRegularMetrics.stringWidth(levelText);
+				int textWidth = stringWidth(levelText);
 
 				if (currX + textWidth > levelStartX + maxWidth) {
 					currX = levelStartX;
 					currY += fontRegularMetrics.getHeight() + 3;
 				}
-				backBufferGraphics.drawString(levelText, currX, currY);
+				drawText(levelText, currX, currY);
 				currX += textWidth + spaceBetween;
 			}
 		}
@@ -677,40 +1256,61 @@ public final class DrawManager {
 	}
 
 	/**
-	 * Draws the starfield background.
+	 * Draws the starfield background and the enemies drifting on it.
 	 * 
 	 * @param screen
 	 *            Screen to draw on.
-	 * @param stars
-	 *            List of stars to draw.
-	 * @param angle
-	 *            Current rotation angle.
-	 */
-	public void drawStars(final Screen screen, final List<Star> stars, final float angle) {
-		final int centerX = screen.getWidth() / 2;
-		final int centerY = screen.getHeight() / 2;
-		final double angleRad = Math.toRadians(angle);
-		final double cosAngle = Math.cos(angleRad);
-		final double sinAngle = Math.sin(angleRad);
-
-		for (Star star : stars) {
-			float relX = star.baseX - centerX;
-			float relY = star.baseY - centerY;
-
-			double rotatedX = relX * cosAngle - relY * sinAngle;
-			double rotatedY = relX * sinAngle + relY * cosAngle;
-
-			int screenX = (int) (rotatedX + centerX);
-			int screenY = (int) (rotatedY + centerY);
-
-			// Use star's brightness to set its color for twinkling effect
-			float b = star.brightness;
-			if (b < 0) b = 0;
-			if (b > 1) b = 1;
-			backBufferGraphics.setColor(new Color(b, b, b));
-			backBufferGraphics.drawRect(screenX, screenY, 1, 1);
-		}
+	 * @param starfield
+	 *            Starfield to draw.
+	 */
+	public void drawStarfield(final Screen screen, final Starfield starfield) {
+		starfield.drawStars(backBuffer, palette);
+		for (int i = 0; i < starfield.getEnemyCount(); i++)
+			drawSprite(starfield.getEnemyType(i), Color.WHITE,
+					starfield.getEnemyScreenX(i), starfield.getEnemyScreenY(i));
 	}
 
-    	public void drawShootingStars(final Screen screen, final List<ShootingStar> shootingStars, final float angle) {    }
+	/**
+	 * Draws the particles of a snapshot as squares written straight into the
+	 * back buffer, on top of the sprites.
+	 *
+	 * @param snapshot
+	 *            Snapshot holding the particles.
+	 * @param alpha
+	 *            Fraction of a tick elapsed, used to interpolate positions.
+	 * @return Number of particles drawn.
+	 */
+	public int drawParticles(final FrameSnapshot snapshot, final float alpha) {
+		DataBuffer buffer = backBuffer.getRaster().getDataBuffer();
+		int[] pixels = buffer instanceof DataBufferInt
+				? ((DataBufferInt) buffer).getData() : null;
+		byte[] indexedPixels = buffer instanceof DataBufferByte
+				? ((DataBufferByte) buffer).getData() : null;
+		int width = backBuffer.getWidth();
+		int height = backBuffer.getHeight();
+		int drawn = 0;
+		for (int i = 0; i < snapshot.getParticleCount(); i++) {
+			int x = snapshot.getParticleX(i, alpha);
+			int y = snapshot.getParticleY(i, alpha);
+			if (x < 0 || y < 0 || x > width - PARTICLE_SIZE
+					|| y > height - PARTICLE_SIZE)
+				continue;
+			drawn++;
+			int offset = y * width + x;
+			int rgb = snapshot.getParticleColor(i);
+			if (pixels != null) {
+				pixels[offset] = rgb;
+				pixels[offset + 1] = rgb;
+				pixels[offset + width] = rgb;
+				pixels[offset + width + 1] = rgb;
+			} else {
+				byte index = palette.getIndex(rgb);
+				indexedPixels[offset] = index;
+				indexedPixels[offset + 1] = index;
+				indexedPixels[offset + width] = index;
+				indexedPixels[offset + width + 1] = index;
+			}
+		}
+		return drawn;
+	}
 }
\ No newline at end of file
@@ -61,12 +61,12 @@ public final class FileManager {
 	 * Loads sprites from disk.
 	 * 
 	 * @param spriteMap
-	 *            Mapping of sprite type and empty boolean matrix that will
-	 *            contain the image.
+	 *            Mapping of sprite type and empty mask that will contain the
+	 *            image.
 	 * @throws IOException
 	 *             In case of loading problems.
 	 */
-	public void loadSprite(final Map<SpriteType, boolean[][]> spriteMap)
+	public void loadSprite(final Map<SpriteType, SpriteMask> spriteMap)
 			throws IOException {
 		InputStream inputStream = null;
 
@@ -76,18 +76,16 @@ public final class FileManager {
             char c;
 
 			// Sprite loading.
-			for (Map.Entry<SpriteType, boolean[][]> sprite : spriteMap
+			for (Map.Entry<SpriteType, SpriteMask> sprite : spriteMap
 					.entrySet()) {
-				for (int i = 0; i < sprite.getValue().length; i++)
-					for (int j = 0; j < sprite.getValue()[i].length; j++) {
+				SpriteMask mask = sprite.getValue();
+				for (int i = 0; i < mask.getWidth(); i++)
+					for (int j = 0; j < mask.getHeight(); j++) {
 						do
 							c = (char) inputStream.read();
 						while (c != '0' && c != '1');
 
-						if (c == '1')
-							sprite.getValue()[i][j] = true;
-						else
-							sprite.getValue()[i][j] = false;
+						mask.setLit(i, j, c == '1');
 					}
 				logger.fine("Sprite " + sprite.getKey() + " loaded.");
 			}
@@ -220,7 +218,8 @@ public final class FileManager {
 	}
 
 	/**
-	 * Saves user high scores to disk.
+	 * Saves user high scores to disk. Headless runs save nothing, so
+	 * simulated games never touch the player's files.
 	 * 
 	 * @param highScores
 	 *            High scores to save.
@@ -229,6 +228,8 @@ public final class FileManager {
 	 */
 	public void saveHighScores(final List<Score> highScores) 
 			throws IOException {
+		if (Core.isHeadless())
+			return;
 		OutputStream outputStream = null;
 		BufferedWriter bufferedWriter = null;
 
@@ -271,6 +272,8 @@ public final class FileManager {
 	}
 	/**
 	 * Loads achievement unlock status from file and returns it as a map.
+	 * Headless runs start with every achievement locked, whatever the
+	 * player has unlocked.
 	 *
 	 * @return Map of achievement names and their unlocked status.
 	 * @throws IOException
@@ -278,6 +281,8 @@ public final class FileManager {
 	 */
 	public Map<String, Boolean> loadAchievements() throws IOException {
 		Map<String, Boolean> unlockedStatus = new HashMap<>();
+		if (Core.isHeadless())
+			return unlockedStatus;
 		String path = "achievements.dat";
 
 		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(path), "UTF-8"))) {
@@ -298,7 +303,8 @@ public final class FileManager {
 		return unlockedStatus;
 	}
 	/**
-	 * Saves current achievements and their unlock status to disk.
+	 * Saves current achievements and their unlock status to disk. Headless
+	 * runs save nothing.
 	 *
 	 * @param achievements
 	 *            List of achievements to save.
@@ -306,6 +312,8 @@ public final class FileManager {
 	 *             In case of saving problems.
 	 */
 	public void saveAchievements(final List<Achievement> achievements) throws IOException {
+		if (Core.isHeadless())
+			return;
 		String path = "achievements.dat";
 		try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), "UTF-8"))) {
 			logger.info("Saving achievements to file");
@@ -1,6 +1,10 @@
 package engine;
 
+import java.awt.Canvas;
+import java.awt.Dimension;
+import java.awt.GraphicsEnvironment;
 import java.awt.Insets;
+import java.awt.Rectangle;
 
 import javax.swing.JFrame;
 
@@ -21,9 +25,17 @@ public class Frame extends JFrame {
 	private int height;
 	/** Screen currently shown. */
 	private Screen currentScreen;
+	/**
+	 * Area inside the borders that frames are shown on. Its size is the
+	 * real size of the view, while the frame reports the size screens
+	 * draw at, so buffers made for the view match it.
+	 */
+	private final Canvas view;
 
 	/**
-	 * Initializes the new frame.
+	 * Initializes the new frame, scaled up by the largest whole factor that
+	 * fits the screen. The frame can be resized, screens keep drawing at
+	 * the size given and are scaled to the window.
 	 * 
 	 * @param width
 	 *            Frame width.
@@ -31,8 +43,14 @@ public class Frame extends JFrame {
 	 *            Frame height.
 	 */
 	public Frame(final int width, final int height) {
+		this.view = new Canvas();
+		this.view.setIgnoreRepaint(true);
+		// Keys keep going to the frame.
+		this.view.setFocusable(false);
+		add(this.view);
+
 		setSize(width, height);
-		setResizable(false);
+		setMinimumSize(new Dimension(width, height));
 		setDefaultCloseOperation(EXIT_ON_CLOSE);
 
 		setLocationRelativeTo(null);
@@ -43,6 +61,19 @@ public class Frame extends JFrame {
 		this.height = height - insets.top + insets.bottom;
 		setTitle("Invaders");
 
+		Rectangle bounds = GraphicsEnvironment.getLocalGraphicsEnvironment()
+				.getMaximumWindowBounds();
+		int borderWidth = insets.left + insets.right;
+		int borderHeight = insets.top + insets.bottom;
+		int scale = Math.max(1, Math.min(
+				(bounds.width - borderWidth) / this.width,
+				(bounds.height - borderHeight) / this.height));
+		if (scale > 1) {
+			setSize(this.width * scale + borderWidth,
+					this.height * scale + borderHeight);
+			setLocationRelativeTo(null);
+		}
+
 		addKeyListener(Core.getInputManager());
 	}
 
@@ -77,4 +108,33 @@ public class Frame extends JFrame {
 	public final int getHeight() {
 		return this.height;
 	}
+
+	/**
+	 * Getter for the area drawn on, the window without its borders.
+	 * 
+	 * @return View the frames are shown on.
+	 */
+	public final Canvas getView() {
+		return this.view;
+	}
+
+	/**
+	 * Getter for the width of the area drawn on, the window without its
+	 * borders.
+	 * 
+	 * @return View width.
+	 */
+	public final int getViewWidth() {
+		return this.view.getWidth();
+	}
+
+	/**
+	 * Getter for the height of the area drawn on, the window without its
+	 * borders.
+	 * 
+	 * @return View height.
+	 */
+	public final int getViewHeight() {
+		return this.view.getHeight();
+	}
 }
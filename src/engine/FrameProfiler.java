@@ -0,0 +1,176 @@
+package engine;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Times the phases of the game screen ticks and frames. Time spent in a
+ * phase is summed until the tick or frame is flushed, then added to the
+ * histogram of the phase. Tick phases are only touched by the game thread
+ * and frame phases only by the thread drawing the frames.
+ *
+ */
+public final class FrameProfiler {
+
+	/** Nanoseconds in a microsecond. */
+	private static final double NANOS_PER_MICRO = 1000.0;
+
+	/** Timed phases of the game screen. */
+	public enum Phase {
+		/** Player input and ship movement. */
+		INPUT,
+		/** Enemy formations movement and shooting. */
+		FORMATION,
+		/** Boss spawning, movement and shooting. */
+		BOSS,
+		/** Removal of items that left the screen. */
+		CLEAN_ITEMS,
+		/** Bullets hitting ships. */
+		BULLET_SHIP_COLLISIONS,
+		/** Ships crashing into enemies. */
+		SHIP_ENEMY_COLLISIONS,
+		/** Ships picking up items. */
+		ITEM_COLLISIONS,
+		/** Removal of bullets that left the screen. */
+		CLEAN_BULLETS,
+		/** Particles moving and fading. */
+		PARTICLES,
+		/** Drawing to the back buffer, the first of the frame phases. */
+		DRAW,
+		/** Copying the back buffer to the screen. */
+		COMPLETE_DRAWING
+	}
+
+	/** Singleton instance of the class. */
+	private static FrameProfiler instance;
+
+	/** Histogram of each phase. */
+	private final LatencyHistogram[] histograms;
+	/** Time spent in each phase since the last flush. */
+	private final long[] pending;
+	/** Phases timed since the last flush. */
+	private final boolean[] touched;
+
+	/**
+	 * Private constructor.
+	 */
+	private FrameProfiler() {
+		int phases = Phase.values().length;
+		this.histograms = new LatencyHistogram[phases];
+		for (int i = 0; i < phases; i++)
+			this.histograms[i] = new LatencyHistogram();
+		this.pending = new long[phases];
+		this.touched = new boolean[phases];
+	}
+
+	/**
+	 * Returns shared instance of FrameProfiler.
+	 *
+	 * @return Shared instance of FrameProfiler.
+	 */
+	protected static FrameProfiler getInstance() {
+		if (instance == null)
+			instance = new FrameProfiler();
+		return instance;
+	}
+
+	/**
+	 * Starts timing.
+	 *
+	 * @return Current time, to pass to {@link #record(Phase, long)}.
+	 */
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Adds the time elapsed since start to a phase.
+	 *
+	 * @param phase
+	 *            Phase that just ended.
+	 * @param start
+	 *            Time the phase began.
+	 * @return Current time, the start of the next phase.
+	 */
+	public long record(final Phase phase, final long start) {
+		long now = System.nanoTime();
+		this.pending[phase.ordinal()] += now - start;
+		this.touched[phase.ordinal()] = true;
+		return now;
+	}
+
+	/**
+	 * Adds the time summed for each tick phase since the last flush to its
+	 * histogram. Called at the end of every tick.
+	 */
+	public void flushTick() {
+		flush(0, Phase.DRAW.ordinal());
+	}
+
+	/**
+	 * Adds the time summed for each frame phase since the last flush to its
+	 * histogram. Called at the end of every frame.
+	 */
+	public void flushFrame() {
+		flush(Phase.DRAW.ordinal(), this.pending.length);
+	}
+
+	/**
+	 * Adds the time summed for a range of phases to their histograms.
+	 *
+	 * @param from
+	 *            First phase, inclusive.
+	 * @param to
+	 *            Last phase, exclusive.
+	 */
+	private void flush(final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			if (this.touched[i]) {
+				this.histograms[i].record(this.pending[i]);
+				this.pending[i] = 0;
+				this.touched[i] = false;
+			}
+		}
+	}
+
+	/**
+	 * Getter for the histogram of a phase.
+	 *
+	 * @param phase
+	 *            Timed phase.
+	 * @return Durations recorded for the phase.
+	 */
+	public LatencyHistogram getHistogram(final Phase phase) {
+		return this.histograms[phase.ordinal()];
+	}
+
+	/**
+	 * Writes the samples, p50, p99 and max of every phase, in microseconds.
+	 *
+	 * @param path
+	 *            File to write.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	public void dump(final String path) throws IOException {
+		PrintWriter writer = new PrintWriter(new FileWriter(path));
+		try {
+			writer.println(String.format("%-24s %10s %10s %10s %10s %10s",
+					"phase", "samples", "mean_us", "p50_us", "p99_us",
+					"max_us"));
+			for (Phase phase : Phase.values()) {
+				LatencyHistogram histogram = getHistogram(phase);
+				writer.println(String.format(
+						"%-24s %10d %10.1f %10.1f %10.1f %10.1f", phase,
+						histogram.getCount(),
+						histogram.getMean() / NANOS_PER_MICRO,
+						histogram.getPercentile(0.5) / NANOS_PER_MICRO,
+						histogram.getPercentile(0.99) / NANOS_PER_MICRO,
+						histogram.getMax() / NANOS_PER_MICRO));
+			}
+		} finally {
+			writer.close();
+		}
+	}
+}
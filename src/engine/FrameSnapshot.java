@@ -0,0 +1,456 @@
+package engine;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+import engine.DrawManager.SpriteType;
+import entity.DropItem;
+import entity.Entity;
+
+/**
+ * Drawable state of the game screen at the end of a tick: the sprites with
+ * their positions at the start and the end of the tick, and the HUD values.
+ * Each sprite belongs to a render layer, and sprites and particles that do
+ * not touch the viewport during the tick are left out as they are added.
+ * Snapshots are reused, so after the first frames publishing one does not
+ * allocate.
+ *
+ */
+public final class FrameSnapshot {
+
+	/** Sprites a new snapshot has room for. */
+	private static final int INITIAL_CAPACITY = 128;
+	/** Render layers, in drawing order. */
+	private static final RenderLayer[] LAYERS = RenderLayer.values();
+
+	/** Number of sprites. */
+	private int spriteCount;
+	/** Sprite of each entry. */
+	private SpriteType[] spriteTypes;
+	/** Color of each entry. */
+	private Color[] colors;
+	/** Position in the x-axis at the start of the tick. */
+	private int[] previousX;
+	/** Position in the y-axis at the start of the tick. */
+	private int[] previousY;
+	/** Position in the x-axis at the end of the tick. */
+	private int[] currentX;
+	/** Position in the y-axis at the end of the tick. */
+	private int[] currentY;
+	/** Render layer ordinal of each entry. */
+	private int[] layers;
+	/** Entries sorted by layer, in the order added within a layer. */
+	private int[] layerOrder;
+	/** Start of each layer in the sorted order, and the end of the last. */
+	private final int[] layerStarts;
+	/** Entries left out of each layer for being outside the viewport. */
+	private final int[] culledCounts;
+	/** Width of the area sprites are drawn on. */
+	private int viewportWidth;
+	/** Height of the area sprites are drawn on. */
+	private int viewportHeight;
+
+	/** Number of particles. */
+	private int particleCount;
+	/** Position of each particle in the x-axis at the start of the tick. */
+	private final int[] particlePreviousX;
+	/** Position of each particle in the y-axis at the start of the tick. */
+	private final int[] particlePreviousY;
+	/** Position of each particle in the x-axis at the end of the tick. */
+	private final int[] particleX;
+	/** Position of each particle in the y-axis at the end of the tick. */
+	private final int[] particleY;
+	/** RGB value of each particle. */
+	private final int[] particleColors;
+	/** Particles left out for being outside the viewport. */
+	private int culledParticles;
+
+	/** Time the snapshot was published, in nanoseconds. */
+	public long publishedAt;
+	/** Time since the previous snapshot was published, in nanoseconds. */
+	public long tickNanos;
+	/** Score of player 1. */
+	public int scoreP1;
+	/** Score of player 2. */
+	public int scoreP2;
+	/** Coins collected. */
+	public int coin;
+	/** Lives of player 1. */
+	public int livesP1;
+	/** Lives of player 2. */
+	public int livesP2;
+	/** Elapsed game time, in milliseconds. */
+	public long elapsedTime;
+	/** Current level number. */
+	public int level;
+	/** Name of the current level. */
+	public String levelName;
+	/** True if a bonus life was awarded this level. */
+	public boolean bonusLife;
+	/** Countdown number, or -1 once the game has started. */
+	public int countdown;
+	/** Achievement pop-up text, or null. */
+	public String achievementText;
+	/** Health pop-up text, or null. */
+	public String healthPopupText;
+	/** Items shown on the item HUD. */
+	public final DropItem.ItemType[] droppedItems;
+	/** Number of items shown on the item HUD. */
+	public int droppedItemCount;
+	/** Live bullets. */
+	public int bulletCount;
+	/** Live boss bullets. */
+	public int bossBulletCount;
+	/** Live drop items. */
+	public int dropItemCount;
+	/** Ships left in the formation. */
+	public int formationShipCount;
+	/** Pairs left for the exact collision check. */
+	public int collisionPairs;
+	/** Pairs the collision grid saved checking. */
+	public int prunedPairs;
+
+	/**
+	 * Constructor, creates an empty snapshot.
+	 */
+	public FrameSnapshot() {
+		this.spriteTypes = new SpriteType[INITIAL_CAPACITY];
+		this.colors = new Color[INITIAL_CAPACITY];
+		this.previousX = new int[INITIAL_CAPACITY];
+		this.previousY = new int[INITIAL_CAPACITY];
+		this.currentX = new int[INITIAL_CAPACITY];
+		this.currentY = new int[INITIAL_CAPACITY];
+		this.layers = new int[INITIAL_CAPACITY];
+		this.layerOrder = new int[INITIAL_CAPACITY];
+		this.layerStarts = new int[LAYERS.length + 1];
+		this.culledCounts = new int[LAYERS.length];
+		this.viewportWidth = Integer.MAX_VALUE;
+		this.viewportHeight = Integer.MAX_VALUE;
+		this.droppedItems = new DropItem.ItemType[
+				ItemHUDManager.MAX_DYNAMIC_ITEMS];
+		this.particlePreviousX = new int[ParticleSystem.CAPACITY];
+		this.particlePreviousY = new int[ParticleSystem.CAPACITY];
+		this.particleX = new int[ParticleSystem.CAPACITY];
+		this.particleY = new int[ParticleSystem.CAPACITY];
+		this.particleColors = new int[ParticleSystem.CAPACITY];
+	}
+
+	/**
+	 * Removes every sprite and particle, to start filling the snapshot again.
+	 */
+	public void clear() {
+		this.spriteCount = 0;
+		this.particleCount = 0;
+		this.culledParticles = 0;
+		Arrays.fill(this.layerStarts, 0);
+		Arrays.fill(this.culledCounts, 0);
+	}
+
+	/**
+	 * Sets the area sprites are drawn on. Sprites and particles added after
+	 * that are left out when they stay outside it the whole tick.
+	 *
+	 * @param width
+	 *            Width of the viewport.
+	 * @param height
+	 *            Height of the viewport.
+	 */
+	public void setViewport(final int width, final int height) {
+		this.viewportWidth = width;
+		this.viewportHeight = height;
+	}
+
+	/**
+	 * Adds an entity to a layer, moving from its position at the start of
+	 * the tick to its current one. Entities outside the viewport at both
+	 * positions are only counted as culled.
+	 *
+	 * @param entity
+	 *            Entity to draw.
+	 * @param layer
+	 *            Layer the entity is drawn in.
+	 */
+	public void addEntity(final Entity entity, final RenderLayer layer) {
+		addSprite(entity.getSpriteType(), entity.getColor(),
+				entity.getPreviousPositionX(), entity.getPreviousPositionY(),
+				entity.getPositionX(), entity.getPositionY(),
+				entity.getWidth(), entity.getHeight(), layer);
+	}
+
+	/**
+	 * Adds a sprite to a layer, moving from one position to another over
+	 * the tick. Sprites outside the viewport at both positions are only
+	 * counted as culled.
+	 *
+	 * @param spriteType
+	 *            Sprite to draw.
+	 * @param color
+	 *            Color of the sprite.
+	 * @param previousPositionX
+	 *            Position in the x-axis at the start of the tick.
+	 * @param previousPositionY
+	 *            Position in the y-axis at the start of the tick.
+	 * @param positionX
+	 *            Position in the x-axis at the end of the tick.
+	 * @param positionY
+	 *            Position in the y-axis at the end of the tick.
+	 * @param width
+	 *            Width of the sprite on screen.
+	 * @param height
+	 *            Height of the sprite on screen.
+	 * @param layer
+	 *            Layer the sprite is drawn in.
+	 */
+	public void addSprite(final SpriteType spriteType, final Color color,
+			final int previousPositionX, final int previousPositionY,
+			final int positionX, final int positionY, final int width,
+			final int height, final RenderLayer layer) {
+		if (Math.max(previousPositionX, positionX) + width <= 0
+				|| Math.max(previousPositionY, positionY) + height <= 0
+				|| Math.min(previousPositionX, positionX) >= this.viewportWidth
+				|| Math.min(previousPositionY,
+						positionY) >= this.viewportHeight) {
+			this.culledCounts[layer.ordinal()]++;
+			return;
+		}
+		if (this.spriteCount == this.spriteTypes.length)
+			grow();
+		int i = this.spriteCount++;
+		this.spriteTypes[i] = spriteType;
+		this.colors[i] = color;
+		this.previousX[i] = previousPositionX;
+		this.previousY[i] = previousPositionY;
+		this.currentX[i] = positionX;
+		this.currentY[i] = positionY;
+		this.layers[i] = layer.ordinal();
+		this.layerStarts[layer.ordinal() + 1]++;
+	}
+
+	/**
+	 * Sorts the entries by layer, keeping the order they were added in
+	 * within each layer. Called once every entity has been added.
+	 */
+	public void sortByLayer() {
+		int[] starts = this.layerStarts;
+		for (int l = 0; l < LAYERS.length; l++)
+			starts[l + 1] += starts[l];
+		for (int i = 0; i < this.spriteCount; i++)
+			this.layerOrder[starts[this.layers[i]]++] = i;
+		// Filling moved every start to the start of the next layer.
+		for (int l = LAYERS.length; l > 0; l--)
+			starts[l] = starts[l - 1];
+		starts[0] = 0;
+	}
+
+	/**
+	 * Getter for the first position of a layer in the sorted order.
+	 *
+	 * @param layer
+	 *            Render layer.
+	 * @return First position of the layer.
+	 */
+	public int getLayerStart(final RenderLayer layer) {
+		return this.layerStarts[layer.ordinal()];
+	}
+
+	/**
+	 * Getter for the position after the last one of a layer in the sorted
+	 * order.
+	 *
+	 * @param layer
+	 *            Render layer.
+	 * @return Position after the end of the layer.
+	 */
+	public int getLayerEnd(final RenderLayer layer) {
+		return this.layerStarts[layer.ordinal() + 1];
+	}
+
+	/**
+	 * Getter for the entry at a position of the sorted order.
+	 *
+	 * @param position
+	 *            Position between the start and end of a layer.
+	 * @return Entry index.
+	 */
+	public int getLayerEntry(final int position) {
+		return this.layerOrder[position];
+	}
+
+	/**
+	 * Getter for the entries of a layer left out for being outside the
+	 * viewport.
+	 *
+	 * @param layer
+	 *            Render layer.
+	 * @return Entries culled from the layer.
+	 */
+	public int getCulledCount(final RenderLayer layer) {
+		return this.culledCounts[layer.ordinal()];
+	}
+
+	/**
+	 * Getter for the particles left out for being outside the viewport.
+	 *
+	 * @return Particles culled.
+	 */
+	public int getCulledParticleCount() {
+		return this.culledParticles;
+	}
+
+	/**
+	 * Getter for the number of sprites.
+	 *
+	 * @return Sprites in the snapshot.
+	 */
+	public int getSpriteCount() {
+		return this.spriteCount;
+	}
+
+	/**
+	 * Getter for the sprite of an entry.
+	 *
+	 * @param index
+	 *            Entry index.
+	 * @return Sprite to draw.
+	 */
+	public SpriteType getSpriteType(final int index) {
+		return this.spriteTypes[index];
+	}
+
+	/**
+	 * Getter for the color of an entry.
+	 *
+	 * @param index
+	 *            Entry index.
+	 * @return Color to draw the sprite with.
+	 */
+	public Color getColor(final int index) {
+		return this.colors[index];
+	}
+
+	/**
+	 * Getter for the position of an entry in the x-axis.
+	 *
+	 * @param index
+	 *            Entry index.
+	 * @param alpha
+	 *            Fraction of the tick elapsed, 0 to 1.
+	 * @return Position interpolated between the start and end of the tick.
+	 */
+	public int getX(final int index, final float alpha) {
+		return this.previousX[index] + Math.round(
+				(this.currentX[index] - this.previousX[index]) * alpha);
+	}
+
+	/**
+	 * Getter for the position of an entry in the y-axis.
+	 *
+	 * @param index
+	 *            Entry index.
+	 * @param alpha
+	 *            Fraction of the tick elapsed, 0 to 1.
+	 * @return Position interpolated between the start and end of the tick.
+	 */
+	public int getY(final int index, final float alpha) {
+		return this.previousY[index] + Math.round(
+				(this.currentY[index] - this.previousY[index]) * alpha);
+	}
+
+	/**
+	 * Adds a particle, moving from its position at the start of the tick to
+	 * its current one. Particles outside the viewport at both positions are
+	 * only counted as culled, and particles past the capacity of the
+	 * particle system are ignored.
+	 *
+	 * @param previousX
+	 *            Position in the x-axis at the start of the tick.
+	 * @param previousY
+	 *            Position in the y-axis at the start of the tick.
+	 * @param x
+	 *            Position in the x-axis at the end of the tick.
+	 * @param y
+	 *            Position in the y-axis at the end of the tick.
+	 * @param rgb
+	 *            Color of the particle.
+	 */
+	public void addParticle(final int previousX, final int previousY,
+			final int x, final int y, final int rgb) {
+		if (Math.max(previousX, x) < 0 || Math.max(previousY, y) < 0
+				|| Math.min(previousX, x) >= this.viewportWidth
+				|| Math.min(previousY, y) >= this.viewportHeight) {
+			this.culledParticles++;
+			return;
+		}
+		if (this.particleCount == ParticleSystem.CAPACITY)
+			return;
+		int i = this.particleCount++;
+		this.particlePreviousX[i] = previousX;
+		this.particlePreviousY[i] = previousY;
+		this.particleX[i] = x;
+		this.particleY[i] = y;
+		this.particleColors[i] = rgb;
+	}
+
+	/**
+	 * Getter for the number of particles.
+	 *
+	 * @return Particles in the snapshot.
+	 */
+	public int getParticleCount() {
+		return this.particleCount;
+	}
+
+	/**
+	 * Getter for the position of a particle in the x-axis.
+	 *
+	 * @param index
+	 *            Particle index.
+	 * @param alpha
+	 *            Fraction of the tick elapsed, 0 to 1.
+	 * @return Position interpolated between the start and end of the tick.
+	 */
+	public int getParticleX(final int index, final float alpha) {
+		return this.particlePreviousX[index] + Math.round((this.particleX[index]
+				- this.particlePreviousX[index]) * alpha);
+	}
+
+	/**
+	 * Getter for the position of a particle in the y-axis.
+	 *
+	 * @param index
+	 *            Particle index.
+	 * @param alpha
+	 *            Fraction of the tick elapsed, 0 to 1.
+	 * @return Position interpolated between the start and end of the tick.
+	 */
+	public int getParticleY(final int index, final float alpha) {
+		return this.particlePreviousY[index] + Math.round((this.particleY[index]
+				- this.particlePreviousY[index]) * alpha);
+	}
+
+	/**
+	 * Getter for the color of a particle.
+	 *
+	 * @param index
+	 *            Particle index.
+	 * @return RGB value of the particle.
+	 */
+	public int getParticleColor(final int index) {
+		return this.particleColors[index];
+	}
+
+	/**
+	 * Doubles the room for sprites.
+	 */
+	private void grow() {
+		int capacity = this.spriteTypes.length * 2;
+		this.spriteTypes = Arrays.copyOf(this.spriteTypes, capacity);
+		this.colors = Arrays.copyOf(this.colors, capacity);
+		this.previousX = Arrays.copyOf(this.previousX, capacity);
+		this.previousY = Arrays.copyOf(this.previousY, capacity);
+		this.currentX = Arrays.copyOf(this.currentX, capacity);
+		this.currentY = Arrays.copyOf(this.currentY, capacity);
+		this.layers = Arrays.copyOf(this.layers, capacity);
+		this.layerOrder = new int[capacity];
+	}
+}
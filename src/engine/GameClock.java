@@ -0,0 +1,139 @@
+package engine;
+
+/**
+ * Keeps the game time of a session. The time only moves when the screen
+ * loop advances it, once per tick, so every check made during a tick sees
+ * the same instant and the game can be paused or run faster than real time.
+ *
+ */
+public final class GameClock {
+
+	/** Nanoseconds in a millisecond. */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	/** Ways the game time can follow the real time. */
+	public enum Mode {
+		/** Game time moves along with the real time. */
+		REAL_TIME,
+		/** Game time is stopped. */
+		PAUSED,
+		/** Game time moves several times faster than the real time. */
+		FAST_FORWARD
+	}
+
+	/** Current game time, in nanoseconds. */
+	private long nanos;
+	/** How the game time follows the real time, read by the render thread. */
+	private volatile Mode mode;
+	/** Times faster than real time while fast-forwarding. */
+	private int speed;
+
+	/**
+	 * Constructor, starts a clock at time zero, running in real time.
+	 */
+	public GameClock() {
+		this.nanos = 0;
+		this.mode = Mode.REAL_TIME;
+		this.speed = 1;
+	}
+
+	/**
+	 * Getter for the game time.
+	 *
+	 * @return Milliseconds of game time elapsed.
+	 */
+	public long getMillis() {
+		return this.nanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Getter for the game time.
+	 *
+	 * @return Nanoseconds of game time elapsed.
+	 */
+	public long getNanos() {
+		return this.nanos;
+	}
+
+	/**
+	 * Moves the game time forward, called once per tick.
+	 *
+	 * @param elapsedNanos
+	 *            Game time the tick lasts, in nanoseconds.
+	 */
+	public void advance(final long elapsedNanos) {
+		this.nanos += elapsedNanos;
+	}
+
+	/**
+	 * Getter for how many units of game time pass per unit of real time.
+	 *
+	 * @return 0 while paused, the fast-forward speed while fast-forwarding, 1
+	 *         otherwise.
+	 */
+	public int getTimeScale() {
+		switch (this.mode) {
+		case PAUSED:
+			return 0;
+		case FAST_FORWARD:
+			return this.speed;
+		default:
+			return 1;
+		}
+	}
+
+	/**
+	 * Getter for the current mode.
+	 *
+	 * @return How the game time follows the real time.
+	 */
+	public Mode getMode() {
+		return this.mode;
+	}
+
+	/**
+	 * Makes the game time follow the real time.
+	 */
+	public void setRealTime() {
+		this.mode = Mode.REAL_TIME;
+		this.speed = 1;
+	}
+
+	/**
+	 * Stops the game time until it is resumed or another mode is set.
+	 */
+	public void pause() {
+		this.mode = Mode.PAUSED;
+	}
+
+	/**
+	 * Lets the game time move again at the speed it had before pausing.
+	 */
+	public void resume() {
+		this.mode = this.speed > 1 ? Mode.FAST_FORWARD : Mode.REAL_TIME;
+	}
+
+	/**
+	 * Pauses the game time if it is moving, resumes it otherwise.
+	 */
+	public void togglePause() {
+		if (this.mode == Mode.PAUSED)
+			resume();
+		else
+			pause();
+	}
+
+	/**
+	 * Makes the game time run several times faster than the real time.
+	 *
+	 * @param speed
+	 *            Times faster than real time, at least 1.
+	 */
+	public void fastForward(final int speed) {
+		if (speed < 1)
+			throw new IllegalArgumentException("Speed must be at least 1: "
+					+ speed);
+		this.mode = Mode.FAST_FORWARD;
+		this.speed = speed;
+	}
+}
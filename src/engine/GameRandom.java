@@ -0,0 +1,69 @@
+package engine;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Random numbers of a session. Every subsystem draws from its own stream,
+ * split from a single seed, so a run can be reproduced from its seed and
+ * what one subsystem draws never shifts the numbers another one sees.
+ *
+ */
+public final class GameRandom {
+
+	/** Subsystems with their own stream of random numbers. */
+	public enum Stream {
+		/** Duration of cooldowns with variance. */
+		COOLDOWN,
+		/** Choice of the enemy ship that shoots. */
+		ENEMY_FIRE,
+		/** Item drops of destroyed enemies. */
+		ITEM_DROP,
+		/** Shooting patterns of the bosses. */
+		BOSS,
+		/** Decoration of menu screens. */
+		BACKGROUND,
+		/** Bursts of particles. */
+		PARTICLES
+	}
+
+	/** Seed every stream is split from. */
+	private final long seed;
+	/** Stream of each subsystem. */
+	private final Map<Stream, SplittableRandom> streams;
+
+	/**
+	 * Constructor, splits one stream per subsystem from the seed.
+	 *
+	 * @param seed
+	 *            Seed of the session.
+	 */
+	public GameRandom(final long seed) {
+		this.seed = seed;
+		this.streams = new EnumMap<Stream, SplittableRandom>(Stream.class);
+		SplittableRandom root = new SplittableRandom(seed);
+		for (Stream stream : Stream.values())
+			this.streams.put(stream, root.split());
+	}
+
+	/**
+	 * Getter for the seed.
+	 *
+	 * @return Seed the session was started with.
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+
+	/**
+	 * Getter for the stream of a subsystem.
+	 *
+	 * @param stream
+	 *            Subsystem drawing the numbers.
+	 * @return Random number generator of the subsystem.
+	 */
+	public SplittableRandom get(final Stream stream) {
+		return this.streams.get(stream);
+	}
+}
@@ -6,11 +6,16 @@ package engine;
  */
 public class GameTimer {
 
+    private final GameClock clock;
     private long startTime;
     private long stopTime;
     private boolean running;
     
-    public GameTimer() {
+    /**
+     * @param clock Clock the elapsed time is measured against.
+     */
+    public GameTimer(final GameClock clock) {
+        this.clock = clock;
         this.startTime = 0L;
         this.stopTime = 0L;
         this.running = false;
@@ -20,7 +25,7 @@ public class GameTimer {
      * Starts the timer.
      */
     public void start() {
-        this.startTime = System.nanoTime();
+        this.startTime = this.clock.getNanos();
         this.running = true;
         this.stopTime = 0L;
     }
@@ -30,7 +35,7 @@ public class GameTimer {
      */
     public void stop() {
         if (this.running) {
-            this.stopTime = System.nanoTime();
+            this.stopTime = this.clock.getNanos();
             this.running = false;
         }
     }
@@ -39,7 +44,7 @@ public class GameTimer {
      * @return Elapsed time in milliseconds.
      */
     public long getElapsedTime() {
-        final long endTime = this.running ? System.nanoTime() : this.stopTime;
+        final long endTime = this.running ? this.clock.getNanos() : this.stopTime;
         return (endTime - this.startTime) / 1000000;
     }
 
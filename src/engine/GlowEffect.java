@@ -0,0 +1,124 @@
+package engine;
+
+/**
+ * Makes bright pixels bleed into their neighbours, like the glow of CRT
+ * phosphors. Each pixel adds a share of the pixels up to two away along its
+ * row and column, following a kernel of weights made once. Red and blue
+ * are added together in the two halves of one int and green on its own,
+ * and the sums are clamped through a table.
+ *
+ */
+public final class GlowEffect implements PostProcessor.PostEffect {
+
+	/** Furthest neighbour that glows into a pixel. */
+	private static final int RADIUS = 2;
+	/** Bits of the fraction of a weight. */
+	private static final int WEIGHT_BITS = 6;
+	/** Weight of a whole neighbour. */
+	private static final int FULL = 1 << WEIGHT_BITS;
+	/** Largest sum of a channel and its glow. */
+	private static final int MAX_SUM = 255 * (1 + 4 * RADIUS);
+
+	/** Weight of the neighbours at each distance minus one, in 64ths. */
+	private final int[] kernel;
+	/** Channel value of each sum, clamped to 255. */
+	private final int[] clamp;
+
+	/**
+	 * Constructor, makes the kernel and the clamp table.
+	 *
+	 * @param strength
+	 *            Share of the nearest neighbours added, from 0 to 1, halved
+	 *            at each further step.
+	 */
+	public GlowEffect(final float strength) {
+		this.kernel = new int[RADIUS];
+		float share = Math.max(0, Math.min(1, strength));
+		for (int d = 0; d < RADIUS; d++) {
+			this.kernel[d] = (int) (share * FULL);
+			share /= 2;
+		}
+		this.clamp = new int[MAX_SUM + 1];
+		for (int sum = 0; sum <= MAX_SUM; sum++)
+			this.clamp[sum] = Math.min(255, sum);
+	}
+
+	@Override
+	public String getName() {
+		return "Glow";
+	}
+
+	@Override
+	public void prepare(final int width, final int height) {
+		// The kernel does not depend on the frame size.
+	}
+
+	@Override
+	public void apply(final int[] source, final int[] target,
+			final int width, final int height, final int top,
+			final int bottom) {
+		for (int y = top; y < bottom; y++) {
+			int offset = y * width;
+			boolean innerRow = y >= RADIUS && y < height - RADIUS;
+			for (int x = 0; x < width; x++) {
+				int i = offset + x;
+				int rgb = source[i];
+				int redBlue = rgb & 0xFF00FF;
+				int green = rgb & 0x00FF00;
+				if (innerRow && x >= RADIUS && x < width - RADIUS) {
+					// The four neighbours at a distance are summed first, each
+					// channel sum fits its lane before the weight is applied.
+					for (int d = 1; d <= RADIUS; d++) {
+						int weight = this.kernel[d - 1];
+						int left = source[i - d];
+						int right = source[i + d];
+						int up = source[i - d * width];
+						int down = source[i + d * width];
+						int sumRedBlue = (left & 0xFF00FF) + (right & 0xFF00FF)
+								+ (up & 0xFF00FF) + (down & 0xFF00FF);
+						int sumGreen = (left & 0x00FF00) + (right & 0x00FF00)
+								+ (up & 0x00FF00) + (down & 0x00FF00);
+						redBlue += sumRedBlue * weight >>> WEIGHT_BITS
+								& 0x3FF03FF;
+						green += sumGreen * weight >>> WEIGHT_BITS & 0x3FF00;
+					}
+				} else {
+					for (int d = 1; d <= RADIUS; d++) {
+						int weight = this.kernel[d - 1];
+						if (x - d >= 0) {
+							int n = source[i - d];
+							redBlue += (n & 0xFF00FF) * weight >>> WEIGHT_BITS
+									& 0x3FF03FF;
+							green += (n & 0x00FF00) * weight >>> WEIGHT_BITS
+									& 0x3FF00;
+						}
+						if (x + d < width) {
+							int n = source[i + d];
+							redBlue += (n & 0xFF00FF) * weight >>> WEIGHT_BITS
+									& 0x3FF03FF;
+							green += (n & 0x00FF00) * weight >>> WEIGHT_BITS
+									& 0x3FF00;
+						}
+						if (y - d >= 0) {
+							int n = source[i - d * width];
+							redBlue += (n & 0xFF00FF) * weight >>> WEIGHT_BITS
+									& 0x3FF03FF;
+							green += (n & 0x00FF00) * weight >>> WEIGHT_BITS
+									& 0x3FF00;
+						}
+						if (y + d < height) {
+							int n = source[i + d * width];
+							redBlue += (n & 0xFF00FF) * weight >>> WEIGHT_BITS
+									& 0x3FF03FF;
+							green += (n & 0x00FF00) * weight >>> WEIGHT_BITS
+									& 0x3FF00;
+						}
+					}
+				}
+				target[i] = this.clamp[redBlue >>> 16] << 16
+						| this.clamp[green >>> 8] << 8
+						| this.clamp[redBlue & 0xFFFF];
+			}
+		}
+	}
+}
@@ -0,0 +1,348 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Printable ASCII glyphs of a font, baked once into a single image. Text is
+ * drawn as one image copy per character from a copy of the atlas tinted in
+ * the text color, with widths summed from the baked advances, so drawing
+ * text neither allocates nor lays the string out again. Only colors asked
+ * for again and again get a tinted copy, and copies are never replaced;
+ * text in any other color, such as a pulsing highlight, is tinted a glyph
+ * at a time into a reused cell.
+ *
+ */
+public final class GlyphAtlas {
+
+	/** First character baked. */
+	private static final char FIRST = ' ';
+	/** Last character baked. */
+	private static final char LAST = '~';
+	/** Tinted copies of the atlas kept. */
+	private static final int MAX_TINTS = 8;
+	/** Colors without a tinted copy whose uses are counted. */
+	private static final int MAX_CANDIDATES = 16;
+	/** Uses after which a color gets a tinted copy, if one is free. */
+	private static final int USES_BEFORE_TINT = 16;
+
+	/** Font baked. */
+	private final Font font;
+	/** Advance of each baked character. */
+	private final int[] advances;
+	/** Distance from the top of a cell to the baseline. */
+	private final int ascent;
+	/** Width of a cell. */
+	private final int cellWidth;
+	/** Height of a cell. */
+	private final int cellHeight;
+	/** Room left of the pen position for glyphs that overhang. */
+	private final int padding;
+	/** Width of the whole atlas. */
+	private final int atlasWidth;
+	/** Coverage of each atlas pixel, 0 to 255. */
+	private final byte[] coverage;
+	/** Color of each tinted copy. */
+	private final int[] tintColors;
+	/** Tinted copies of the atlas. */
+	private final BufferedImage[] tints;
+	/** Tinted copies made. */
+	private int tintCount;
+	/** Colors whose uses are counted. */
+	private final int[] candidateColors;
+	/** Uses of each counted color. */
+	private final int[] candidateUses;
+	/** Cell a glyph in a color without a tinted copy is tinted into. */
+	private final BufferedImage cell;
+	/** Pixels of the cell. */
+	private final int[] cellPixels;
+
+	/**
+	 * Constructor, bakes the glyphs of a font.
+	 *
+	 * @param font
+	 *            Font to bake.
+	 */
+	public GlyphAtlas(final Font font) {
+		this.font = font;
+		BufferedImage scratch = new BufferedImage(1, 1,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics scratchGraphics = scratch.getGraphics();
+		FontMetrics metrics = scratchGraphics.getFontMetrics(font);
+		scratchGraphics.dispose();
+
+		int count = LAST - FIRST + 1;
+		this.advances = new int[count];
+		int maxAdvance = 0;
+		for (int i = 0; i < count; i++) {
+			this.advances[i] = metrics.charWidth((char) (FIRST + i));
+			maxAdvance = Math.max(maxAdvance, this.advances[i]);
+		}
+		this.padding = font.getSize() / 2 + 1;
+		this.ascent = metrics.getMaxAscent() + this.padding;
+		this.cellWidth = maxAdvance + 2 * this.padding;
+		this.cellHeight = this.ascent + metrics.getMaxDescent() + this.padding;
+
+		this.atlasWidth = this.cellWidth * count;
+		BufferedImage mask = new BufferedImage(this.atlasWidth,
+				this.cellHeight, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = mask.createGraphics();
+		graphics.setFont(font);
+		graphics.setColor(Color.WHITE);
+		char[] glyph = new char[1];
+		for (int i = 0; i < count; i++) {
+			glyph[0] = (char) (FIRST + i);
+			graphics.drawChars(glyph, 0, 1, i * this.cellWidth + this.padding,
+					this.ascent);
+		}
+		graphics.dispose();
+
+		int[] pixels = mask.getRGB(0, 0, this.atlasWidth, this.cellHeight,
+				null, 0, this.atlasWidth);
+		this.coverage = new byte[pixels.length];
+		for (int i = 0; i < pixels.length; i++)
+			this.coverage[i] = (byte) (pixels[i] >>> 24);
+
+		this.tintColors = new int[MAX_TINTS];
+		this.tints = new BufferedImage[MAX_TINTS];
+		this.candidateColors = new int[MAX_CANDIDATES];
+		this.candidateUses = new int[MAX_CANDIDATES];
+		this.cell = new BufferedImage(this.cellWidth, this.cellHeight,
+				BufferedImage.TYPE_INT_ARGB);
+		this.cellPixels = ((DataBufferInt) this.cell.getRaster()
+				.getDataBuffer()).getData();
+	}
+
+	/**
+	 * Getter for the font baked.
+	 *
+	 * @return Font of the atlas.
+	 */
+	public Font getFont() {
+		return this.font;
+	}
+
+	/**
+	 * Checks if every character of a string was baked.
+	 *
+	 * @param string
+	 *            String to check.
+	 * @return True if the atlas can draw the string.
+	 */
+	public boolean canDraw(final String string) {
+		for (int i = 0; i < string.length(); i++)
+			if (string.charAt(i) < FIRST || string.charAt(i) > LAST)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Checks if every one of some characters was baked.
+	 *
+	 * @param chars
+	 *            Characters to check.
+	 * @param length
+	 *            Number of characters.
+	 * @return True if the atlas can draw the characters.
+	 */
+	public boolean canDraw(final char[] chars, final int length) {
+		for (int i = 0; i < length; i++)
+			if (chars[i] < FIRST || chars[i] > LAST)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Getter for the width of a string drawn with the atlas.
+	 *
+	 * @param string
+	 *            String to measure, made of baked characters.
+	 * @return Width of the string.
+	 */
+	public int stringWidth(final String string) {
+		int width = 0;
+		for (int i = 0; i < string.length(); i++)
+			width += this.advances[string.charAt(i) - FIRST];
+		return width;
+	}
+
+	/**
+	 * Getter for the width of characters drawn with the atlas.
+	 *
+	 * @param chars
+	 *            Characters to measure, all baked.
+	 * @param length
+	 *            Number of characters.
+	 * @return Width of the characters.
+	 */
+	public int charsWidth(final char[] chars, final int length) {
+		int width = 0;
+		for (int i = 0; i < length; i++)
+			width += this.advances[chars[i] - FIRST];
+		return width;
+	}
+
+	/**
+	 * Draws a string made of baked characters.
+	 *
+	 * @param graphics
+	 *            Graphics context to draw on, its color is used.
+	 * @param string
+	 *            String to draw.
+	 * @param x
+	 *            Position of the start of the baseline in the x-axis.
+	 * @param y
+	 *            Position of the baseline in the y-axis.
+	 */
+	public void drawString(final Graphics graphics, final String string,
+			final int x, final int y) {
+		Color color = graphics.getColor();
+		BufferedImage tint = getTint(color);
+		int penX = x;
+		for (int i = 0; i < string.length(); i++)
+			penX = drawGlyph(graphics, tint, color, string.charAt(i), penX, y);
+	}
+
+	/**
+	 * Draws characters, all baked.
+	 *
+	 * @param graphics
+	 *            Graphics context to draw on, its color is used.
+	 * @param chars
+	 *            Characters to draw.
+	 * @param length
+	 *            Number of characters.
+	 * @param x
+	 *            Position of the start of the baseline in the x-axis.
+	 * @param y
+	 *            Position of the baseline in the y-axis.
+	 */
+	public void drawChars(final Graphics graphics, final char[] chars,
+			final int length, final int x, final int y) {
+		Color color = graphics.getColor();
+		BufferedImage tint = getTint(color);
+		int penX = x;
+		for (int i = 0; i < length; i++)
+			penX = drawGlyph(graphics, tint, color, chars[i], penX, y);
+	}
+
+	/**
+	 * Draws one glyph.
+	 *
+	 * @param graphics
+	 *            Graphics context to draw on.
+	 * @param tint
+	 *            Atlas tinted in the text color, null to tint the glyph on
+	 *            its own.
+	 * @param color
+	 *            Text color.
+	 * @param c
+	 *            Character to draw.
+	 * @param x
+	 *            Pen position in the x-axis.
+	 * @param y
+	 *            Position of the baseline in the y-axis.
+	 * @return Pen position after the glyph.
+	 */
+	private int drawGlyph(final Graphics graphics, final BufferedImage tint,
+			final Color color, final char c, final int x, final int y) {
+		int index = c - FIRST;
+		if (c != ' ') {
+			int sourceX = index * this.cellWidth;
+			int targetX = x - this.padding;
+			int targetY = y - this.ascent;
+			if (tint != null) {
+				graphics.drawImage(tint, targetX, targetY,
+						targetX + this.cellWidth, targetY + this.cellHeight,
+						sourceX, 0, sourceX + this.cellWidth, this.cellHeight,
+						null);
+			} else {
+				tintCell(sourceX, color);
+				graphics.drawImage(this.cell, targetX, targetY, null);
+			}
+		}
+		return x + this.advances[index];
+	}
+
+	/**
+	 * Tints one glyph of the atlas into the cell.
+	 *
+	 * @param sourceX
+	 *            Left of the glyph in the atlas.
+	 * @param color
+	 *            Text color.
+	 */
+	private void tintCell(final int sourceX, final Color color) {
+		int rgb = color.getRGB() & 0xFFFFFF;
+		int alpha = color.getAlpha();
+		int i = 0;
+		for (int y = 0; y < this.cellHeight; y++) {
+			int source = y * this.atlasWidth + sourceX;
+			for (int x = 0; x < this.cellWidth; x++) {
+				int glyphAlpha = (this.coverage[source + x] & 0xFF) * alpha
+						/ 255;
+				this.cellPixels[i++] = glyphAlpha << 24 | rgb;
+			}
+		}
+	}
+
+	/**
+	 * Getter for the atlas tinted in a color. A color gets its copy once it
+	 * has been used often enough while a copy is free, and copies are kept
+	 * for good, so the atlas allocates at most {@link #MAX_TINTS} copies and
+	 * a color that keeps changing never pushes out the steady ones.
+	 *
+	 * @param color
+	 *            Text color.
+	 * @return Tinted atlas, or null if the color has no copy.
+	 */
+	private BufferedImage getTint(final Color color) {
+		int rgb = color.getRGB();
+		for (int i = 0; i < this.tintCount; i++)
+			if (this.tintColors[i] == rgb)
+				return this.tints[i];
+		if (this.tintCount == MAX_TINTS || countUse(rgb) < USES_BEFORE_TINT)
+			return null;
+
+		int alpha = color.getAlpha();
+		int[] pixels = new int[this.coverage.length];
+		for (int i = 0; i < pixels.length; i++) {
+			int glyphAlpha = (this.coverage[i] & 0xFF) * alpha / 255;
+			pixels[i] = glyphAlpha << 24 | rgb & 0xFFFFFF;
+		}
+		BufferedImage tint = new BufferedImage(this.atlasWidth,
+				this.cellHeight, BufferedImage.TYPE_INT_ARGB);
+		tint.setRGB(0, 0, this.atlasWidth, this.cellHeight, pixels, 0,
+				this.atlasWidth);
+
+		this.tintColors[this.tintCount] = rgb;
+		this.tints[this.tintCount++] = tint;
+		return tint;
+	}
+
+	/**
+	 * Counts a use of a color without a tinted copy, forgetting the least
+	 * used counted color when there is no room for a new one.
+	 *
+	 * @param rgb
+	 *            Text color.
+	 * @return Uses of the color counted so far.
+	 */
+	private int countUse(final int rgb) {
+		int leastUsed = 0;
+		for (int i = 0; i < MAX_CANDIDATES; i++) {
+			if (this.candidateUses[i] > 0 && this.candidateColors[i] == rgb)
+				return ++this.candidateUses[i];
+			if (this.candidateUses[i] < this.candidateUses[leastUsed])
+				leastUsed = i;
+		}
+		this.candidateColors[leastUsed] = rgb;
+		this.candidateUses[leastUsed] = 1;
+		return 1;
+	}
+}
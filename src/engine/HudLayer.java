@@ -0,0 +1,138 @@
+package engine;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Pre-rendered band of the HUD. The layer remembers the values it was drawn
+ * from and is only drawn again when one of them changes; in between it is
+ * copied onto the frame as a single transparent image.
+ *
+ */
+public final class HudLayer {
+
+	/** Top of the band on the screen. */
+	private final int top;
+	/** Image of the band, transparent where nothing is drawn. */
+	private final BufferedImage image;
+	/** Graphics context of the image, in screen coordinates. */
+	private final Graphics2D graphics;
+	/** Numeric values the layer was drawn from. */
+	private final long[] values;
+	/** Text the layer was drawn from. */
+	private String text;
+	/** True if the layer must be drawn again. */
+	private boolean dirty;
+
+	/**
+	 * Constructor, creates an empty layer.
+	 *
+	 * @param width
+	 *            Width of the band.
+	 * @param top
+	 *            Top of the band on the screen.
+	 * @param height
+	 *            Height of the band.
+	 * @param valueCount
+	 *            Number of numeric values the layer is drawn from.
+	 */
+	public HudLayer(final int width, final int top, final int height,
+			final int valueCount) {
+		this.top = top;
+		this.image = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_ARGB);
+		this.graphics = this.image.createGraphics();
+		this.graphics.translate(0, -top);
+		this.values = new long[valueCount];
+		this.dirty = true;
+	}
+
+	/**
+	 * Sets a value the layer is drawn from, marking it dirty if it changed.
+	 *
+	 * @param index
+	 *            Index of the value.
+	 * @param value
+	 *            New value.
+	 */
+	public void setValue(final int index, final long value) {
+		if (this.values[index] != value) {
+			this.values[index] = value;
+			this.dirty = true;
+		}
+	}
+
+	/**
+	 * Sets the text the layer is drawn from, marking it dirty if it changed.
+	 *
+	 * @param newText
+	 *            New text.
+	 */
+	public void setText(final String newText) {
+		if (newText == null ? this.text != null : !newText.equals(this.text)) {
+			this.text = newText;
+			this.dirty = true;
+		}
+	}
+
+	/**
+	 * Marks the layer to be drawn again on its next use.
+	 */
+	public void invalidate() {
+		this.dirty = true;
+	}
+
+	/**
+	 * Checks if the layer must be drawn again.
+	 *
+	 * @return True if a value changed since the layer was drawn.
+	 */
+	public boolean isDirty() {
+		return this.dirty;
+	}
+
+	/**
+	 * Clears the layer to draw it again.
+	 *
+	 * @return Graphics context of the layer, in screen coordinates.
+	 */
+	public Graphics2D beginRender() {
+		Composite composite = this.graphics.getComposite();
+		this.graphics.setComposite(AlphaComposite.Clear);
+		this.graphics.fillRect(0, this.top, this.image.getWidth(),
+				this.image.getHeight());
+		this.graphics.setComposite(composite);
+		this.dirty = false;
+		return this.graphics;
+	}
+
+	/**
+	 * Copies the layer onto the frame.
+	 *
+	 * @param target
+	 *            Graphics context of the frame.
+	 */
+	public void draw(final Graphics target) {
+		target.drawImage(this.image, 0, this.top, null);
+	}
+
+	/**
+	 * Checks if the layer covers the given band.
+	 *
+	 * @param width
+	 *            Width of the band.
+	 * @param bandTop
+	 *            Top of the band on the screen.
+	 * @param height
+	 *            Height of the band.
+	 * @return True if the layer has the same bounds.
+	 */
+	public boolean covers(final int width, final int bandTop,
+			final int height) {
+		return this.image.getWidth() == width && this.top == bandTop
+				&& this.image.getHeight() == height;
+	}
+}
@@ -13,10 +13,24 @@ public final class InputManager implements KeyListener {
 
 	/** Number of recognised keys. */
 	private static final int NUM_KEYS = 256;
+	/** Key that shows or hides the performance overlay. */
+	private static final int OVERLAY_KEY = KeyEvent.VK_F3;
+	/** Key that turns the post-processing effects on or off. */
+	private static final int POST_PROCESSING_KEY = KeyEvent.VK_F4;
 	/** Array with the jeys marked as pressed or not. */
 	private static boolean[] keys;
 	/** Singleton instance of the class. */
 	private static InputManager instance;
+	/**
+	 * True while the performance overlay is shown. Toggled on the event
+	 * thread and read by the render thread.
+	 */
+	private static volatile boolean overlayVisible;
+	/**
+	 * True while the post-processing effects are on. Toggled on the event
+	 * thread and read by the render thread.
+	 */
+	private static volatile boolean postProcessingEnabled;
 
 	/**
 	 * Private constructor.
@@ -47,6 +61,37 @@ public final class InputManager implements KeyListener {
 		return keys[keyCode];
 	}
 
+	/**
+	 * Checks if the performance overlay was toggled on.
+	 * 
+	 * @return True while the overlay is shown.
+	 */
+	public boolean isOverlayVisible() {
+		return overlayVisible;
+	}
+
+	/**
+	 * Checks if the post-processing effects were toggled on.
+	 * 
+	 * @return True while the effects are on.
+	 */
+	public boolean isPostProcessingEnabled() {
+		return postProcessingEnabled;
+	}
+
+	/**
+	 * Presses or releases a key from code, as if it came from the keyboard.
+	 * 
+	 * @param keyCode
+	 *            Key number to change.
+	 * @param pressed
+	 *            New key state.
+	 */
+	public void setKeyDown(final int keyCode, final boolean pressed) {
+		if (keyCode >= 0 && keyCode < NUM_KEYS)
+			keys[keyCode] = pressed;
+	}
+
 	/**
 	 * Changes the state of the key to pressed.
 	 * 
@@ -55,6 +100,11 @@ public final class InputManager implements KeyListener {
 	 */
 	@Override
 	public void keyPressed(final KeyEvent key) {
+		if (key.getKeyCode() == OVERLAY_KEY && !keys[OVERLAY_KEY])
+			overlayVisible = !overlayVisible;
+		if (key.getKeyCode() == POST_PROCESSING_KEY
+				&& !keys[POST_PROCESSING_KEY])
+			postProcessingEnabled = !postProcessingEnabled;
 		if (key.getKeyCode() >= 0 && key.getKeyCode() < NUM_KEYS)
 			keys[key.getKeyCode()] = true;
 	}
@@ -42,7 +42,7 @@ public class ItemHUDManager {
     private List<DroppedItemInfo> activeDroppedItems;
     
     /** Maximum number of dynamic items that can be displayed */
-    private static final int MAX_DYNAMIC_ITEMS = 6;
+    public static final int MAX_DYNAMIC_ITEMS = 6;
     
     /** Duration to show dropped items (in milliseconds) */
     private static final long DROPPED_ITEM_DISPLAY_DURATION = 10000; // 10 seconds
@@ -56,11 +56,11 @@ public class ItemHUDManager {
         
         public DroppedItemInfo(DropItem.ItemType itemType) {
             this.itemType = itemType;
-            this.displayStartTime = System.currentTimeMillis();
+            this.displayStartTime = Core.getClock().getMillis();
         }
         
         public boolean isExpired() {
-            return System.currentTimeMillis() - displayStartTime > DROPPED_ITEM_DISPLAY_DURATION;
+            return Core.getClock().getMillis() - displayStartTime > DROPPED_ITEM_DISPLAY_DURATION;
         }
     }
     
@@ -115,16 +115,33 @@ public class ItemHUDManager {
     }
     
     /**
-     * Draw all items on the HUD
+     * Copy the dropped items currently displayed
+     *
+     * @param items Array of at least MAX_DYNAMIC_ITEMS entries to fill
+     * @return Number of items copied
      */
-    public void drawItems(Screen screen, Graphics graphics) {
+    public int getDroppedItems(DropItem.ItemType[] items) {
         cleanupExpiredItems();
-        
+        int count = Math.min(activeDroppedItems.size(), items.length);
+        for (int i = 0; i < count; i++) {
+            items[i] = activeDroppedItems.get(i).itemType;
+        }
+        return count;
+    }
+
+    /**
+     * Draw all items on the HUD
+     *
+     * @param droppedItems Dropped items to display
+     * @param droppedItemCount Number of dropped items to display
+     */
+    public void drawItems(Screen screen, Graphics graphics,
+            DropItem.ItemType[] droppedItems, int droppedItemCount) {
         // Draw fixed shop items (bottom row)
         drawFixedShopItems(screen, graphics);
         
         // Draw dynamic dropped items (top row)
-        drawDynamicDroppedItems(screen, graphics);
+        drawDynamicDroppedItems(screen, graphics, droppedItems, droppedItemCount);
     }
     
     /**
@@ -152,15 +169,15 @@ public class ItemHUDManager {
     /**
      * Draw the 6 dynamic dropped items
      */
-    private void drawDynamicDroppedItems(Screen screen, Graphics graphics) {
+    private void drawDynamicDroppedItems(Screen screen, Graphics graphics,
+            DropItem.ItemType[] droppedItems, int droppedItemCount) {
         int x = startX;
         int y = DYNAMIC_ITEMS_Y;
         
         // Draw up to 6 dynamic items
         for (int i = 0; i < MAX_DYNAMIC_ITEMS; i++) {
-            if (i < activeDroppedItems.size()) {
-                DroppedItemInfo itemInfo = activeDroppedItems.get(i);
-                drawDroppedItemSquare(screen, graphics, x, y, itemInfo.itemType);
+            if (i < droppedItemCount) {
+                drawDroppedItemSquare(screen, graphics, x, y, droppedItems[i]);
             } else {
                 // Draw empty square
                 drawEmptySquare(screen, graphics, x, y);
@@ -0,0 +1,140 @@
+package engine;
+
+/**
+ * Fixed-size histogram of durations in nanoseconds. Buckets are linear up to
+ * 64 ns and then split every power of two into 32 steps, so percentiles are
+ * within about 3% of the real value and recording never allocates.
+ *
+ */
+public final class LatencyHistogram {
+
+	/** Bits of precision kept below the highest set bit. */
+	private static final int SUB_BUCKET_BITS = 5;
+	/** Buckets per power of two. */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	/** Values below this limit get a bucket each. */
+	private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+	/** Number of buckets needed to cover every positive long. */
+	private static final int BUCKET_COUNT = LINEAR_LIMIT
+			+ (Long.SIZE - 2 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	/** Samples in each bucket. */
+	private final long[] counts;
+	/** Number of samples. */
+	private long count;
+	/** Sum of every sample. */
+	private long total;
+	/** Largest sample. */
+	private long max;
+
+	/**
+	 * Constructor, creates an empty histogram.
+	 */
+	public LatencyHistogram() {
+		this.counts = new long[BUCKET_COUNT];
+	}
+
+	/**
+	 * Adds a sample.
+	 *
+	 * @param nanos
+	 *            Duration, negative values count as zero.
+	 */
+	public void record(final long nanos) {
+		long value = Math.max(0, nanos);
+		this.counts[bucketOf(value)]++;
+		this.count++;
+		this.total += value;
+		if (value > this.max)
+			this.max = value;
+	}
+
+	/**
+	 * Getter for the value under which a fraction of the samples fall.
+	 *
+	 * @param fraction
+	 *            Fraction of samples, 0 to 1.
+	 * @return Upper bound of the bucket holding the percentile, 0 without
+	 *         samples.
+	 */
+	public long getPercentile(final double fraction) {
+		if (this.count == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(fraction * this.count));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += this.counts[i];
+			if (seen >= rank)
+				return Math.min(this.max, upperBoundOf(i));
+		}
+		return this.max;
+	}
+
+	/**
+	 * Getter for the number of samples.
+	 *
+	 * @return Samples recorded.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Getter for the mean duration.
+	 *
+	 * @return Mean of the samples, 0 without samples.
+	 */
+	public long getMean() {
+		return this.count == 0 ? 0 : this.total / this.count;
+	}
+
+	/**
+	 * Getter for the largest duration.
+	 *
+	 * @return Largest sample.
+	 */
+	public long getMax() {
+		return this.max;
+	}
+
+	/**
+	 * Removes every sample.
+	 */
+	public void reset() {
+		java.util.Arrays.fill(this.counts, 0);
+		this.count = 0;
+		this.total = 0;
+		this.max = 0;
+	}
+
+	/**
+	 * Finds the bucket of a value.
+	 *
+	 * @param value
+	 *            Non negative value.
+	 * @return Bucket index.
+	 */
+	private static int bucketOf(final long value) {
+		if (value < LINEAR_LIMIT)
+			return (int) value;
+		int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value))
+				- SUB_BUCKET_BITS;
+		int top = (int) (value >>> shift);
+		return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+	}
+
+	/**
+	 * Finds the largest value of a bucket.
+	 *
+	 * @param bucket
+	 *            Bucket index.
+	 * @return Largest value the bucket holds.
+	 */
+	private static long upperBoundOf(final int bucket) {
+		if (bucket < LINEAR_LIMIT)
+			return bucket;
+		int shift = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+		long top = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((top + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,193 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+
+import entity.EnemyShipFormation;
+
+/**
+ * The 256 colors of an 8-bit indexed frame. The colors the game uses get a
+ * slot of their own, a 6x6x6 color cube and a ramp of grays fill the rest,
+ * and any other color is drawn as the closest slot. Colors are looked up in
+ * a small table filled as they are first seen, so finding a slot does not
+ * allocate or search once the game has shown each color.
+ *
+ */
+public final class Palette {
+
+	/** Slots in the palette. */
+	public static final int SIZE = 256;
+	/** Levels of each channel in the color cube. */
+	private static final int CUBE_LEVELS = 6;
+	/** Levels the enemy formation has a color for. */
+	private static final int FORMATION_LEVELS = 10;
+	/** Colors known to be used by the game. */
+	private static final Color[] GAME_COLORS = { Color.BLACK, Color.WHITE,
+			Color.GRAY, Color.DARK_GRAY, Color.LIGHT_GRAY, Color.GREEN,
+			Color.RED, Color.BLUE, Color.YELLOW, Color.PINK, Color.CYAN,
+			Color.ORANGE, Color.MAGENTA, new Color(50, 255, 50),
+			new Color(255, 50, 50), new Color(80, 220, 80),
+			new Color(230, 70, 70) };
+	/** Slots of the color lookup table, a power of two. */
+	private static final int TABLE_SIZE = 1024;
+
+	/** RGB value of each slot. */
+	private final int[] rgbs;
+	/** Color model of indexed images using the palette. */
+	private final IndexColorModel colorModel;
+	/** Colors looked up so far, 0 for a free slot. */
+	private final int[] tableColors;
+	/** Palette slot of each color looked up. */
+	private final byte[] tableIndexes;
+	/** Colors in the lookup table. */
+	private int tableCount;
+
+	/**
+	 * Constructor, builds the palette.
+	 */
+	public Palette() {
+		this.rgbs = new int[SIZE];
+		int size = 0;
+		for (Color color : GAME_COLORS)
+			size = addColor(size, color.getRGB());
+		for (int level = 1; level <= FORMATION_LEVELS; level++)
+			size = addColor(size,
+					EnemyShipFormation.getColorForLevel(level).getRGB());
+
+		for (int r = 0; r < CUBE_LEVELS; r++)
+			for (int g = 0; g < CUBE_LEVELS; g++)
+				for (int b = 0; b < CUBE_LEVELS; b++)
+					size = addColor(size, 0xFF000000
+							| cubeLevel(r) << 16 | cubeLevel(g) << 8
+							| cubeLevel(b));
+		int grays = SIZE - size;
+		for (int i = 1; i <= grays; i++) {
+			int gray = i * 255 / (grays + 1);
+			size = addColor(size, 0xFF000000 | gray << 16 | gray << 8 | gray);
+		}
+		while (size < SIZE)
+			this.rgbs[size++] = 0xFF000000;
+
+		this.colorModel = new IndexColorModel(8, SIZE, this.rgbs, 0, false,
+				-1, DataBuffer.TYPE_BYTE);
+		this.tableColors = new int[TABLE_SIZE];
+		this.tableIndexes = new byte[TABLE_SIZE];
+	}
+
+	/**
+	 * Adds a color to the palette unless it is already there or full.
+	 *
+	 * @param size
+	 *            Slots taken.
+	 * @param rgb
+	 *            Opaque color to add.
+	 * @return Slots taken after adding the color.
+	 */
+	private int addColor(final int size, final int rgb) {
+		if (size == SIZE)
+			return size;
+		for (int i = 0; i < size; i++)
+			if (this.rgbs[i] == rgb)
+				return size;
+		this.rgbs[size] = rgb;
+		return size + 1;
+	}
+
+	/**
+	 * Getter for the value of a level of the color cube.
+	 *
+	 * @param level
+	 *            Level, from 0 to 5.
+	 * @return Channel value.
+	 */
+	private static int cubeLevel(final int level) {
+		return level * 255 / (CUBE_LEVELS - 1);
+	}
+
+	/**
+	 * Getter for the color model of indexed images using the palette.
+	 *
+	 * @return Color model.
+	 */
+	public IndexColorModel getColorModel() {
+		return this.colorModel;
+	}
+
+	/**
+	 * Getter for the color of a slot.
+	 *
+	 * @param index
+	 *            Slot, from 0 to 255.
+	 * @return Opaque RGB value.
+	 */
+	public int getRGB(final int index) {
+		return this.rgbs[index & 0xFF];
+	}
+
+	/**
+	 * Getter for the slot of the color closest to a color.
+	 *
+	 * @param rgb
+	 *            Color, its alpha is ignored.
+	 * @return Palette slot.
+	 */
+	public byte getIndex(final int rgb) {
+		int key = rgb | 0xFF000000;
+		int mask = TABLE_SIZE - 1;
+		int slot = hash(key) & mask;
+		while (this.tableColors[slot] != 0) {
+			if (this.tableColors[slot] == key)
+				return this.tableIndexes[slot];
+			slot = (slot + 1) & mask;
+		}
+
+		byte index = findClosest(key);
+		// Past half full the table is not grown, colors are searched
+		// every time instead.
+		if (this.tableCount < TABLE_SIZE / 2) {
+			this.tableColors[slot] = key;
+			this.tableIndexes[slot] = index;
+			this.tableCount++;
+		}
+		return index;
+	}
+
+	/**
+	 * Searches the palette for the slot closest to a color.
+	 *
+	 * @param rgb
+	 *            Color.
+	 * @return Palette slot.
+	 */
+	private byte findClosest(final int rgb) {
+		int red = rgb >> 16 & 0xFF;
+		int green = rgb >> 8 & 0xFF;
+		int blue = rgb & 0xFF;
+		int closest = 0;
+		int closestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < SIZE; i++) {
+			int dr = (this.rgbs[i] >> 16 & 0xFF) - red;
+			int dg = (this.rgbs[i] >> 8 & 0xFF) - green;
+			int db = (this.rgbs[i] & 0xFF) - blue;
+			int distance = dr * dr + dg * dg + db * db;
+			if (distance < closestDistance) {
+				closest = i;
+				closestDistance = distance;
+			}
+		}
+		return (byte) closest;
+	}
+
+	/**
+	 * Spreads the bits of a color over the lookup table.
+	 *
+	 * @param rgb
+	 *            Color.
+	 * @return Hash of the color.
+	 */
+	private static int hash(final int rgb) {
+		int h = rgb * 0x9E3779B1;
+		return h ^ h >>> 16;
+	}
+}
@@ -0,0 +1,290 @@
+package engine;
+
+import java.util.SplittableRandom;
+
+import entity.Entity;
+
+/**
+ * Sparks thrown by explosions, hits and pickups. Particles live in primitive
+ * arrays of a fixed capacity, dead ones swapped with the last live one, so
+ * updating and drawing them never allocates. Each tick only a limited number
+ * of particles can be spawned; bursts beyond it are cut short, so clearing
+ * a whole formation at once costs the same as a few explosions.
+ *
+ */
+public final class ParticleSystem {
+
+	/** Most particles alive at once. */
+	public static final int CAPACITY = 2048;
+	/** Most particles spawned in a single tick. */
+	private static final int SPAWN_BUDGET = 384;
+	/** Share of its speed a particle keeps each tick. */
+	private static final float DRAG = 0.92f;
+	/** Steps a particle fades through, a power of two. */
+	private static final int FADE_LEVELS = 8;
+	/** Bits of the fade steps. */
+	private static final int FADE_BITS = 3;
+
+	/** Bursts of particles thrown by the events of the game. */
+	public enum Emitter {
+		/** Enemy ship destroyed. */
+		ENEMY_DEATH(20, 2.5f, 24),
+		/** Bullet hitting a boss. */
+		BOSS_HIT(6, 2.0f, 12),
+		/** Boss destroyed. */
+		BOSS_DEATH(160, 4.0f, 48),
+		/** Item picked up by a ship. */
+		ITEM_PICKUP(14, 1.5f, 18);
+
+		/** Particles in a burst. */
+		private final int count;
+		/** Fastest starting speed, in pixels per tick. */
+		private final float speed;
+		/** Longest life, in ticks. */
+		private final int life;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param count
+		 *            Particles in a burst.
+		 * @param speed
+		 *            Fastest starting speed, in pixels per tick.
+		 * @param life
+		 *            Longest life, in ticks.
+		 */
+		Emitter(final int count, final float speed, final int life) {
+			this.count = count;
+			this.speed = speed;
+			this.life = life;
+		}
+
+		/**
+		 * Getter for the particles in a burst.
+		 *
+		 * @return Particles spawned when the budget allows it.
+		 */
+		public int getCount() {
+			return this.count;
+		}
+	}
+
+	/** Random number generator for directions, speeds and lives. */
+	private final SplittableRandom random;
+
+	/** Number of live particles. */
+	private int count;
+	/** Particles that can still be spawned this tick. */
+	private int budget;
+	/** Particles that can be spawned each tick. */
+	private int budgetPerTick;
+	/** Position of each particle in the x-axis. */
+	private final float[] x;
+	/** Position of each particle in the y-axis. */
+	private final float[] y;
+	/** Position of each particle in the x-axis at the start of the tick. */
+	private final float[] previousX;
+	/** Position of each particle in the y-axis at the start of the tick. */
+	private final float[] previousY;
+	/** Speed of each particle in the x-axis. */
+	private final float[] speedX;
+	/** Speed of each particle in the y-axis. */
+	private final float[] speedY;
+	/** Ticks each particle has left. */
+	private final int[] life;
+	/** Ticks each particle started with. */
+	private final int[] maxLife;
+	/** Color of each particle at full brightness. */
+	private final int[] rgb;
+
+	/**
+	 * Constructor, starts with no particles.
+	 *
+	 * @param random
+	 *            Random number generator for the bursts.
+	 */
+	public ParticleSystem(final SplittableRandom random) {
+		this.random = random;
+		this.budgetPerTick = SPAWN_BUDGET;
+		this.budget = SPAWN_BUDGET;
+		this.x = new float[CAPACITY];
+		this.y = new float[CAPACITY];
+		this.previousX = new float[CAPACITY];
+		this.previousY = new float[CAPACITY];
+		this.speedX = new float[CAPACITY];
+		this.speedY = new float[CAPACITY];
+		this.life = new int[CAPACITY];
+		this.maxLife = new int[CAPACITY];
+		this.rgb = new int[CAPACITY];
+	}
+
+	/**
+	 * Getter for the number of live particles.
+	 *
+	 * @return Live particles.
+	 */
+	public int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Getter for the particles that can still be spawned this tick.
+	 *
+	 * @return Remaining spawn budget.
+	 */
+	public int getBudget() {
+		return this.budget;
+	}
+
+	/**
+	 * Sets the share of the full spawn budget available from the next tick
+	 * on, to spawn fewer particles when frames are slow.
+	 *
+	 * @param share
+	 *            Share of the budget, from 0 to 1.
+	 */
+	public void setBudgetShare(final float share) {
+		this.budgetPerTick = Math.round(SPAWN_BUDGET
+				* Math.max(0, Math.min(1, share)));
+	}
+
+	/**
+	 * Throws a burst from the center of an entity, in its color.
+	 *
+	 * @param emitter
+	 *            Kind of burst.
+	 * @param entity
+	 *            Entity the burst comes from.
+	 */
+	public void emit(final Emitter emitter, final Entity entity) {
+		emit(emitter, entity, emitter.count);
+	}
+
+	/**
+	 * Throws a burst of a given size from the center of an entity, in its
+	 * color.
+	 *
+	 * @param emitter
+	 *            Kind of burst.
+	 * @param entity
+	 *            Entity the burst comes from.
+	 * @param particles
+	 *            Particles in the burst.
+	 */
+	public void emit(final Emitter emitter, final Entity entity,
+			final int particles) {
+		emit(entity.getPositionX() + entity.getWidth() / 2f,
+				entity.getPositionY() + entity.getHeight() / 2f, particles,
+				entity.getColor().getRGB(), emitter.speed, emitter.life);
+	}
+
+	/**
+	 * Throws a burst of particles in every direction. Particles beyond the
+	 * budget of the tick or the capacity are not spawned.
+	 *
+	 * @param centerX
+	 *            Position of the burst in the x-axis.
+	 * @param centerY
+	 *            Position of the burst in the y-axis.
+	 * @param particles
+	 *            Particles in the burst.
+	 * @param color
+	 *            Color of the particles.
+	 * @param speed
+	 *            Fastest starting speed, in pixels per tick.
+	 * @param lifeTicks
+	 *            Longest life, in ticks.
+	 */
+	public void emit(final float centerX, final float centerY,
+			final int particles, final int color, final float speed,
+			final int lifeTicks) {
+		int spawned = Math.min(particles,
+				Math.min(this.budget, CAPACITY - this.count));
+		this.budget -= spawned;
+		for (int n = 0; n < spawned; n++) {
+			int i = this.count++;
+			double angle = this.random.nextDouble() * 2 * Math.PI;
+			float particleSpeed = speed
+					* (0.3f + 0.7f * (float) this.random.nextDouble());
+			this.x[i] = centerX;
+			this.y[i] = centerY;
+			this.previousX[i] = centerX;
+			this.previousY[i] = centerY;
+			this.speedX[i] = (float) Math.cos(angle) * particleSpeed;
+			this.speedY[i] = (float) Math.sin(angle) * particleSpeed;
+			this.maxLife[i] = Math.max(1,
+					lifeTicks / 2 + this.random.nextInt(lifeTicks / 2 + 1));
+			this.life[i] = this.maxLife[i];
+			this.rgb[i] = color & 0xFFFFFF;
+		}
+	}
+
+	/**
+	 * Moves every particle one tick, removes the ones whose life ran out and
+	 * refills the spawn budget.
+	 */
+	public void update() {
+		this.budget = this.budgetPerTick;
+		int i = 0;
+		while (i < this.count) {
+			if (--this.life[i] <= 0) {
+				remove(i);
+				continue;
+			}
+			this.previousX[i] = this.x[i];
+			this.previousY[i] = this.y[i];
+			this.x[i] += this.speedX[i];
+			this.y[i] += this.speedY[i];
+			this.speedX[i] *= DRAG;
+			this.speedY[i] *= DRAG;
+			i++;
+		}
+	}
+
+	/**
+	 * Removes every particle.
+	 */
+	public void clear() {
+		this.count = 0;
+	}
+
+	/**
+	 * Adds every live particle to a snapshot, faded by the life it has left.
+	 *
+	 * @param snapshot
+	 *            Snapshot being filled.
+	 */
+	public void capture(final FrameSnapshot snapshot) {
+		for (int i = 0; i < this.count; i++) {
+			// Fading in a few steps keeps the colors few, so indexed frames
+			// find them in the palette table.
+			int level = 1 + (this.life[i] * (FADE_LEVELS - 1)
+					+ this.maxLife[i] - 1) / this.maxLife[i];
+			int color = this.rgb[i];
+			int faded = ((color & 0xFF00FF) * level >>> FADE_BITS) & 0xFF00FF
+					| ((color & 0x00FF00) * level >>> FADE_BITS) & 0x00FF00;
+			snapshot.addParticle((int) this.previousX[i],
+					(int) this.previousY[i], (int) this.x[i], (int) this.y[i],
+					faded);
+		}
+	}
+
+	/**
+	 * Replaces a particle with the last one.
+	 *
+	 * @param i
+	 *            Index of the particle.
+	 */
+	private void remove(final int i) {
+		int last = --this.count;
+		this.x[i] = this.x[last];
+		this.y[i] = this.y[last];
+		this.previousX[i] = this.previousX[last];
+		this.previousY[i] = this.previousY[last];
+		this.speedX[i] = this.speedX[last];
+		this.speedY[i] = this.speedY[last];
+		this.life[i] = this.life[last];
+		this.maxLife[i] = this.maxLife[last];
+		this.rgb[i] = this.rgb[last];
+	}
+}
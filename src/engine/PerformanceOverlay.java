@@ -0,0 +1,368 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import entity.ItemPool;
+
+/**
+ * Debug overlay with frame rate, frame times, entity counts, what each
+ * render layer drew, memory and garbage collection figures, and the cost of
+ * each post-processing effect. Text goes through a reused buffer so drawing
+ * the overlay does not allocate and does not distort what it measures.
+ *
+ */
+public final class PerformanceOverlay {
+
+	/** Frame times kept for the graph and the average. */
+	private static final int HISTORY = 120;
+	/** Nanoseconds in a second. */
+	private static final long NANOS_PER_SECOND = 1000000000L;
+	/** Nanoseconds in a millisecond. */
+	private static final long NANOS_PER_MILLI = 1000000L;
+	/** Bytes in a megabyte. */
+	private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+	/** Frame time at the top of the graph. */
+	private static final long GRAPH_MAX_NANOS = 2 * NANOS_PER_SECOND / 60;
+	/** Frame time of a frame at 60 fps, marked on the graph. */
+	private static final long TARGET_NANOS = NANOS_PER_SECOND / 60;
+	/** Height of the frame time graph. */
+	private static final int GRAPH_HEIGHT = 40;
+	/** Distance between the overlay and the screen border. */
+	private static final int MARGIN = 5;
+	/** Width of the overlay. */
+	private static final int WIDTH = HISTORY + 2 * MARGIN;
+	/** Background of the overlay. */
+	private static final Color BACKGROUND = new Color(0, 0, 0, 180);
+	/** Color of the graph bars under the target frame time. */
+	private static final Color FAST_FRAME = new Color(80, 220, 80);
+	/** Color of the graph bars over the target frame time. */
+	private static final Color SLOW_FRAME = new Color(230, 70, 70);
+
+	/** Render layers, in drawing order. */
+	private static final RenderLayer[] LAYERS = RenderLayer.values();
+	/** Layers whose counts share a line. */
+	private static final int LAYERS_PER_LINE = 2;
+	/** Lines of the layer counts, culled entities included. */
+	private static final int LAYER_LINES = (LAYERS.length
+			+ LAYERS_PER_LINE - 1) / LAYERS_PER_LINE + 1;
+
+	/** Singleton instance of the class. */
+	private static PerformanceOverlay instance;
+
+	/** Durations of the last frames, as a ring buffer. */
+	private final long[] frameNanos;
+	/** Next position to write in the ring buffer. */
+	private int head;
+	/** Frame times stored. */
+	private int samples;
+	/** Sum of the stored frame times. */
+	private long historyNanos;
+	/** Time the last frame was completed. */
+	private long lastFrame;
+	/** Live bullets. */
+	private int bullets;
+	/** Live boss bullets. */
+	private int bossBullets;
+	/** Live drop items. */
+	private int dropItems;
+	/** Ships left in the formation. */
+	private int formationShips;
+	/** Live particles. */
+	private int particles;
+	/** Pairs left for the exact collision check. */
+	private int collisionPairs;
+	/** Pairs the collision grid saved checking. */
+	private int prunedPairs;
+	/** True when a screen reported entity counts for this frame. */
+	private boolean hasEntityCounts;
+	/** Sprites, particles and HUD elements each layer drew. */
+	private final int[] layerCounts;
+	/** Entities and particles left out for being outside the view. */
+	private int culled;
+	/** True when a screen reported layer counts for this frame. */
+	private boolean hasLayerCounts;
+	/** Garbage collectors of the virtual machine. */
+	private final GarbageCollectorMXBean[] collectors;
+	/** Reused buffer for each line of text. */
+	private final StringBuilder text;
+	/** Reused characters handed to the graphics context. */
+	private final char[] chars;
+
+	/**
+	 * Private constructor.
+	 */
+	private PerformanceOverlay() {
+		this.frameNanos = new long[HISTORY];
+		this.layerCounts = new int[LAYERS.length];
+		List<GarbageCollectorMXBean> beans = ManagementFactory
+				.getGarbageCollectorMXBeans();
+		this.collectors = beans.toArray(new GarbageCollectorMXBean[0]);
+		this.text = new StringBuilder(64);
+		this.chars = new char[64];
+	}
+
+	/**
+	 * Returns shared instance of PerformanceOverlay.
+	 *
+	 * @return Shared instance of PerformanceOverlay.
+	 */
+	protected static PerformanceOverlay getInstance() {
+		if (instance == null)
+			instance = new PerformanceOverlay();
+		return instance;
+	}
+
+	/**
+	 * Registers a completed frame.
+	 *
+	 * @param now
+	 *            Current time, in nanoseconds.
+	 */
+	public void frameCompleted(final long now) {
+		if (this.lastFrame != 0) {
+			long elapsed = now - this.lastFrame;
+			if (this.samples == HISTORY)
+				this.historyNanos -= this.frameNanos[this.head];
+			else
+				this.samples++;
+			this.frameNanos[this.head] = elapsed;
+			this.historyNanos += elapsed;
+			this.head = (this.head + 1) % HISTORY;
+		}
+		this.lastFrame = now;
+	}
+
+	/**
+	 * Sets the entity counts shown on the next frame.
+	 *
+	 * @param bullets
+	 *            Live bullets.
+	 * @param bossBullets
+	 *            Live boss bullets.
+	 * @param dropItems
+	 *            Live drop items.
+	 * @param formationShips
+	 *            Ships left in the formation.
+	 * @param particles
+	 *            Live particles.
+	 */
+	public void setEntityCounts(final int bullets, final int bossBullets,
+			final int dropItems, final int formationShips,
+			final int particles) {
+		this.bullets = bullets;
+		this.bossBullets = bossBullets;
+		this.dropItems = dropItems;
+		this.formationShips = formationShips;
+		this.particles = particles;
+		this.hasEntityCounts = true;
+	}
+
+	/**
+	 * Sets the collision pairs of the last tick, shown on the next frame
+	 * with the entity counts.
+	 *
+	 * @param candidates
+	 *            Pairs left for the exact collision check.
+	 * @param pruned
+	 *            Pairs the collision grid saved checking.
+	 */
+	public void setCollisionCounts(final int candidates, final int pruned) {
+		this.collisionPairs = candidates;
+		this.prunedPairs = pruned;
+	}
+
+	/**
+	 * Sets what a render layer drew, shown on the next frame.
+	 *
+	 * @param layer
+	 *            Render layer.
+	 * @param drawn
+	 *            Sprites, particles and HUD elements drawn.
+	 */
+	public void setLayerCount(final RenderLayer layer, final int drawn) {
+		this.layerCounts[layer.ordinal()] = drawn;
+		this.hasLayerCounts = true;
+	}
+
+	/**
+	 * Sets how many entities and particles were left out of the frame for
+	 * being outside the view, shown on the next frame.
+	 *
+	 * @param culledCount
+	 *            Entities and particles culled.
+	 */
+	public void setCulledCount(final int culledCount) {
+		this.culled = culledCount;
+		this.hasLayerCounts = true;
+	}
+
+	/**
+	 * Draws the overlay on the top left corner.
+	 *
+	 * @param graphics
+	 *            Graphics context to draw on.
+	 * @param font
+	 *            Font of the text.
+	 * @param lineHeight
+	 *            Height of a line of text.
+	 * @param postProcessor
+	 *            Effects run on the frame, to show the cost of each, or
+	 *            null if none ran.
+	 */
+	public void draw(final Graphics graphics, final Font font,
+			final int lineHeight, final PostProcessor postProcessor) {
+		int effects = postProcessor == null ? 0
+				: postProcessor.getEffectCount();
+		int lines = (this.hasEntityCounts ? 8 : 5)
+				+ (this.hasLayerCounts ? LAYER_LINES : 0) + effects;
+		graphics.setColor(BACKGROUND);
+		graphics.fillRect(0, 0, WIDTH, lines * lineHeight + GRAPH_HEIGHT + 3
+				* MARGIN);
+		graphics.setFont(font);
+		graphics.setColor(Color.WHITE);
+
+		int y = MARGIN + lineHeight;
+		long last = this.samples == 0 ? 0
+				: this.frameNanos[(this.head + HISTORY - 1) % HISTORY];
+		this.text.append("FPS ");
+		appendTenths(last == 0 ? 0 : 10 * NANOS_PER_SECOND / last);
+		this.text.append(" avg ");
+		appendTenths(this.historyNanos == 0 ? 0 : 10 * NANOS_PER_SECOND
+				* this.samples / this.historyNanos);
+		y = drawLine(graphics, y, lineHeight);
+
+		if (this.hasEntityCounts) {
+			this.text.append("Bullets ").append(this.bullets)
+					.append(" boss ").append(this.bossBullets);
+			y = drawLine(graphics, y, lineHeight);
+			this.text.append("Items ").append(this.dropItems)
+					.append(" ships ").append(this.formationShips);
+			y = drawLine(graphics, y, lineHeight);
+			this.text.append("Pairs ").append(this.collisionPairs)
+					.append(" pruned ").append(this.prunedPairs);
+			y = drawLine(graphics, y, lineHeight);
+			this.hasEntityCounts = false;
+		}
+		if (this.hasLayerCounts) {
+			for (int l = 0; l < LAYERS.length; l++) {
+				if (l % LAYERS_PER_LINE != 0)
+					this.text.append(' ');
+				this.text.append(LAYERS[l].getLabel()).append(' ')
+						.append(this.layerCounts[l]);
+				if (l % LAYERS_PER_LINE == LAYERS_PER_LINE - 1
+						|| l == LAYERS.length - 1)
+					y = drawLine(graphics, y, lineHeight);
+			}
+			this.text.append("Particles ").append(this.particles)
+					.append(" culled ").append(this.culled);
+			y = drawLine(graphics, y, lineHeight);
+			this.hasLayerCounts = false;
+		}
+		this.text.append("Quality ")
+				.append(Core.getQualityGovernor().getTier().name());
+		y = drawLine(graphics, y, lineHeight);
+		this.text.append("Pool item ").append(ItemPool.getPoolSize());
+		y = drawLine(graphics, y, lineHeight);
+
+		Runtime runtime = Runtime.getRuntime();
+		this.text.append("Heap ")
+				.append((runtime.totalMemory() - runtime.freeMemory())
+						/ BYTES_PER_MEGABYTE).append('/')
+				.append(runtime.maxMemory() / BYTES_PER_MEGABYTE)
+				.append(" MB");
+		y = drawLine(graphics, y, lineHeight);
+
+		long collections = 0;
+		long pauseMillis = 0;
+		for (int i = 0; i < this.collectors.length; i++) {
+			collections += Math.max(0, this.collectors[i].getCollectionCount());
+			pauseMillis += Math.max(0, this.collectors[i].getCollectionTime());
+		}
+		this.text.append("GC ").append(collections).append(" runs ")
+				.append(pauseMillis).append(" ms");
+		y = drawLine(graphics, y, lineHeight);
+
+		for (int i = 0; i < effects; i++) {
+			this.text.append(postProcessor.getEffect(i).getName())
+					.append(' ');
+			appendHundredths(postProcessor.getAverageNanos(i)
+					* 100 / NANOS_PER_MILLI);
+			this.text.append(" ms");
+			y = drawLine(graphics, y, lineHeight);
+		}
+
+		drawGraph(graphics, y);
+	}
+
+	/**
+	 * Draws the frame times, oldest on the left.
+	 *
+	 * @param graphics
+	 *            Graphics context to draw on.
+	 * @param top
+	 *            Top of the graph.
+	 */
+	private void drawGraph(final Graphics graphics, final int top) {
+		int bottom = top + GRAPH_HEIGHT;
+		int oldest = (this.head + HISTORY - this.samples) % HISTORY;
+		for (int i = 0; i < this.samples; i++) {
+			long nanos = this.frameNanos[(oldest + i) % HISTORY];
+			int height = (int) (Math.min(nanos, GRAPH_MAX_NANOS)
+					* GRAPH_HEIGHT / GRAPH_MAX_NANOS);
+			graphics.setColor(nanos > TARGET_NANOS ? SLOW_FRAME : FAST_FRAME);
+			graphics.drawLine(MARGIN + i, bottom, MARGIN + i, bottom - height);
+		}
+		int target = bottom - (int) (TARGET_NANOS * GRAPH_HEIGHT
+				/ GRAPH_MAX_NANOS);
+		graphics.setColor(Color.WHITE);
+		graphics.drawLine(MARGIN, target, MARGIN + HISTORY - 1, target);
+	}
+
+	/**
+	 * Appends a value given in tenths with one decimal.
+	 *
+	 * @param tenths
+	 *            Value times ten.
+	 */
+	private void appendTenths(final long tenths) {
+		this.text.append(tenths / 10).append('.').append(tenths % 10);
+	}
+
+	/**
+	 * Appends a value given in hundredths with two decimals.
+	 *
+	 * @param hundredths
+	 *            Value times a hundred.
+	 */
+	private void appendHundredths(final long hundredths) {
+		this.text.append(hundredths / 100).append('.');
+		if (hundredths % 100 < 10)
+			this.text.append('0');
+		this.text.append(hundredths % 100);
+	}
+
+	/**
+	 * Draws the buffered line of text and empties the buffer.
+	 *
+	 * @param graphics
+	 *            Graphics context to draw on.
+	 * @param y
+	 *            Baseline of the line.
+	 * @param lineHeight
+	 *            Height of a line of text.
+	 * @return Baseline of the next line.
+	 */
+	private int drawLine(final Graphics graphics, final int y,
+			final int lineHeight) {
+		int length = Math.min(this.text.length(), this.chars.length);
+		this.text.getChars(0, length, this.chars, 0);
+		graphics.drawChars(this.chars, 0, length, MARGIN, y);
+		this.text.setLength(0);
+		return y + lineHeight;
+	}
+}
@@ -0,0 +1,274 @@
+package engine;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a chain of effects over the pixels of a finished TYPE_INT_RGB frame,
+ * each effect reading the output of the one before. Every effect works from
+ * tables made once per frame size, and its rows are split into bands drawn
+ * at the same time. The time each effect takes is kept, so the cost of
+ * every effect can be shown and effects chosen to fit the hardware.
+ *
+ */
+public final class PostProcessor {
+
+	/** Rows of the frame in each band processed in parallel. */
+	private static final int BAND_HEIGHT = 32;
+	/** Weight of the newest time in the running average, as a divisor. */
+	private static final int AVERAGE_DIVISOR = 16;
+
+	/** Effect run over the pixels of a frame. */
+	public interface PostEffect {
+
+		/**
+		 * Getter for the name shown next to the cost of the effect.
+		 *
+		 * @return Short name of the effect.
+		 */
+		String getName();
+
+		/**
+		 * Makes the tables of the effect for a frame size, called before
+		 * the first frame and whenever the size changes.
+		 *
+		 * @param width
+		 *            Width of the frame.
+		 * @param height
+		 *            Height of the frame.
+		 */
+		void prepare(int width, int height);
+
+		/**
+		 * Writes some rows of the output. Called from several threads at
+		 * once for different rows, so it must only write those rows.
+		 *
+		 * @param source
+		 *            Pixels of the input frame, read only.
+		 * @param target
+		 *            Pixels of the output frame.
+		 * @param width
+		 *            Width of the frame.
+		 * @param height
+		 *            Height of the frame.
+		 * @param top
+		 *            First row written.
+		 * @param bottom
+		 *            Row after the last row written.
+		 */
+		void apply(int[] source, int[] target, int width, int height,
+				int top, int bottom);
+	}
+
+	/** Effects in the order they run. */
+	private final List<PostEffect> effects;
+	/** Running average of the time of each effect, in nanoseconds. */
+	private long[] averageNanos;
+	/** Pool the bands are processed on. */
+	private final ForkJoinPool pool;
+	/** Width the effects were prepared for. */
+	private int width;
+	/** Height the effects were prepared for. */
+	private int height;
+	/** Output of the odd effects of the chain. */
+	private int[] firstBuffer;
+	/** Output of the even effects of the chain. */
+	private int[] secondBuffer;
+	/** Task processing each band, reused every effect. */
+	private BandTask[] bandTasks;
+	/** Task processing every band, reused every effect. */
+	private final EffectTask effectTask;
+
+	/** Effect being run. */
+	private PostEffect effect;
+	/** Input of the effect being run. */
+	private int[] source;
+	/** Output of the effect being run. */
+	private int[] target;
+
+	/**
+	 * Constructor, starts with no effects.
+	 *
+	 * @param pool
+	 *            Pool the bands are processed on.
+	 */
+	public PostProcessor(final ForkJoinPool pool) {
+		this.effects = new ArrayList<PostEffect>();
+		this.averageNanos = new long[0];
+		this.pool = pool;
+		this.bandTasks = new BandTask[0];
+		this.effectTask = new EffectTask();
+	}
+
+	/**
+	 * Adds an effect at the end of the chain.
+	 *
+	 * @param postEffect
+	 *            Effect to add.
+	 */
+	public void addEffect(final PostEffect postEffect) {
+		this.effects.add(postEffect);
+		this.averageNanos = new long[this.effects.size()];
+		if (this.width > 0)
+			postEffect.prepare(this.width, this.height);
+	}
+
+	/**
+	 * Removes every effect.
+	 */
+	public void clearEffects() {
+		this.effects.clear();
+		this.averageNanos = new long[0];
+	}
+
+	/**
+	 * Getter for the number of effects in the chain.
+	 *
+	 * @return Number of effects.
+	 */
+	public int getEffectCount() {
+		return this.effects.size();
+	}
+
+	/**
+	 * Getter for an effect of the chain.
+	 *
+	 * @param index
+	 *            Position in the chain.
+	 * @return Effect.
+	 */
+	public PostEffect getEffect(final int index) {
+		return this.effects.get(index);
+	}
+
+	/**
+	 * Getter for the recent average time of an effect.
+	 *
+	 * @param index
+	 *            Position in the chain.
+	 * @return Nanoseconds the effect takes per frame.
+	 */
+	public long getAverageNanos(final int index) {
+		return this.averageNanos[index];
+	}
+
+	/**
+	 * Checks if the effects can run over a frame, which they only do over
+	 * frames of int pixels.
+	 *
+	 * @param image
+	 *            Frame to check.
+	 * @return True if the frame would be processed.
+	 */
+	public boolean canProcess(final BufferedImage image) {
+		return !this.effects.isEmpty() && image.getRaster()
+				.getDataBuffer() instanceof DataBufferInt;
+	}
+
+	/**
+	 * Runs every effect over a frame, in place. Frames that are not
+	 * TYPE_INT_RGB are left as they are.
+	 *
+	 * @param image
+	 *            Frame to process.
+	 */
+	public void process(final BufferedImage image) {
+		if (!canProcess(image))
+			return;
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer())
+				.getData();
+		if (image.getWidth() != this.width
+				|| image.getHeight() != this.height)
+			prepare(image.getWidth(), image.getHeight());
+
+		int[] input = pixels;
+		for (int i = 0; i < this.effects.size(); i++) {
+			int[] output = i % 2 == 0 ? this.firstBuffer : this.secondBuffer;
+			long start = System.nanoTime();
+			this.effect = this.effects.get(i);
+			this.source = input;
+			this.target = output;
+			this.effectTask.reinitialize();
+			this.pool.invoke(this.effectTask);
+			long elapsed = System.nanoTime() - start;
+			this.averageNanos[i] += (elapsed - this.averageNanos[i])
+					/ AVERAGE_DIVISOR;
+			input = output;
+		}
+		System.arraycopy(input, 0, pixels, 0, pixels.length);
+		this.effect = null;
+		this.source = null;
+		this.target = null;
+	}
+
+	/**
+	 * Makes the buffers, tasks and effect tables for a frame size.
+	 *
+	 * @param frameWidth
+	 *            Width of the frame.
+	 * @param frameHeight
+	 *            Height of the frame.
+	 */
+	private void prepare(final int frameWidth, final int frameHeight) {
+		this.width = frameWidth;
+		this.height = frameHeight;
+		this.firstBuffer = new int[frameWidth * frameHeight];
+		this.secondBuffer = new int[frameWidth * frameHeight];
+		int bands = (frameHeight + BAND_HEIGHT - 1) / BAND_HEIGHT;
+		this.bandTasks = new BandTask[bands];
+		for (int b = 0; b < bands; b++)
+			this.bandTasks[b] = new BandTask(b * BAND_HEIGHT,
+					Math.min(frameHeight, (b + 1) * BAND_HEIGHT));
+		for (PostEffect postEffect : this.effects)
+			postEffect.prepare(frameWidth, frameHeight);
+	}
+
+	/**
+	 * Runs the current effect over every band, each in a task of its own.
+	 */
+	@SuppressWarnings("serial")
+	private final class EffectTask extends RecursiveAction {
+
+		@Override
+		protected void compute() {
+			for (BandTask task : bandTasks)
+				task.reinitialize();
+			invokeAll(bandTasks);
+		}
+	}
+
+	/**
+	 * Runs the current effect over one band.
+	 */
+	@SuppressWarnings("serial")
+	private final class BandTask extends RecursiveAction {
+
+		/** First row of the band. */
+		private final int top;
+		/** Row after the last row of the band. */
+		private final int bottom;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param top
+		 *            First row of the band.
+		 * @param bottom
+		 *            Row after the last row of the band.
+		 */
+		BandTask(final int top, final int bottom) {
+			this.top = top;
+			this.bottom = bottom;
+		}
+
+		@Override
+		protected void compute() {
+			effect.apply(source, target, width, height, this.top,
+					this.bottom);
+		}
+	}
+}
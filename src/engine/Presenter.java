@@ -0,0 +1,207 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+
+/**
+ * Shows a frame drawn at the logical resolution on a view of any size. The
+ * frame is scaled up by the largest whole factor that fits, repeating each
+ * pixel, and centered with black bars around it. The scaled image is kept
+ * and only made again when the factor changes, so drawing a frame costs the
+ * same whatever the size of the display.
+ *
+ */
+public final class Presenter {
+
+	/** Frame scaled up, kept between frames. */
+	private BufferedImage scaledImage;
+	/** Pixels of the scaled frame. */
+	private int[] scaledPixels;
+	/** Color model the color table was read from. */
+	private IndexColorModel colorModel;
+	/** RGB value of each palette slot of indexed frames. */
+	private final int[] colors;
+	/** Times the frame is scaled up. */
+	private int scale;
+	/** Left edge of the frame in the view. */
+	private int offsetX;
+	/** Top edge of the frame in the view. */
+	private int offsetY;
+
+	/**
+	 * Constructor, shows frames unscaled until a view is known.
+	 */
+	public Presenter() {
+		this.scale = 1;
+		this.colors = new int[Palette.SIZE];
+	}
+
+	/**
+	 * Getter for the times the frame is scaled up.
+	 *
+	 * @return Scale of the last frame shown.
+	 */
+	public int getScale() {
+		return this.scale;
+	}
+
+	/**
+	 * Draws a frame scaled to fit a view.
+	 *
+	 * @param graphics
+	 *            Graphics context of the display.
+	 * @param image
+	 *            TYPE_INT_RGB or TYPE_BYTE_INDEXED frame at the logical
+	 *            resolution.
+	 * @param viewX
+	 *            Left edge of the view on the display.
+	 * @param viewY
+	 *            Top edge of the view on the display.
+	 * @param viewWidth
+	 *            Width of the view.
+	 * @param viewHeight
+	 *            Height of the view.
+	 */
+	public void draw(final Graphics graphics, final BufferedImage image,
+			final int viewX, final int viewY, final int viewWidth,
+			final int viewHeight) {
+		int width = image.getWidth();
+		int height = image.getHeight();
+		this.scale = Math.max(1,
+				Math.min(viewWidth / width, viewHeight / height));
+		int scaledWidth = width * this.scale;
+		int scaledHeight = height * this.scale;
+		this.offsetX = Math.max(0, (viewWidth - scaledWidth) / 2);
+		this.offsetY = Math.max(0, (viewHeight - scaledHeight) / 2);
+
+		if (scaledWidth < viewWidth || scaledHeight < viewHeight)
+			drawBars(graphics, viewX, viewY, viewWidth, viewHeight,
+					scaledWidth, scaledHeight);
+
+		if (this.scale == 1) {
+			graphics.drawImage(image, viewX + this.offsetX,
+					viewY + this.offsetY, null);
+			return;
+		}
+		if (this.scaledImage == null
+				|| this.scaledImage.getWidth() != scaledWidth
+				|| this.scaledImage.getHeight() != scaledHeight) {
+			this.scaledImage = new BufferedImage(scaledWidth, scaledHeight,
+					BufferedImage.TYPE_INT_RGB);
+			this.scaledPixels = ((DataBufferInt) this.scaledImage.getRaster()
+					.getDataBuffer()).getData();
+		}
+		DataBuffer buffer = image.getRaster().getDataBuffer();
+		if (buffer instanceof DataBufferByte)
+			scaleIndexed(((DataBufferByte) buffer).getData(),
+					(IndexColorModel) image.getColorModel(), width, height);
+		else
+			scale(((DataBufferInt) buffer).getData(), width, height);
+		graphics.drawImage(this.scaledImage, viewX + this.offsetX,
+				viewY + this.offsetY, null);
+	}
+
+	/**
+	 * Fills the parts of the view around the frame with black.
+	 *
+	 * @param graphics
+	 *            Graphics context of the display.
+	 * @param viewX
+	 *            Left edge of the view on the display.
+	 * @param viewY
+	 *            Top edge of the view on the display.
+	 * @param viewWidth
+	 *            Width of the view.
+	 * @param viewHeight
+	 *            Height of the view.
+	 * @param scaledWidth
+	 *            Width of the scaled frame.
+	 * @param scaledHeight
+	 *            Height of the scaled frame.
+	 */
+	private void drawBars(final Graphics graphics, final int viewX,
+			final int viewY, final int viewWidth, final int viewHeight,
+			final int scaledWidth, final int scaledHeight) {
+		int right = this.offsetX + scaledWidth;
+		int bottom = this.offsetY + scaledHeight;
+		graphics.setColor(Color.BLACK);
+		graphics.fillRect(viewX, viewY, viewWidth, this.offsetY);
+		graphics.fillRect(viewX, viewY + bottom, viewWidth,
+				viewHeight - bottom);
+		graphics.fillRect(viewX, viewY + this.offsetY, this.offsetX,
+				scaledHeight);
+		graphics.fillRect(viewX + right, viewY + this.offsetY,
+				viewWidth - right, scaledHeight);
+	}
+
+	/**
+	 * Writes each pixel of the frame as a square of the scaled frame.
+	 *
+	 * @param pixels
+	 *            Pixels of the frame.
+	 * @param width
+	 *            Width of the frame.
+	 * @param height
+	 *            Height of the frame.
+	 */
+	private void scale(final int[] pixels, final int width, final int height) {
+		int[] scaled = this.scaledPixels;
+		int scale = this.scale;
+		int scaledWidth = width * scale;
+		for (int y = 0; y < height; y++) {
+			int rowStart = y * scale * scaledWidth;
+			int target = rowStart;
+			int source = y * width;
+			for (int x = 0; x < width; x++) {
+				int rgb = pixels[source + x];
+				for (int k = 0; k < scale; k++)
+					scaled[target++] = rgb;
+			}
+			for (int k = 1; k < scale; k++)
+				System.arraycopy(scaled, rowStart, scaled,
+						rowStart + k * scaledWidth, scaledWidth);
+		}
+	}
+
+	/**
+	 * Writes each pixel of an indexed frame as a square of the scaled frame,
+	 * in the color of its palette slot.
+	 *
+	 * @param pixels
+	 *            Palette slots of the frame.
+	 * @param model
+	 *            Color model of the frame.
+	 * @param width
+	 *            Width of the frame.
+	 * @param height
+	 *            Height of the frame.
+	 */
+	private void scaleIndexed(final byte[] pixels, final IndexColorModel model,
+			final int width, final int height) {
+		if (this.colorModel != model) {
+			model.getRGBs(this.colors);
+			this.colorModel = model;
+		}
+		int[] scaled = this.scaledPixels;
+		int scale = this.scale;
+		int scaledWidth = width * scale;
+		for (int y = 0; y < height; y++) {
+			int rowStart = y * scale * scaledWidth;
+			int target = rowStart;
+			int source = y * width;
+			for (int x = 0; x < width; x++) {
+				int rgb = this.colors[pixels[source + x] & 0xFF];
+				for (int k = 0; k < scale; k++)
+					scaled[target++] = rgb;
+			}
+			for (int k = 1; k < scale; k++)
+				System.arraycopy(scaled, rowStart, scaled,
+						rowStart + k * scaledWidth, scaledWidth);
+		}
+	}
+}
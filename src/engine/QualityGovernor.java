@@ -0,0 +1,243 @@
+package engine;
+
+import java.util.logging.Logger;
+
+/**
+ * Lowers the cost of cosmetic work when frames take too long to draw, and
+ * raises it again once they are fast. Drawing time is averaged over the
+ * last frames and compared with the time a frame has at 60 fps. The
+ * quality is stepped one tier at a time, waiting a while after each change
+ * and longer before stepping up, so it does not swing between tiers. The
+ * time a step down saved is remembered, and quality is only raised again
+ * when frames have that much room left under the step down load.
+ * Gameplay is never touched, only stars, particles, pop-up fills, how
+ * often the HUD is refreshed and post-processing.
+ *
+ */
+public final class QualityGovernor {
+
+	/** Nanoseconds a frame has to be drawn in. */
+	private static final long FRAME_BUDGET_NANOS = 1000000000L / 60;
+	/** Frames in the average drawing time. */
+	private static final int WINDOW = 32;
+	/** Share of the budget above which quality is lowered. */
+	private static final float STEP_DOWN_LOAD = 0.75f;
+	/** Share of the budget under which quality is raised. */
+	private static final float STEP_UP_LOAD = 0.35f;
+	/** Frames after a change before quality is lowered again. */
+	private static final int STEP_DOWN_HOLD = 60;
+	/** Frames after a change before quality is raised. */
+	private static final int STEP_UP_HOLD = 240;
+	/** Nanoseconds in a tenth of a millisecond. */
+	private static final long NANOS_PER_TENTH = 100000L;
+
+	/** Levels of cosmetic work, from the most to the least. */
+	public enum Tier {
+		/** Everything on. */
+		HIGH(1f, 1f, true, 1, true),
+		/** No post-processing, half the particles. */
+		MEDIUM(1f, 0.5f, true, 1, false),
+		/** Half the stars, a quarter of the particles, opaque pop-ups. */
+		LOW(0.5f, 0.25f, false, 2, false),
+		/** A quarter of the stars, no particles, HUD refreshed slowly. */
+		MINIMAL(0.25f, 0f, false, 4, false);
+
+		/** Share of the title screen stars drawn. */
+		private final float starShare;
+		/** Share of the particle spawn budget. */
+		private final float particleShare;
+		/** True if pop-ups are drawn over a translucent fill. */
+		private final boolean translucentPopups;
+		/** Frames between refreshes of the HUD values. */
+		private final int hudInterval;
+		/** True if post-processing may run. */
+		private final boolean postProcessing;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param starShare
+		 *            Share of the title screen stars drawn.
+		 * @param particleShare
+		 *            Share of the particle spawn budget.
+		 * @param translucentPopups
+		 *            True if pop-ups are drawn over a translucent fill.
+		 * @param hudInterval
+		 *            Frames between refreshes of the HUD values.
+		 * @param postProcessing
+		 *            True if post-processing may run.
+		 */
+		Tier(final float starShare, final float particleShare,
+				final boolean translucentPopups, final int hudInterval,
+				final boolean postProcessing) {
+			this.starShare = starShare;
+			this.particleShare = particleShare;
+			this.translucentPopups = translucentPopups;
+			this.hudInterval = hudInterval;
+			this.postProcessing = postProcessing;
+		}
+
+		/**
+		 * Getter for the share of the title screen stars drawn.
+		 *
+		 * @return Share of the stars, from 0 to 1.
+		 */
+		public float getStarShare() {
+			return this.starShare;
+		}
+
+		/**
+		 * Getter for the share of the particle spawn budget.
+		 *
+		 * @return Share of the budget, from 0 to 1.
+		 */
+		public float getParticleShare() {
+			return this.particleShare;
+		}
+
+		/**
+		 * Checks if pop-ups are drawn over a translucent fill.
+		 *
+		 * @return True for translucent fills, false for opaque ones.
+		 */
+		public boolean hasTranslucentPopups() {
+			return this.translucentPopups;
+		}
+
+		/**
+		 * Getter for the frames between refreshes of the HUD values.
+		 *
+		 * @return Frames, 1 to refresh every frame.
+		 */
+		public int getHudInterval() {
+			return this.hudInterval;
+		}
+
+		/**
+		 * Checks if post-processing may run.
+		 *
+		 * @return True if the effects may run when turned on.
+		 */
+		public boolean allowsPostProcessing() {
+			return this.postProcessing;
+		}
+	}
+
+	/** Tiers, from the most to the least work. */
+	private static final Tier[] TIERS = Tier.values();
+
+	/** Singleton instance of the class. */
+	private static QualityGovernor instance;
+
+	/** Application logger. */
+	private final Logger logger;
+	/** Drawing time of the last frames, in nanoseconds. */
+	private final long[] frameNanos;
+	/** Next position to write in the ring buffer. */
+	private int head;
+	/** Frame times stored since the last change. */
+	private int samples;
+	/** Sum of the stored frame times. */
+	private long windowNanos;
+	/** Frames drawn since the last change. */
+	private int framesSinceChange;
+	/** Drawing time saved by stepping down from each tier, 0 if unknown. */
+	private final long[] savedNanos;
+	/** Average that caused the last step down, 0 once its saving is known. */
+	private long stepDownAverage;
+	/** Current tier, read by the game thread. */
+	private volatile Tier tier;
+
+	/**
+	 * Private constructor, starts at the highest quality.
+	 */
+	private QualityGovernor() {
+		this.logger = Core.getLogger();
+		this.frameNanos = new long[WINDOW];
+		this.savedNanos = new long[TIERS.length];
+		this.tier = Tier.HIGH;
+	}
+
+	/**
+	 * Returns shared instance of QualityGovernor.
+	 *
+	 * @return Shared instance of QualityGovernor.
+	 */
+	protected static QualityGovernor getInstance() {
+		if (instance == null)
+			instance = new QualityGovernor();
+		return instance;
+	}
+
+	/**
+	 * Getter for the current tier.
+	 *
+	 * @return Level of cosmetic work to do.
+	 */
+	public Tier getTier() {
+		return this.tier;
+	}
+
+	/**
+	 * Records the time a frame took to draw, and changes tier when the
+	 * average calls for it. Only called by the thread drawing the frames.
+	 *
+	 * @param busyNanos
+	 *            Nanoseconds spent drawing the frame.
+	 */
+	public void recordFrame(final long busyNanos) {
+		if (this.samples == WINDOW)
+			this.windowNanos -= this.frameNanos[this.head];
+		else
+			this.samples++;
+		this.frameNanos[this.head] = busyNanos;
+		this.windowNanos += busyNanos;
+		this.head = (this.head + 1) % WINDOW;
+		this.framesSinceChange++;
+		if (this.samples < WINDOW)
+			return;
+
+		long average = this.windowNanos / WINDOW;
+		int index = this.tier.ordinal();
+		if (this.stepDownAverage > 0) {
+			// First full window since stepping down from the tier above.
+			this.savedNanos[index - 1] = Math.max(0,
+					this.stepDownAverage - average);
+			this.stepDownAverage = 0;
+		}
+		if (average > FRAME_BUDGET_NANOS * STEP_DOWN_LOAD
+				&& this.framesSinceChange >= STEP_DOWN_HOLD
+				&& index < TIERS.length - 1) {
+			change(TIERS[index + 1], average);
+			this.stepDownAverage = average;
+		} else if (average < FRAME_BUDGET_NANOS * STEP_UP_LOAD
+				&& average + this.savedNanos[Math.max(0, index - 1)]
+						< FRAME_BUDGET_NANOS * STEP_DOWN_LOAD
+				&& this.framesSinceChange >= STEP_UP_HOLD && index > 0) {
+			change(TIERS[index - 1], average);
+		}
+	}
+
+	/**
+	 * Moves to another tier and starts measuring again.
+	 *
+	 * @param newTier
+	 *            Tier to move to.
+	 * @param average
+	 *            Average drawing time that called for the change.
+	 */
+	private void change(final Tier newTier, final long average) {
+		this.logger.info("Quality " + (newTier.ordinal() > this.tier.ordinal()
+				? "lowered" : "raised") + " from " + this.tier + " to "
+				+ newTier + ", frames took " + average / NANOS_PER_TENTH / 10
+				+ "." + average / NANOS_PER_TENTH % 10 + " ms of "
+				+ FRAME_BUDGET_NANOS / NANOS_PER_TENTH / 10 + "."
+				+ FRAME_BUDGET_NANOS / NANOS_PER_TENTH % 10 + " ms.");
+		this.tier = newTier;
+		this.samples = 0;
+		this.head = 0;
+		this.windowNanos = 0;
+		this.framesSinceChange = 0;
+		this.stepDownAverage = 0;
+	}
+}
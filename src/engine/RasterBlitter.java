@@ -0,0 +1,429 @@
+package engine;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import engine.DrawManager.SpriteType;
+
+/**
+ * Draws sprites by writing straight into the pixels of a TYPE_INT_RGB
+ * image, or of a TYPE_BYTE_INDEXED image using a palette. Each sprite is
+ * turned once into runs of lit pixels, so drawing it is a few array fills.
+ * Sprites can be queued and drawn together in the order they were queued,
+ * and neither queueing nor drawing allocates once the queue has grown to
+ * the size of a frame. Given a pool, large queues are split into bands of rows drawn at
+ * the same time, each band drawing its sprites in the same order as a
+ * single thread would, so the result is the same pixel for pixel.
+ *
+ */
+public final class RasterBlitter {
+
+	/** Side of the square drawn for each sprite pixel. */
+	private static final int PIXEL_SIZE = 2;
+	/** Sprites the queue has room for at first. */
+	private static final int INITIAL_CAPACITY = 128;
+	/** Sprite types by ordinal. */
+	private static final SpriteType[] SPRITE_TYPE_VALUES = SpriteType.values();
+	/** Number of sprite types. */
+	private static final int SPRITE_TYPES = SPRITE_TYPE_VALUES.length;
+	/** Rows of the target in each band drawn in parallel. */
+	private static final int BAND_HEIGHT = 32;
+	/** Fewest queued sprites worth splitting into bands. */
+	static final int PARALLEL_THRESHOLD = 256;
+
+	/** Sprite pixels by sprite. */
+	private final Map<SpriteType, SpriteMask> spriteMap;
+	/** Runs of each sprite by ordinal, as row, column and length triples. */
+	private final int[][] runs;
+
+	/** Pixels of the target image, null if it is indexed. */
+	private int[] pixels;
+	/** Palette slots of the target image, null if it is not indexed. */
+	private byte[] indexedPixels;
+	/** Palette of the target image if it is indexed. */
+	private Palette palette;
+	/** Width of the target image. */
+	private int width;
+	/** Height of the target image. */
+	private int height;
+
+	/** Sprites queued. */
+	private int count;
+	/** Sprite ordinal of each queued sprite. */
+	private int[] queuedSprites;
+	/** Color of each queued sprite, its pixel value while flushing. */
+	private int[] queuedColors;
+	/** Position in the x-axis of each queued sprite. */
+	private int[] queuedX;
+	/** Position in the y-axis of each queued sprite. */
+	private int[] queuedY;
+
+	/** Pool drawing bands in parallel, null to draw on the caller only. */
+	private ForkJoinPool pool;
+	/** Start of each band in the binned sprites, one more than bands. */
+	private int[] bandStarts;
+	/** Next free place of each band while binning. */
+	private int[] bandEnds;
+	/** Queue indexes of the sprites touching each band, in queued order. */
+	private int[] bandSprites;
+	/** Task drawing each band, reused every flush. */
+	private BandTask[] bandTasks;
+	/** Task drawing every band, reused every flush. */
+	private final FrameTask frameTask;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param spriteMap
+	 *            Sprite pixels by sprite.
+	 */
+	public RasterBlitter(final Map<SpriteType, SpriteMask> spriteMap) {
+		this.spriteMap = spriteMap;
+		this.runs = new int[SPRITE_TYPES][];
+		this.queuedSprites = new int[INITIAL_CAPACITY];
+		this.queuedColors = new int[INITIAL_CAPACITY];
+		this.queuedX = new int[INITIAL_CAPACITY];
+		this.queuedY = new int[INITIAL_CAPACITY];
+		this.bandStarts = new int[1];
+		this.bandEnds = new int[0];
+		this.bandSprites = new int[INITIAL_CAPACITY];
+		this.bandTasks = new BandTask[0];
+		this.frameTask = new FrameTask();
+	}
+
+	/**
+	 * Sets the pool large queues are drawn on, band by band.
+	 *
+	 * @param bandPool
+	 *            Pool to draw on, null to draw on the calling thread only.
+	 */
+	public void setPool(final ForkJoinPool bandPool) {
+		this.pool = bandPool;
+	}
+
+	/**
+	 * Sets the image to draw into.
+	 *
+	 * @param image
+	 *            Image backed by an int array, one RGB value per pixel, or
+	 *            by a byte array, one palette slot per pixel.
+	 * @param imagePalette
+	 *            Palette of the image if it is indexed.
+	 */
+	public void setTarget(final BufferedImage image,
+			final Palette imagePalette) {
+		DataBuffer buffer = image.getRaster().getDataBuffer();
+		if (buffer instanceof DataBufferByte) {
+			this.pixels = null;
+			this.indexedPixels = ((DataBufferByte) buffer).getData();
+		} else {
+			this.pixels = ((DataBufferInt) buffer).getData();
+			this.indexedPixels = null;
+		}
+		this.palette = imagePalette;
+		this.width = image.getWidth();
+		this.height = image.getHeight();
+		this.count = 0;
+
+		int bands = (this.height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+		this.bandStarts = new int[bands + 1];
+		this.bandEnds = new int[bands];
+		this.bandTasks = new BandTask[bands];
+		for (int b = 0; b < bands; b++)
+			this.bandTasks[b] = new BandTask(b);
+	}
+
+	/**
+	 * Queues a sprite, to be drawn on the next flush.
+	 *
+	 * @param spriteType
+	 *            Sprite to draw.
+	 * @param rgb
+	 *            Color of the lit pixels.
+	 * @param positionX
+	 *            Position of the sprite in the x-axis.
+	 * @param positionY
+	 *            Position of the sprite in the y-axis.
+	 */
+	public void submit(final SpriteType spriteType, final int rgb,
+			final int positionX, final int positionY) {
+		if (this.count == this.queuedSprites.length)
+			grow();
+		this.queuedSprites[this.count] = spriteType.ordinal();
+		this.queuedColors[this.count] = rgb;
+		this.queuedX[this.count] = positionX;
+		this.queuedY[this.count] = positionY;
+		this.count++;
+	}
+
+	/**
+	 * Draws every queued sprite in the order queued, so overlapping sprites
+	 * cover each other as if drawn one by one, and empties the queue.
+	 */
+	public void flush() {
+		if (this.count == 0)
+			return;
+		// Runs and palette slots are looked up here, on one thread, so
+		// bands drawn in parallel only read them.
+		for (int i = 0; i < this.count; i++) {
+			getRuns(SPRITE_TYPE_VALUES[this.queuedSprites[i]]);
+			this.queuedColors[i] = toPixel(this.queuedColors[i]);
+		}
+
+		if (this.pool == null || this.count < PARALLEL_THRESHOLD) {
+			drawQueued(0, this.height);
+		} else {
+			bin();
+			this.frameTask.reinitialize();
+			this.pool.invoke(this.frameTask);
+		}
+		this.count = 0;
+	}
+
+	/**
+	 * Draws the queued sprites in the order queued, clipped to some rows.
+	 *
+	 * @param top
+	 *            First row drawn.
+	 * @param bottom
+	 *            Row after the last row drawn.
+	 */
+	private void drawQueued(final int top, final int bottom) {
+		for (int i = 0; i < this.count; i++) {
+			blit(this.runs[this.queuedSprites[i]], this.queuedColors[i],
+					this.queuedX[i], this.queuedY[i], top, bottom);
+		}
+	}
+
+	/**
+	 * Sorts the queued sprites into the bands they touch, keeping the
+	 * queued order within each band.
+	 */
+	private void bin() {
+		int bands = this.bandEnds.length;
+		Arrays.fill(this.bandStarts, 0);
+		for (int i = 0; i < this.count; i++) {
+			int top = Math.max(0, this.queuedY[i]);
+			int bottom = Math.min(this.height, this.queuedY[i]
+					+ spriteHeight(this.runs[this.queuedSprites[i]]));
+			for (int b = top / BAND_HEIGHT; top < bottom
+					&& b <= (bottom - 1) / BAND_HEIGHT; b++)
+				this.bandStarts[b + 1]++;
+		}
+		for (int b = 0; b < bands; b++)
+			this.bandStarts[b + 1] += this.bandStarts[b];
+		if (this.bandSprites.length < this.bandStarts[bands])
+			this.bandSprites = new int[this.bandStarts[bands] * 2];
+
+		System.arraycopy(this.bandStarts, 0, this.bandEnds, 0, bands);
+		for (int i = 0; i < this.count; i++) {
+			int top = Math.max(0, this.queuedY[i]);
+			int bottom = Math.min(this.height, this.queuedY[i]
+					+ spriteHeight(this.runs[this.queuedSprites[i]]));
+			for (int b = top / BAND_HEIGHT; top < bottom
+					&& b <= (bottom - 1) / BAND_HEIGHT; b++)
+				this.bandSprites[this.bandEnds[b]++] = i;
+		}
+	}
+
+	/**
+	 * Draws the sprites binned into a band, clipped to its rows.
+	 *
+	 * @param band
+	 *            Band to draw.
+	 */
+	private void drawBand(final int band) {
+		int top = band * BAND_HEIGHT;
+		int bottom = Math.min(this.height, top + BAND_HEIGHT);
+		for (int j = this.bandStarts[band]; j < this.bandStarts[band + 1]; j++) {
+			int i = this.bandSprites[j];
+			blit(this.runs[this.queuedSprites[i]], this.queuedColors[i],
+					this.queuedX[i], this.queuedY[i], top, bottom);
+		}
+	}
+
+	/**
+	 * Draws every band, each in a task of its own.
+	 */
+	@SuppressWarnings("serial")
+	private final class FrameTask extends RecursiveAction {
+
+		@Override
+		protected void compute() {
+			for (BandTask task : bandTasks)
+				task.reinitialize();
+			invokeAll(bandTasks);
+		}
+	}
+
+	/**
+	 * Draws one band.
+	 */
+	@SuppressWarnings("serial")
+	private final class BandTask extends RecursiveAction {
+
+		/** Band drawn. */
+		private final int band;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param band
+		 *            Band drawn.
+		 */
+		BandTask(final int band) {
+			this.band = band;
+		}
+
+		@Override
+		protected void compute() {
+			drawBand(this.band);
+		}
+	}
+
+	/**
+	 * Draws a sprite right away.
+	 *
+	 * @param spriteType
+	 *            Sprite to draw.
+	 * @param rgb
+	 *            Color of the lit pixels.
+	 * @param positionX
+	 *            Position of the sprite in the x-axis.
+	 * @param positionY
+	 *            Position of the sprite in the y-axis.
+	 */
+	public void draw(final SpriteType spriteType, final int rgb,
+			final int positionX, final int positionY) {
+		blit(getRuns(spriteType), toPixel(rgb), positionX, positionY, 0,
+				this.height);
+	}
+
+	/**
+	 * Getter for the value written into the target for a color.
+	 *
+	 * @param rgb
+	 *            Color.
+	 * @return The color itself, or its palette slot if the target is
+	 *         indexed.
+	 */
+	private int toPixel(final int rgb) {
+		if (this.indexedPixels == null)
+			return rgb;
+		return this.palette.getIndex(rgb);
+	}
+
+	/**
+	 * Getter for the height of a sprite on the target.
+	 *
+	 * @param spriteRuns
+	 *            Runs of the sprite.
+	 * @return Rows down to the last lit one.
+	 */
+	private static int spriteHeight(final int[] spriteRuns) {
+		if (spriteRuns.length == 0)
+			return 0;
+		return (spriteRuns[spriteRuns.length - 3] + 1) * PIXEL_SIZE;
+	}
+
+	/**
+	 * Fills the runs of a sprite, clipped to the target and to some rows.
+	 *
+	 * @param spriteRuns
+	 *            Runs of the sprite.
+	 * @param pixel
+	 *            Color or palette slot of the lit pixels.
+	 * @param positionX
+	 *            Position of the sprite in the x-axis.
+	 * @param positionY
+	 *            Position of the sprite in the y-axis.
+	 * @param top
+	 *            First row drawn.
+	 * @param bottom
+	 *            Row after the last row drawn.
+	 */
+	private void blit(final int[] spriteRuns, final int pixel,
+			final int positionX, final int positionY, final int top,
+			final int bottom) {
+		for (int r = 0; r < spriteRuns.length; r += 3) {
+			int fromX = Math.max(0, positionX + spriteRuns[r + 1] * PIXEL_SIZE);
+			int toX = Math.min(this.width, positionX
+					+ (spriteRuns[r + 1] + spriteRuns[r + 2]) * PIXEL_SIZE);
+			if (fromX >= toX)
+				continue;
+			int rowY = positionY + spriteRuns[r] * PIXEL_SIZE;
+			for (int y = rowY; y < rowY + PIXEL_SIZE; y++) {
+				if (y < top || y >= bottom)
+					continue;
+				int offset = y * this.width;
+				if (this.indexedPixels == null)
+					Arrays.fill(this.pixels, offset + fromX, offset + toX,
+							pixel);
+				else
+					Arrays.fill(this.indexedPixels, offset + fromX,
+							offset + toX, (byte) pixel);
+			}
+		}
+	}
+
+	/**
+	 * Getter for the runs of lit pixels of a sprite, computed on first use.
+	 *
+	 * @param spriteType
+	 *            Sprite.
+	 * @return Row, column and length of every run, in sprite pixels.
+	 */
+	private int[] getRuns(final SpriteType spriteType) {
+		int[] spriteRuns = this.runs[spriteType.ordinal()];
+		if (spriteRuns == null) {
+			spriteRuns = encode(this.spriteMap.get(spriteType));
+			this.runs[spriteType.ordinal()] = spriteRuns;
+		}
+		return spriteRuns;
+	}
+
+	/**
+	 * Turns the pixels of a sprite into runs along its rows.
+	 *
+	 * @param sprite
+	 *            Sprite pixels.
+	 * @return Row, column and length of every run.
+	 */
+	private static int[] encode(final SpriteMask sprite) {
+		int spriteHeight = sprite.getHeight();
+		int[] encoded = new int[sprite.getWidth() * spriteHeight * 3];
+		int length = 0;
+		for (int j = 0; j < spriteHeight; j++) {
+			long row = sprite.getRow(j);
+			while (row != 0) {
+				// A run starts at the lowest lit bit and ends at the first
+				// unlit bit after it.
+				int start = Long.numberOfTrailingZeros(row);
+				int run = Long.numberOfTrailingZeros(~(row >>> start));
+				encoded[length++] = j;
+				encoded[length++] = start;
+				encoded[length++] = run;
+				row &= run + start >= SpriteMask.MAX_WIDTH ? 0
+						: -1L << (start + run);
+			}
+		}
+		return Arrays.copyOf(encoded, length);
+	}
+
+	/**
+	 * Doubles the room in the queue.
+	 */
+	private void grow() {
+		int capacity = this.queuedSprites.length * 2;
+		this.queuedSprites = Arrays.copyOf(this.queuedSprites, capacity);
+		this.queuedColors = Arrays.copyOf(this.queuedColors, capacity);
+		this.queuedX = Arrays.copyOf(this.queuedX, capacity);
+		this.queuedY = Arrays.copyOf(this.queuedY, capacity);
+	}
+}
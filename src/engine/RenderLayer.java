@@ -0,0 +1,42 @@
+package engine;
+
+/**
+ * Layers the game screen is drawn in, from the back to the front. Sprites
+ * of a layer are drawn together, so a layer always covers the ones before
+ * it whatever order its entities were added in.
+ *
+ */
+public enum RenderLayer {
+	/** Enemy ships and bosses. */
+	ENEMIES("enemy"),
+	/** Bullets and falling items. */
+	BULLETS("bullet"),
+	/** Ships of the players. */
+	PLAYER("player"),
+	/** Particles and other effects over the action. */
+	EFFECTS("fx"),
+	/** Interface over everything. */
+	HUD("hud");
+
+	/** Short name shown with the draw counts. */
+	private final String label;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param label
+	 *            Short name shown with the draw counts.
+	 */
+	RenderLayer(final String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Getter for the short name of the layer.
+	 *
+	 * @return Name shown with the draw counts.
+	 */
+	public String getLabel() {
+		return this.label;
+	}
+}
@@ -0,0 +1,136 @@
+package engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Draws the snapshots published by the game thread on a thread of its own,
+ * so a slow frame does not delay the next tick. Positions are interpolated
+ * by the time elapsed since the snapshot was published.
+ *
+ */
+public final class RenderThread implements Runnable {
+
+	/** Nanoseconds in a second. */
+	private static final long NANOS_PER_SECOND = 1000000000L;
+
+	/**
+	 * Draws a snapshot.
+	 */
+	public interface Renderer {
+		/**
+		 * Draws a snapshot.
+		 *
+		 * @param snapshot
+		 *            State to draw.
+		 * @param alpha
+		 *            Fraction of a tick elapsed since the snapshot was
+		 *            published, 0 to 1.
+		 */
+		void render(FrameSnapshot snapshot, float alpha);
+	}
+
+	/** Source of the snapshots. */
+	private final SnapshotBuffer buffer;
+	/** Draws each snapshot. */
+	private final Renderer renderer;
+	/** Time between frames, in nanoseconds. */
+	private final long frameNanos;
+	/** Application logger. */
+	private final Logger logger;
+	/** Thread drawing the frames. */
+	private Thread thread;
+	/** True while frames are drawn. */
+	private volatile boolean running;
+	/** Frames that failed in a row since the last one drawn. */
+	private int failedFrames;
+
+	/**
+	 * Constructor, the thread is not started.
+	 *
+	 * @param buffer
+	 *            Source of the snapshots.
+	 * @param renderer
+	 *            Draws each snapshot.
+	 * @param renderRate
+	 *            Frames drawn per second.
+	 */
+	public RenderThread(final SnapshotBuffer buffer, final Renderer renderer,
+			final int renderRate) {
+		this.buffer = buffer;
+		this.renderer = renderer;
+		this.frameNanos = NANOS_PER_SECOND / renderRate;
+		this.logger = Core.getLogger();
+	}
+
+	/**
+	 * Starts drawing frames.
+	 */
+	public void start() {
+		this.running = true;
+		this.thread = new Thread(this, "render");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Stops drawing frames, waiting for the frame being drawn.
+	 */
+	public void stop() {
+		this.running = false;
+		if (this.thread == null)
+			return;
+		try {
+			this.thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.thread = null;
+	}
+
+	/**
+	 * Draws frames until stopped.
+	 */
+	@Override
+	public void run() {
+		while (this.running) {
+			long frameStart = System.nanoTime();
+			FrameSnapshot snapshot = this.buffer.take();
+			if (snapshot != null) {
+				float alpha = snapshot.tickNanos <= 0 ? 1f : Math.min(1f,
+						(float) (frameStart - snapshot.publishedAt)
+								/ snapshot.tickNanos);
+				try {
+					this.renderer.render(snapshot, alpha);
+					reportFailures();
+				} catch (RuntimeException e) {
+					// Only the first of a run of failures is logged, the
+					// rest are counted and reported once frames draw again.
+					if (this.failedFrames++ == 0)
+						this.logger.warning("Frame could not be drawn: " + e);
+				}
+			}
+
+			long time = this.frameNanos - (System.nanoTime() - frameStart);
+			if (time > 0) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(time);
+				} catch (InterruptedException e) {
+					break;
+				}
+			}
+		}
+		reportFailures();
+	}
+
+	/**
+	 * Logs how many frames failed after the first failure was logged, and
+	 * starts counting again.
+	 */
+	private void reportFailures() {
+		if (this.failedFrames > 1)
+			this.logger.warning((this.failedFrames - 1)
+					+ " more frames could not be drawn.");
+		this.failedFrames = 0;
+	}
+}
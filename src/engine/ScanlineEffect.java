@@ -0,0 +1,61 @@
+package engine;
+
+/**
+ * Darkens every other row of the frame, like the gaps between the lines of
+ * a CRT. The brightness of each row is kept in a table, and each pixel is
+ * scaled with two multiplications on its packed channels.
+ *
+ */
+public final class ScanlineEffect implements PostProcessor.PostEffect {
+
+	/** Brightness of a full row, in 256ths. */
+	private static final int FULL = 256;
+
+	/** Brightness of the darkened rows, in 256ths. */
+	private final int darkness;
+	/** Brightness of each row, in 256ths. */
+	private int[] rowScale;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param brightness
+	 *            Brightness of the darkened rows, from 0 to 1.
+	 */
+	public ScanlineEffect(final float brightness) {
+		this.darkness = Math.round(Math.max(0, Math.min(1, brightness))
+				* FULL);
+		this.rowScale = new int[0];
+	}
+
+	@Override
+	public String getName() {
+		return "Scanlines";
+	}
+
+	@Override
+	public void prepare(final int width, final int height) {
+		this.rowScale = new int[height];
+		for (int y = 0; y < height; y++)
+			this.rowScale[y] = y % 2 == 0 ? FULL : this.darkness;
+	}
+
+	@Override
+	public void apply(final int[] source, final int[] target,
+			final int width, final int height, final int top,
+			final int bottom) {
+		for (int y = top; y < bottom; y++) {
+			int scale = this.rowScale[y];
+			int offset = y * width;
+			if (scale == FULL) {
+				System.arraycopy(source, offset, target, offset, width);
+				continue;
+			}
+			for (int i = offset; i < offset + width; i++) {
+				int rgb = source[i];
+				target[i] = ((rgb & 0xFF00FF) * scale >>> 8 & 0xFF00FF)
+						| ((rgb & 0x00FF00) * scale >>> 8 & 0x00FF00);
+			}
+		}
+	}
+}
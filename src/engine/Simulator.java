@@ -0,0 +1,70 @@
+package engine;
+
+import java.awt.event.KeyEvent;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Plays games headless, as fast as the machine allows, for balance and
+ * regression checks on machines without a display. Both players hold their
+ * fire key for the whole game. Game i of a run is seeded with the base seed
+ * plus i, so any game can be replayed from its seed.
+ * 
+ */
+public final class Simulator {
+
+	/** Games played when no count is given. */
+	private static final int DEFAULT_GAMES = 100;
+	/** Nanoseconds in a millisecond. */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	/**
+	 * Runs the simulation.
+	 * 
+	 * @param args
+	 *            Program args, optionally the number of games to play and
+	 *            the base seed.
+	 */
+	public static void main(final String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+		long baseSeed = args.length > 1 ? Long.parseLong(args[1])
+				: System.nanoTime();
+
+		Logger logger = Core.getLogger();
+		logger.setLevel(Level.WARNING);
+		Core.setHeadless(true);
+
+		InputManager inputManager = Core.getInputManager();
+		inputManager.setKeyDown(KeyEvent.VK_SPACE, true);
+		inputManager.setKeyDown(KeyEvent.VK_ENTER, true);
+
+		long levels = 0;
+		long totalScore = 0;
+		long gameMillis = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < games; i++) {
+			Core.resetSession(baseSeed + i);
+			GameState gameState = Core.playLevels(new GameState(1, 0,
+					Core.getMaxLives(), Core.getMaxLives(), 0, 0, 0));
+			levels += gameState.getLevel();
+			totalScore += gameState.getScore();
+			gameMillis += Core.getClock().getMillis();
+		}
+		long wallMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+
+		logger.warning("Simulated " + games + " games from seed " + baseSeed
+				+ ", " + levels
+				+ " levels and " + gameMillis / 1000 + " s of game time in "
+				+ wallMillis + " ms, average score "
+				+ totalScore / Math.max(1, games) + ".");
+		Core.dumpProfile();
+	}
+
+	/**
+	 * Constructor, not called.
+	 */
+	private Simulator() {
+
+	}
+}
@@ -0,0 +1,75 @@
+package engine;
+
+/**
+ * Hands frame snapshots from the game thread to the render thread through
+ * three reused snapshots: one being written, one being drawn and the latest
+ * published one in between. Neither thread ever waits for the other to
+ * finish its snapshot.
+ *
+ */
+public final class SnapshotBuffer {
+
+	/** Snapshot the game thread is filling. */
+	private FrameSnapshot writing;
+	/** Latest snapshot published. */
+	private FrameSnapshot latest;
+	/** Snapshot the render thread is drawing. */
+	private FrameSnapshot reading;
+	/** True if the latest snapshot was not taken yet. */
+	private boolean fresh;
+	/** True once a snapshot has been published. */
+	private boolean published;
+	/** Time the last snapshot was published, in nanoseconds. */
+	private long lastPublish;
+
+	/**
+	 * Constructor, creates the three snapshots.
+	 */
+	public SnapshotBuffer() {
+		this.writing = new FrameSnapshot();
+		this.latest = new FrameSnapshot();
+		this.reading = new FrameSnapshot();
+	}
+
+	/**
+	 * Getter for the snapshot to fill, only called by the game thread.
+	 *
+	 * @return Snapshot owned by the game thread until published.
+	 */
+	public FrameSnapshot getWriting() {
+		return this.writing;
+	}
+
+	/**
+	 * Publishes the snapshot filled by the game thread.
+	 */
+	public synchronized void publish() {
+		long now = System.nanoTime();
+		this.writing.publishedAt = now;
+		this.writing.tickNanos = this.published ? now - this.lastPublish : 0;
+		this.lastPublish = now;
+		FrameSnapshot swap = this.latest;
+		this.latest = this.writing;
+		this.writing = swap;
+		this.fresh = true;
+		this.published = true;
+		notifyAll();
+	}
+
+	/**
+	 * Takes the latest snapshot for drawing, only called by the render
+	 * thread.
+	 *
+	 * @return Snapshot owned by the render thread until the next call, or
+	 *         null if nothing was published yet.
+	 */
+	public synchronized FrameSnapshot take() {
+		if (this.fresh) {
+			FrameSnapshot swap = this.reading;
+			this.reading = this.latest;
+			this.latest = swap;
+			this.fresh = false;
+		}
+		return this.published ? this.reading : null;
+	}
+}
@@ -0,0 +1,289 @@
+package engine;
+
+import java.util.Arrays;
+
+import entity.Entity;
+
+/**
+ * Broadphase for collision checks: a uniform grid of square cells over the
+ * screen, each listing the entities that touch it. Asking for the entities
+ * near another one only walks the cells it covers, so a tick costs about
+ * the number of close pairs instead of every entity against every other.
+ * Entities are kept in every cell they crossed since the start of the tick,
+ * so fast ones are found anywhere along their way, and entities outside
+ * the screen are kept in the border cells. Each entity is
+ * stored with a tag saying what it is, and candidates come back in the
+ * order they were added, so checking them gives the same results as a
+ * full scan. The grid is cleared and filled again every tick, and does not
+ * allocate once its arrays have grown to the busiest tick.
+ *
+ */
+public final class SpatialGrid {
+
+	/** Entities a new grid has room for. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** Side of a cell. */
+	private final int cellSize;
+	/** Cells in a row. */
+	private final int columns;
+	/** Rows of cells. */
+	private final int rows;
+	/** First link of each cell, -1 when empty. */
+	private final int[] cellHeads;
+
+	/** Entities added. */
+	private int size;
+	/** Entity of each entry. */
+	private Entity[] entities;
+	/** Tag of each entry. */
+	private int[] tags;
+	/** Query each entry was last found by, to return it only once. */
+	private int[] stamps;
+	/** Number of links. */
+	private int linkCount;
+	/** Entry of each link between a cell and an entity. */
+	private int[] linkEntries;
+	/** Next link of the same cell, -1 for the last. */
+	private int[] linkNext;
+
+	/** Entries found by the last query, in the order they were added. */
+	private int[] candidates;
+	/** Number of entries found by the last query. */
+	private int candidateCount;
+	/** Current query, to tell entries found by it apart. */
+	private int stamp;
+
+	/** Candidates returned since the counters were reset. */
+	private int candidatesReturned;
+	/** Pairs a full scan would have checked since the counters were reset. */
+	private int pairsScanned;
+
+	/**
+	 * Constructor, makes an empty grid.
+	 *
+	 * @param width
+	 *            Width of the area covered.
+	 * @param height
+	 *            Height of the area covered.
+	 * @param cellSize
+	 *            Side of a cell, about the size of the largest common
+	 *            entity.
+	 */
+	public SpatialGrid(final int width, final int height,
+			final int cellSize) {
+		this.cellSize = cellSize;
+		this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+		this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+		this.cellHeads = new int[this.columns * this.rows];
+		Arrays.fill(this.cellHeads, -1);
+		this.entities = new Entity[INITIAL_CAPACITY];
+		this.tags = new int[INITIAL_CAPACITY];
+		this.stamps = new int[INITIAL_CAPACITY];
+		this.linkEntries = new int[INITIAL_CAPACITY];
+		this.linkNext = new int[INITIAL_CAPACITY];
+		this.candidates = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Removes every entity, to fill the grid again.
+	 */
+	public void clear() {
+		Arrays.fill(this.entities, 0, this.size, null);
+		this.size = 0;
+		this.linkCount = 0;
+		this.candidateCount = 0;
+		Arrays.fill(this.cellHeads, -1);
+	}
+
+	/**
+	 * Adds an entity to every cell it touched since the start of the tick.
+	 *
+	 * @param entity
+	 *            Entity to add.
+	 * @param tag
+	 *            What the entity is, returned with it by queries.
+	 */
+	public void add(final Entity entity, final int tag) {
+		if (this.size == this.entities.length) {
+			int capacity = this.size * 2;
+			this.entities = Arrays.copyOf(this.entities, capacity);
+			this.tags = Arrays.copyOf(this.tags, capacity);
+			this.stamps = Arrays.copyOf(this.stamps, capacity);
+			this.candidates = Arrays.copyOf(this.candidates, capacity);
+		}
+		int entry = this.size++;
+		this.entities[entry] = entity;
+		this.tags[entry] = tag;
+		this.stamps[entry] = this.stamp;
+
+		int left = column(Math.min(entity.getPositionX(),
+				entity.getPreviousPositionX()));
+		int right = column(Math.max(entity.getPositionX(),
+				entity.getPreviousPositionX()) + entity.getWidth() - 1);
+		int top = row(Math.min(entity.getPositionY(),
+				entity.getPreviousPositionY()));
+		int bottom = row(Math.max(entity.getPositionY(),
+				entity.getPreviousPositionY()) + entity.getHeight() - 1);
+		for (int row = top; row <= bottom; row++)
+			for (int column = left; column <= right; column++) {
+				if (this.linkCount == this.linkEntries.length) {
+					int capacity = this.linkCount * 2;
+					this.linkEntries = Arrays.copyOf(this.linkEntries,
+							capacity);
+					this.linkNext = Arrays.copyOf(this.linkNext, capacity);
+				}
+				int cell = row * this.columns + column;
+				int link = this.linkCount++;
+				this.linkEntries[link] = entry;
+				this.linkNext[link] = this.cellHeads[cell];
+				this.cellHeads[cell] = link;
+			}
+	}
+
+	/**
+	 * Finds the entities sharing a cell with another one, over the whole
+	 * tick for both. They are read
+	 * with {@link #getCandidate(int)} and {@link #getCandidateTag(int)}
+	 * until the next query.
+	 *
+	 * @param entity
+	 *            Entity to find neighbours of.
+	 * @return Number of candidates found.
+	 */
+	public int query(final Entity entity) {
+		return query(entity.getPreviousPositionX(),
+				entity.getPreviousPositionY(), entity.getPositionX(),
+				entity.getPositionY(), entity.getWidth(), entity.getHeight());
+	}
+
+	/**
+	 * Finds the entities sharing a cell with a box moving over the tick.
+	 *
+	 * @param fromX
+	 *            Position of the box in the x-axis at the start of the tick.
+	 * @param fromY
+	 *            Position of the box in the y-axis at the start of the tick.
+	 * @param toX
+	 *            Position of the box in the x-axis now.
+	 * @param toY
+	 *            Position of the box in the y-axis now.
+	 * @param width
+	 *            Width of the box.
+	 * @param height
+	 *            Height of the box.
+	 * @return Number of candidates found.
+	 */
+	public int query(final int fromX, final int fromY, final int toX,
+			final int toY, final int width, final int height) {
+		this.stamp++;
+		this.candidateCount = 0;
+		int left = column(Math.min(fromX, toX));
+		int right = column(Math.max(fromX, toX) + width - 1);
+		int top = row(Math.min(fromY, toY));
+		int bottom = row(Math.max(fromY, toY) + height - 1);
+		for (int row = top; row <= bottom; row++)
+			for (int column = left; column <= right; column++)
+				for (int link = this.cellHeads[row * this.columns + column];
+						link != -1; link = this.linkNext[link]) {
+					int entry = this.linkEntries[link];
+					if (this.stamps[entry] != this.stamp) {
+						this.stamps[entry] = this.stamp;
+						insertCandidate(entry);
+					}
+				}
+		this.candidatesReturned += this.candidateCount;
+		this.pairsScanned += this.size;
+		return this.candidateCount;
+	}
+
+	/**
+	 * Getter for an entity found by the last query.
+	 *
+	 * @param index
+	 *            Candidate index, below the count the query returned.
+	 * @return Entity near the one queried.
+	 */
+	public Entity getCandidate(final int index) {
+		return this.entities[this.candidates[index]];
+	}
+
+	/**
+	 * Getter for the tag of an entity found by the last query.
+	 *
+	 * @param index
+	 *            Candidate index, below the count the query returned.
+	 * @return Tag the entity was added with.
+	 */
+	public int getCandidateTag(final int index) {
+		return this.tags[this.candidates[index]];
+	}
+
+	/**
+	 * Getter for the candidates returned since the counters were reset,
+	 * the pairs left for the exact check.
+	 *
+	 * @return Candidate pairs.
+	 */
+	public int getCandidatePairs() {
+		return this.candidatesReturned;
+	}
+
+	/**
+	 * Getter for the pairs a full scan would have checked on top of the
+	 * candidates since the counters were reset.
+	 *
+	 * @return Pairs pruned by the grid.
+	 */
+	public int getPrunedPairs() {
+		return this.pairsScanned - this.candidatesReturned;
+	}
+
+	/**
+	 * Sets the query counters back to zero.
+	 */
+	public void resetCounters() {
+		this.candidatesReturned = 0;
+		this.pairsScanned = 0;
+	}
+
+	/**
+	 * Adds an entry to the candidates, keeping them in the order the
+	 * entries were added.
+	 *
+	 * @param entry
+	 *            Entry found.
+	 */
+	private void insertCandidate(final int entry) {
+		int i = this.candidateCount++;
+		while (i > 0 && this.candidates[i - 1] > entry) {
+			this.candidates[i] = this.candidates[i - 1];
+			i--;
+		}
+		this.candidates[i] = entry;
+	}
+
+	/**
+	 * Getter for the column of cells holding a position.
+	 *
+	 * @param x
+	 *            Position in the x-axis.
+	 * @return Column, clamped to the grid.
+	 */
+	private int column(final int x) {
+		return Math.max(0, Math.min(this.columns - 1,
+				Math.floorDiv(x, this.cellSize)));
+	}
+
+	/**
+	 * Getter for the row of cells holding a position.
+	 *
+	 * @param y
+	 *            Position in the y-axis.
+	 * @return Row, clamped to the grid.
+	 */
+	private int row(final int y) {
+		return Math.max(0, Math.min(this.rows - 1,
+				Math.floorDiv(y, this.cellSize)));
+	}
+}
@@ -0,0 +1,197 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.logging.Level;
+
+import engine.DrawManager.FramebufferFormat;
+import engine.DrawManager.SpriteRenderer;
+import engine.DrawManager.SpriteType;
+import screen.Screen;
+
+/**
+ * Compares the ways of drawing sprites, on RGB and on indexed back buffers,
+ * on a frame as busy as a full formation with a boss, bullets and items.
+ * Only the sprites are timed, not clearing the back buffer. Each renderer
+ * also draws one frame checked pixel for pixel against the single threaded
+ * raster renderer. That frame always has enough bullets to be split into
+ * bands, while the timed frames only are with more bullets than the default.
+ *
+ */
+public final class SpriteBenchmark {
+
+	/** Width of the frame drawn. */
+	private static final int WIDTH = 448;
+	/** Height of the frame drawn. */
+	private static final int HEIGHT = 520;
+	/** Frames drawn before measuring. */
+	private static final int WARMUP_FRAMES = 2000;
+	/** Frames measured. */
+	private static final int FRAMES = 5000;
+	/** Nanoseconds in a microsecond. */
+	private static final double NANOS_PER_MICRO = 1000.0;
+	/** Sprites of the formation rows. */
+	private static final SpriteType[] ENEMIES = { SpriteType.EnemyShipA1,
+			SpriteType.EnemyShipB1, SpriteType.EnemyShipC1 };
+	/** Bullets drawn per frame unless given. */
+	private static final int DEFAULT_BULLETS = 40;
+	/** Sprites drawn per frame besides the bullets. */
+	private static final int OTHER_SPRITES = 11 * 5 + 1 + 6 + 2;
+	/** Frame compared between renderers. */
+	private static final int COMPARED_FRAME = 7;
+	/** Fewest bullets of the compared frame, enough to draw it in bands. */
+	private static final int COMPARED_BULLETS = RasterBlitter.PARALLEL_THRESHOLD;
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args
+	 *            Program args, the number of bullets drawn per frame,
+	 *            optional.
+	 */
+	public static void main(final String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		Core.getLogger().setLevel(Level.WARNING);
+		DrawManager drawManager = Core.getDrawManager();
+		Screen screen = new Screen(WIDTH, HEIGHT, 60);
+		int bullets = args.length > 0 ? Integer.parseInt(args[0])
+				: DEFAULT_BULLETS;
+		int spritesPerFrame = OTHER_SPRITES + bullets;
+		int comparedBullets = Math.max(bullets, COMPARED_BULLETS);
+		if (spritesPerFrame < RasterBlitter.PARALLEL_THRESHOLD)
+			System.out.println("Timed frames have " + spritesPerFrame
+					+ " sprites, fewer than the "
+					+ RasterBlitter.PARALLEL_THRESHOLD
+					+ " drawn in bands, so PARALLEL_RASTER is timed on one"
+					+ " thread. Pass more bullets to time it in bands.");
+
+		double baseline = 0;
+		for (FramebufferFormat format : FramebufferFormat.values()) {
+			drawManager.setFramebufferFormat(format);
+			drawManager.setSpriteRenderer(SpriteRenderer.RASTER);
+			drawFrame(drawManager, screen, COMPARED_FRAME, comparedBullets);
+			int[] reference = readPixels(DrawManager.getBackBuffer());
+			for (SpriteRenderer renderer : SpriteRenderer.values()) {
+				drawManager.setSpriteRenderer(renderer);
+				for (int i = 0; i < WARMUP_FRAMES; i++)
+					drawFrame(drawManager, screen, i, bullets);
+
+				long allocated = allocatedBytes();
+				long nanos = 0;
+				for (int i = 0; i < FRAMES; i++)
+					nanos += drawFrame(drawManager, screen, i, bullets);
+				allocated = allocatedBytes() - allocated;
+				double micros = nanos / NANOS_PER_MICRO / FRAMES;
+
+				// Every renderer draws the same frame, which is compared
+				// pixel for pixel with the single threaded raster one.
+				drawFrame(drawManager, screen, COMPARED_FRAME,
+						comparedBullets);
+				int[] pixels = readPixels(DrawManager.getBackBuffer());
+
+				if (baseline == 0)
+					baseline = micros;
+				System.out.println(String.format(
+						"%-7s %-15s %8.1f us/frame %6.3f us/sprite %6.1fx %6d bytes/frame %6d pixels differ from RASTER",
+						format, renderer, micros, micros / spritesPerFrame,
+						baseline / micros, allocated / FRAMES,
+						countDifferences(reference, pixels)));
+			}
+		}
+		drawManager.setFramebufferFormat(FramebufferFormat.RGB);
+		drawManager.setSpriteRenderer(SpriteRenderer.RASTER);
+	}
+
+	/**
+	 * Reads the colors of every pixel of an image.
+	 *
+	 * @param image
+	 *            Image to read.
+	 * @return Color of each pixel, row by row.
+	 */
+	private static int[] readPixels(final BufferedImage image) {
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null,
+				0, image.getWidth());
+	}
+
+	/**
+	 * Counts the pixels of two frames that have different colors.
+	 *
+	 * @param expected
+	 *            Colors of the first frame.
+	 * @param actual
+	 *            Colors of the second frame.
+	 * @return Number of pixels that differ.
+	 */
+	private static int countDifferences(final int[] expected,
+			final int[] actual) {
+		int differences = 0;
+		for (int i = 0; i < expected.length; i++)
+			if (expected[i] != actual[i])
+				differences++;
+		return differences;
+	}
+
+	/**
+	 * Draws the sprites of a busy game frame.
+	 *
+	 * @param drawManager
+	 *            Draw manager to draw with.
+	 * @param screen
+	 *            Screen drawn on.
+	 * @param frame
+	 *            Frame number, moves the sprites.
+	 * @param bullets
+	 *            Number of bullets drawn.
+	 * @return Time spent drawing the sprites, in nanoseconds.
+	 */
+	private static long drawFrame(final DrawManager drawManager,
+			final Screen screen, final int frame, final int bullets) {
+		int offset = frame % 20;
+		drawManager.initDrawing(screen);
+		long start = System.nanoTime();
+		drawManager.beginSpriteBatch();
+		for (int column = 0; column < 11; column++)
+			for (int row = 0; row < 5; row++)
+				drawManager.drawSprite(ENEMIES[row % 3], Color.WHITE,
+						20 + offset + column * 36, 60 + row * 40);
+		drawManager.drawSprite(SpriteType.FinalBoss1, Color.YELLOW,
+				150 + offset, 60);
+		for (int i = 0; i < bullets; i++)
+			drawManager.drawSprite(i % 2 == 0 ? SpriteType.Bullet
+					: SpriteType.EnemyBullet, Color.WHITE, 10 + i * 10 % WIDTH,
+					(i * 37 + frame * 3) % HEIGHT);
+		for (int i = 0; i < 6; i++)
+			drawManager.drawSprite(SpriteType.Item_Heal, Color.GREEN,
+					30 + i * 60, 300);
+		drawManager.drawSprite(SpriteType.Ship, Color.GREEN, 120 + offset,
+				380);
+		drawManager.drawSprite(SpriteType.Ship, Color.PINK, 300 - offset,
+				380);
+		drawManager.endSpriteBatch();
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Getter for the bytes allocated by this thread, where the virtual
+	 * machine counts them.
+	 *
+	 * @return Bytes allocated, or 0 if not available.
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) threads)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		return 0;
+	}
+
+	/**
+	 * Constructor, not called.
+	 */
+	private SpriteBenchmark() {
+
+	}
+}
@@ -0,0 +1,167 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import engine.DrawManager.SpriteType;
+
+/**
+ * Keeps sprites already rasterized in a given color, so drawing one takes a
+ * single image copy instead of a rectangle per lit pixel. The least recently
+ * drawn images are dropped once the cache is full, as entity colors change
+ * during the game.
+ *
+ */
+public final class SpriteCache {
+
+	/** Side of the square drawn for each sprite pixel. */
+	private static final int PIXEL_SIZE = 2;
+
+	/**
+	 * Identifies a sprite rasterized in a color.
+	 */
+	private static final class Key {
+		/** Sprite. */
+		private SpriteType spriteType;
+		/** Color, as ARGB. */
+		private int rgb;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param spriteType
+		 *            Sprite.
+		 * @param rgb
+		 *            Color, as ARGB.
+		 */
+		private Key(final SpriteType spriteType, final int rgb) {
+			this.spriteType = spriteType;
+			this.rgb = rgb;
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			if (!(other instanceof Key))
+				return false;
+			Key key = (Key) other;
+			return this.spriteType == key.spriteType && this.rgb == key.rgb;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.spriteType.hashCode() * 31 + this.rgb;
+		}
+	}
+
+	/** Images by sprite and color, in access order. */
+	private final Map<Key, BufferedImage> images;
+	/** Key reused for lookups, so hits do not allocate. */
+	private final Key lookup;
+	/** Sprite pixels by sprite. */
+	private final Map<SpriteType, SpriteMask> spriteMap;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param spriteMap
+	 *            Sprite pixels by sprite.
+	 * @param capacity
+	 *            Most images kept.
+	 */
+	public SpriteCache(final Map<SpriteType, SpriteMask> spriteMap,
+			final int capacity) {
+		this.spriteMap = spriteMap;
+		this.lookup = new Key(null, 0);
+		this.images = new LinkedHashMap<Key, BufferedImage>(capacity * 2,
+				0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					final Map.Entry<Key, BufferedImage> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Draws a sprite.
+	 *
+	 * @param graphics
+	 *            Graphics context to draw on.
+	 * @param spriteType
+	 *            Sprite to draw.
+	 * @param color
+	 *            Color of the lit pixels.
+	 * @param positionX
+	 *            Position of the sprite in the x-axis.
+	 * @param positionY
+	 *            Position of the sprite in the y-axis.
+	 */
+	public void draw(final Graphics graphics, final SpriteType spriteType,
+			final Color color, final int positionX, final int positionY) {
+		graphics.drawImage(getImage(spriteType, color), positionX, positionY,
+				null);
+	}
+
+	/**
+	 * Getter for the image of a sprite in a color, rasterizing it on the
+	 * first use.
+	 *
+	 * @param spriteType
+	 *            Sprite.
+	 * @param color
+	 *            Color of the lit pixels.
+	 * @return Image of the sprite, transparent where pixels are not lit.
+	 */
+	public BufferedImage getImage(final SpriteType spriteType,
+			final Color color) {
+		this.lookup.spriteType = spriteType;
+		this.lookup.rgb = color.getRGB();
+		BufferedImage image = this.images.get(this.lookup);
+		if (image == null) {
+			image = rasterize(this.spriteMap.get(spriteType), color);
+			this.images.put(new Key(spriteType, color.getRGB()), image);
+		}
+		return image;
+	}
+
+	/**
+	 * Getter for the number of images kept.
+	 *
+	 * @return Images in the cache.
+	 */
+	public int size() {
+		return this.images.size();
+	}
+
+	/**
+	 * Draws the lit pixels of a sprite into a new image.
+	 *
+	 * @param pixels
+	 *            Sprite pixels.
+	 * @param color
+	 *            Color of the lit pixels.
+	 * @return Image of the sprite.
+	 */
+	private static BufferedImage rasterize(final SpriteMask pixels,
+			final Color color) {
+		int width = pixels.getWidth();
+		int height = pixels.getHeight();
+		BufferedImage image = new BufferedImage(
+				Math.max(1, width * PIXEL_SIZE),
+				Math.max(1, height * PIXEL_SIZE), BufferedImage.TYPE_INT_ARGB);
+		Graphics graphics = image.getGraphics();
+		graphics.setColor(color);
+		for (int i = 0; i < width; i++)
+			for (int j = 0; j < height; j++)
+				if (pixels.isLit(i, j))
+					graphics.fillRect(i * PIXEL_SIZE, j * PIXEL_SIZE,
+							PIXEL_SIZE, PIXEL_SIZE);
+		graphics.dispose();
+		return image;
+	}
+}
@@ -0,0 +1,197 @@
+package engine;
+
+/**
+ * Lit pixels of a sprite, one long per row with bit x set when the pixel
+ * in column x is lit. Sprites are at most 64 pixels wide, so a row is a
+ * single word and two sprites are tested for overlap a whole row at a time
+ * by shifting one row and and-ing it with the other.
+ *
+ */
+public final class SpriteMask {
+
+	/** Widest sprite a mask can hold, the bits of a long. */
+	public static final int MAX_WIDTH = Long.SIZE;
+
+	/** Width of the sprite, in sprite pixels. */
+	private final int width;
+	/** Height of the sprite, in sprite pixels. */
+	private final int height;
+	/** Lit pixels of each row. */
+	private final long[] rows;
+
+	/**
+	 * Constructor, makes a mask with no lit pixels.
+	 *
+	 * @param width
+	 *            Width of the sprite, at most {@link #MAX_WIDTH}.
+	 * @param height
+	 *            Height of the sprite.
+	 */
+	public SpriteMask(final int width, final int height) {
+		if (width < 0 || width > MAX_WIDTH || height < 0)
+			throw new IllegalArgumentException("Sprite of " + width + "x"
+					+ height + " does not fit a mask.");
+		this.width = width;
+		this.height = height;
+		this.rows = new long[height];
+	}
+
+	/**
+	 * Getter for the width of the sprite.
+	 *
+	 * @return Width, in sprite pixels.
+	 */
+	public int getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * Getter for the height of the sprite.
+	 *
+	 * @return Height, in sprite pixels.
+	 */
+	public int getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * Getter for the lit pixels of a row.
+	 *
+	 * @param y
+	 *            Row, from the top.
+	 * @return Bit x set when the pixel in column x is lit.
+	 */
+	public long getRow(final int y) {
+		return this.rows[y];
+	}
+
+	/**
+	 * Checks if a pixel is lit.
+	 *
+	 * @param x
+	 *            Column, from the left.
+	 * @param y
+	 *            Row, from the top.
+	 * @return True if the pixel is lit.
+	 */
+	public boolean isLit(final int x, final int y) {
+		return (this.rows[y] >>> x & 1L) != 0;
+	}
+
+	/**
+	 * Lights or clears a pixel.
+	 *
+	 * @param x
+	 *            Column, from the left.
+	 * @param y
+	 *            Row, from the top.
+	 * @param lit
+	 *            True to light the pixel.
+	 */
+	public void setLit(final int x, final int y, final boolean lit) {
+		if (lit)
+			this.rows[y] |= 1L << x;
+		else
+			this.rows[y] &= ~(1L << x);
+	}
+
+	/**
+	 * Checks if two boxes overlap.
+	 *
+	 * @param ax
+	 *            Left of the first box.
+	 * @param ay
+	 *            Top of the first box.
+	 * @param aWidth
+	 *            Width of the first box.
+	 * @param aHeight
+	 *            Height of the first box.
+	 * @param bx
+	 *            Left of the second box.
+	 * @param by
+	 *            Top of the second box.
+	 * @param bWidth
+	 *            Width of the second box.
+	 * @param bHeight
+	 *            Height of the second box.
+	 * @return True if the boxes share at least a pixel.
+	 */
+	public static boolean boxesOverlap(final int ax, final int ay,
+			final int aWidth, final int aHeight, final int bx, final int by,
+			final int bWidth, final int bHeight) {
+		return ax < bx + bWidth && bx < ax + aWidth && ay < by + bHeight
+				&& by < ay + aHeight;
+	}
+
+	/**
+	 * Checks if two sprites drawn at the same scale share a lit pixel on
+	 * screen. A sprite pixel covers a square of scale by scale screen
+	 * pixels, so a pixel of the first sprite meets one or two columns and
+	 * rows of the second, depending on how the sprites line up.
+	 *
+	 * @param a
+	 *            First sprite.
+	 * @param ax
+	 *            Screen position of the first sprite in the x-axis.
+	 * @param ay
+	 *            Screen position of the first sprite in the y-axis.
+	 * @param b
+	 *            Second sprite.
+	 * @param bx
+	 *            Screen position of the second sprite in the x-axis.
+	 * @param by
+	 *            Screen position of the second sprite in the y-axis.
+	 * @param scale
+	 *            Screen pixels per sprite pixel, in both axes.
+	 * @return True if a lit pixel of each sprite covers the same screen
+	 *         pixel.
+	 */
+	public static boolean overlaps(final SpriteMask a, final int ax,
+			final int ay, final SpriteMask b, final int bx, final int by,
+			final int scale) {
+		// Pixel i of the first sprite meets pixels i + shift and, when the
+		// sprites are not aligned on the sprite grid, i + shift + 1.
+		int shiftX = Math.floorDiv(ax - bx, scale);
+		boolean straddlesX = Math.floorMod(ax - bx, scale) != 0;
+		int shiftY = Math.floorDiv(ay - by, scale);
+		boolean straddlesY = Math.floorMod(ay - by, scale) != 0;
+
+		int first = Math.max(0, -shiftY - (straddlesY ? 1 : 0));
+		int last = Math.min(a.height - 1, b.height - 1 - shiftY);
+		for (int i = first; i <= last; i++) {
+			long row = a.rows[i];
+			if (row == 0)
+				continue;
+			int j = i + shiftY;
+			long other = 0;
+			if (j >= 0)
+				other |= b.rows[j];
+			if (straddlesY && j + 1 < b.height)
+				other |= b.rows[j + 1];
+			if (other == 0)
+				continue;
+			long aligned = shift(other, shiftX);
+			if (straddlesX)
+				aligned |= shift(other, shiftX + 1);
+			if ((row & aligned) != 0)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Moves the bits of a row so bit x + distance lands on bit x.
+	 *
+	 * @param row
+	 *            Row to move.
+	 * @param distance
+	 *            Columns to move the row towards column 0, negative to move
+	 *            it away.
+	 * @return Moved row, empty when it moves out entirely.
+	 */
+	private static long shift(final long row, final int distance) {
+		if (distance >= MAX_WIDTH || distance <= -MAX_WIDTH)
+			return 0;
+		return distance >= 0 ? row >>> distance : row << -distance;
+	}
+}
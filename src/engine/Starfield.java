@@ -0,0 +1,406 @@
+package engine;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.util.SplittableRandom;
+
+import engine.DrawManager.SpriteType;
+
+/**
+ * Animated background of the title screen: falling stars that twinkle,
+ * shooting stars and enemies drifting down, all turning around the center
+ * of the screen. Everything is kept in primitive arrays sized up front, so
+ * a frame costs the same whatever happens in it and never allocates. Stars
+ * are written straight into the pixels of a TYPE_INT_RGB or an indexed
+ * image, their color looked up in a table of twinkle phases.
+ *
+ */
+public final class Starfield {
+
+	/** Side of the square drawn for each star. */
+	private static final int STAR_SIZE = 2;
+	/** Entries of the twinkle palette, a power of two. */
+	private static final int TWINKLE_STEPS = 1024;
+	/** Milliseconds a radian of twinkle lasts. */
+	private static final double TWINKLE_MILLIS_PER_RADIAN = 500.0;
+	/** Gray of a star at each twinkle phase. */
+	private static final int[] TWINKLE_PALETTE = new int[TWINKLE_STEPS];
+	/** Most shooting stars at once. */
+	private static final int MAX_SHOOTING_STARS = 16;
+	/** Most background enemies at once. */
+	private static final int MAX_ENEMIES = 32;
+	/** Distance outside the screen a shooting star lives on. */
+	private static final int SHOOTING_STAR_MARGIN = 20;
+
+	static {
+		for (int i = 0; i < TWINKLE_STEPS; i++) {
+			double phase = 2 * Math.PI * i / TWINKLE_STEPS;
+			float brightness = 0.5f + (float) (Math.sin(phase) + 1.0) / 4.0f;
+			int gray = (int) (brightness * 255 + 0.5f);
+			TWINKLE_PALETTE[i] = gray << 16 | gray << 8 | gray;
+		}
+	}
+
+	/** Width of the field. */
+	private final int width;
+	/** Height of the field. */
+	private final int height;
+	/** Random number generator for respawned stars. */
+	private final SplittableRandom random;
+
+	/** Number of stars. */
+	private final int starCount;
+	/** Number of stars drawn, the first ones of the arrays. */
+	private int visibleStars;
+	/** Position of each star in the x-axis, before turning. */
+	private final float[] starX;
+	/** Position of each star in the y-axis, before turning. */
+	private final float[] starY;
+	/** Falling speed of each star. */
+	private final float[] starSpeed;
+	/** Twinkle phase of each star, in palette steps. */
+	private final int[] starPhase;
+
+	/** Number of shooting stars. */
+	private int shootingStarCount;
+	/** Position of each shooting star in the x-axis. */
+	private final float[] shootingStarX;
+	/** Position of each shooting star in the y-axis. */
+	private final float[] shootingStarY;
+	/** Speed of each shooting star in the x-axis. */
+	private final float[] shootingStarSpeedX;
+	/** Speed of each shooting star in the y-axis. */
+	private final float[] shootingStarSpeedY;
+
+	/** Number of background enemies. */
+	private int enemyCount;
+	/** Position of each enemy in the x-axis, before turning. */
+	private final int[] enemyX;
+	/** Position of each enemy in the y-axis, before turning. */
+	private final int[] enemyY;
+	/** Falling speed of each enemy. */
+	private final int[] enemySpeed;
+	/** Sprite of each enemy. */
+	private final SpriteType[] enemyType;
+
+	/** Palette the indexed twinkle table was made for. */
+	private Palette twinklePalette;
+	/** Palette slot of a star at each twinkle phase. */
+	private byte[] twinkleIndexes;
+
+	/** Twinkle phase of the whole field, in palette steps. */
+	private int twinklePhase;
+	/** Cosine of the rotation angle. */
+	private float cos;
+	/** Sine of the rotation angle. */
+	private float sin;
+
+	/**
+	 * Constructor, scatters the stars over the field.
+	 *
+	 * @param width
+	 *            Width of the field.
+	 * @param height
+	 *            Height of the field.
+	 * @param starCount
+	 *            Number of stars.
+	 * @param random
+	 *            Random number generator for the stars.
+	 */
+	public Starfield(final int width, final int height, final int starCount,
+			final SplittableRandom random) {
+		this.width = width;
+		this.height = height;
+		this.random = random;
+
+		this.starCount = starCount;
+		this.visibleStars = starCount;
+		this.starX = new float[starCount];
+		this.starY = new float[starCount];
+		this.starSpeed = new float[starCount];
+		this.starPhase = new int[starCount];
+		for (int i = 0; i < starCount; i++) {
+			this.starSpeed[i] = (float) (random.nextDouble() * 2.5 + 0.5);
+			this.starX[i] = (float) (random.nextDouble() * width);
+			this.starY[i] = (float) (random.nextDouble() * height);
+			this.starPhase[i] = (int) (random.nextDouble() * TWINKLE_STEPS);
+		}
+
+		this.shootingStarX = new float[MAX_SHOOTING_STARS];
+		this.shootingStarY = new float[MAX_SHOOTING_STARS];
+		this.shootingStarSpeedX = new float[MAX_SHOOTING_STARS];
+		this.shootingStarSpeedY = new float[MAX_SHOOTING_STARS];
+
+		this.enemyX = new int[MAX_ENEMIES];
+		this.enemyY = new int[MAX_ENEMIES];
+		this.enemySpeed = new int[MAX_ENEMIES];
+		this.enemyType = new SpriteType[MAX_ENEMIES];
+
+		this.cos = 1;
+		this.sin = 0;
+	}
+
+	/**
+	 * Adds a shooting star, unless there are already as many as fit.
+	 *
+	 * @param x
+	 *            Position in the x-axis.
+	 * @param y
+	 *            Position in the y-axis.
+	 * @param speedX
+	 *            Speed in the x-axis.
+	 * @param speedY
+	 *            Speed in the y-axis.
+	 */
+	public void addShootingStar(final float x, final float y,
+			final float speedX, final float speedY) {
+		if (this.shootingStarCount == MAX_SHOOTING_STARS)
+			return;
+		int i = this.shootingStarCount++;
+		this.shootingStarX[i] = x;
+		this.shootingStarY[i] = y;
+		this.shootingStarSpeedX[i] = speedX;
+		this.shootingStarSpeedY[i] = speedY;
+	}
+
+	/**
+	 * Adds a background enemy, unless there are already as many as fit.
+	 *
+	 * @param x
+	 *            Position in the x-axis.
+	 * @param y
+	 *            Position in the y-axis.
+	 * @param speed
+	 *            Falling speed.
+	 * @param spriteType
+	 *            Sprite of the enemy.
+	 */
+	public void addEnemy(final int x, final int y, final int speed,
+			final SpriteType spriteType) {
+		if (this.enemyCount == MAX_ENEMIES)
+			return;
+		int i = this.enemyCount++;
+		this.enemyX[i] = x;
+		this.enemyY[i] = y;
+		this.enemySpeed[i] = speed;
+		this.enemyType[i] = spriteType;
+	}
+
+	/**
+	 * Moves everything in the field one tick forward.
+	 *
+	 * @param millis
+	 *            Current time, drives the twinkling.
+	 */
+	public void update(final long millis) {
+		for (int i = 0; i < this.starCount; i++) {
+			this.starY[i] += this.starSpeed[i];
+			if (this.starY[i] > this.height) {
+				this.starY[i] = 0;
+				this.starX[i] = (float) (this.random.nextDouble() * this.width);
+			}
+		}
+		this.twinklePhase = (int) (millis / TWINKLE_MILLIS_PER_RADIAN
+				* TWINKLE_STEPS / (2 * Math.PI));
+
+		int i = 0;
+		while (i < this.enemyCount) {
+			this.enemyY[i] += this.enemySpeed[i];
+			if (this.enemyY[i] > this.height)
+				removeEnemy(i);
+			else
+				i++;
+		}
+
+		i = 0;
+		while (i < this.shootingStarCount) {
+			this.shootingStarX[i] += this.shootingStarSpeedX[i];
+			this.shootingStarY[i] += this.shootingStarSpeedY[i];
+			if (this.shootingStarX[i] < -SHOOTING_STAR_MARGIN
+					|| this.shootingStarX[i] > this.width + SHOOTING_STAR_MARGIN
+					|| this.shootingStarY[i] < -SHOOTING_STAR_MARGIN
+					|| this.shootingStarY[i] > this.height
+							+ SHOOTING_STAR_MARGIN)
+				removeShootingStar(i);
+			else
+				i++;
+		}
+	}
+
+	/**
+	 * Removes an enemy, moving the last one into its place.
+	 *
+	 * @param i
+	 *            Index of the enemy.
+	 */
+	private void removeEnemy(final int i) {
+		int last = --this.enemyCount;
+		this.enemyX[i] = this.enemyX[last];
+		this.enemyY[i] = this.enemyY[last];
+		this.enemySpeed[i] = this.enemySpeed[last];
+		this.enemyType[i] = this.enemyType[last];
+		this.enemyType[last] = null;
+	}
+
+	/**
+	 * Removes a shooting star, moving the last one into its place.
+	 *
+	 * @param i
+	 *            Index of the shooting star.
+	 */
+	private void removeShootingStar(final int i) {
+		int last = --this.shootingStarCount;
+		this.shootingStarX[i] = this.shootingStarX[last];
+		this.shootingStarY[i] = this.shootingStarY[last];
+		this.shootingStarSpeedX[i] = this.shootingStarSpeedX[last];
+		this.shootingStarSpeedY[i] = this.shootingStarSpeedY[last];
+	}
+
+	/**
+	 * Sets how many of the stars are drawn. Every star keeps moving, so the
+	 * field looks the same when more are drawn again.
+	 *
+	 * @param count
+	 *            Stars drawn, clamped to the number of stars.
+	 */
+	public void setVisibleStars(final int count) {
+		this.visibleStars = Math.max(0, Math.min(this.starCount, count));
+	}
+
+	/**
+	 * Sets how far the field is turned around its center.
+	 *
+	 * @param angle
+	 *            Rotation angle, in degrees.
+	 */
+	public void setAngle(final float angle) {
+		double radians = Math.toRadians(angle);
+		this.cos = (float) Math.cos(radians);
+		this.sin = (float) Math.sin(radians);
+	}
+
+	/**
+	 * Writes the stars into the pixels of an image.
+	 *
+	 * @param image
+	 *            TYPE_INT_RGB or TYPE_BYTE_INDEXED image to draw on.
+	 * @param palette
+	 *            Palette of the image if it is indexed.
+	 */
+	public void drawStars(final BufferedImage image, final Palette palette) {
+		DataBuffer buffer = image.getRaster().getDataBuffer();
+		int[] pixels = null;
+		byte[] indexedPixels = null;
+		if (buffer instanceof DataBufferByte) {
+			indexedPixels = ((DataBufferByte) buffer).getData();
+			if (this.twinklePalette != palette) {
+				this.twinkleIndexes = new byte[TWINKLE_STEPS];
+				for (int i = 0; i < TWINKLE_STEPS; i++)
+					this.twinkleIndexes[i] = palette
+							.getIndex(TWINKLE_PALETTE[i]);
+				this.twinklePalette = palette;
+			}
+		} else {
+			pixels = ((DataBufferInt) buffer).getData();
+		}
+		int targetWidth = image.getWidth();
+		int targetHeight = image.getHeight();
+		float centerX = this.width / 2;
+		float centerY = this.height / 2;
+		float cos = this.cos;
+		float sin = this.sin;
+
+		for (int i = 0; i < this.visibleStars; i++) {
+			float relX = this.starX[i] - centerX;
+			float relY = this.starY[i] - centerY;
+			int x = (int) (relX * cos - relY * sin + centerX);
+			int y = (int) (relX * sin + relY * cos + centerY);
+			if (x < 0 || y < 0 || x > targetWidth - STAR_SIZE
+					|| y > targetHeight - STAR_SIZE)
+				continue;
+
+			int phase = (this.starPhase[i] + this.twinklePhase)
+					& (TWINKLE_STEPS - 1);
+			int offset = y * targetWidth + x;
+			if (pixels != null) {
+				int rgb = TWINKLE_PALETTE[phase];
+				pixels[offset] = rgb;
+				pixels[offset + 1] = rgb;
+				pixels[offset + targetWidth] = rgb;
+				pixels[offset + targetWidth + 1] = rgb;
+			} else {
+				byte index = this.twinkleIndexes[phase];
+				indexedPixels[offset] = index;
+				indexedPixels[offset + 1] = index;
+				indexedPixels[offset + targetWidth] = index;
+				indexedPixels[offset + targetWidth + 1] = index;
+			}
+		}
+	}
+
+	/**
+	 * Getter for the number of background enemies.
+	 *
+	 * @return Number of enemies.
+	 */
+	public int getEnemyCount() {
+		return this.enemyCount;
+	}
+
+	/**
+	 * Getter for the sprite of a background enemy.
+	 *
+	 * @param i
+	 *            Index of the enemy.
+	 * @return Sprite of the enemy.
+	 */
+	public SpriteType getEnemyType(final int i) {
+		return this.enemyType[i];
+	}
+
+	/**
+	 * Getter for where a background enemy is drawn in the x-axis.
+	 *
+	 * @param i
+	 *            Index of the enemy.
+	 * @return Position after turning the field.
+	 */
+	public int getEnemyScreenX(final int i) {
+		float relX = this.enemyX[i] - this.width / 2;
+		float relY = this.enemyY[i] - this.height / 2;
+		return (int) (relX * this.cos - relY * this.sin + this.width / 2);
+	}
+
+	/**
+	 * Getter for where a background enemy is drawn in the y-axis.
+	 *
+	 * @param i
+	 *            Index of the enemy.
+	 * @return Position after turning the field.
+	 */
+	public int getEnemyScreenY(final int i) {
+		float relX = this.enemyX[i] - this.width / 2;
+		float relY = this.enemyY[i] - this.height / 2;
+		return (int) (relX * this.sin + relY * this.cos + this.height / 2);
+	}
+
+	/**
+	 * Getter for the number of stars.
+	 *
+	 * @return Number of stars.
+	 */
+	public int getStarCount() {
+		return this.starCount;
+	}
+
+	/**
+	 * Getter for the number of shooting stars.
+	 *
+	 * @return Number of shooting stars.
+	 */
+	public int getShootingStarCount() {
+		return this.shootingStarCount;
+	}
+}
@@ -0,0 +1,273 @@
+package entity;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+import engine.DrawManager.SpriteType;
+import engine.FrameSnapshot;
+import engine.RenderLayer;
+
+/**
+ * Bullets of the ships and the formation, moving vertically up or down.
+ * Each field of a bullet lives in its own primitive array, so moving and
+ * checking every bullet are plain passes over a few arrays. A removed
+ * bullet is replaced with the last one, and the arrays only grow, so once
+ * they fit the busiest moment nothing is allocated.
+ *
+ */
+public final class BulletStore {
+
+	/** Width of a bullet. */
+	public static final int WIDTH = 3 * 2;
+	/** Height of a bullet. */
+	public static final int HEIGHT = 5 * 2;
+	/** Owner of bullets shot by the enemies. */
+	public static final int NO_OWNER = 0;
+	/** Bullets a new store has room for. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** Number of live bullets. */
+	private int count;
+	/** Position of each bullet in the x-axis. */
+	private int[] x;
+	/** Position of each bullet in the y-axis. */
+	private int[] y;
+	/** Position of each bullet in the x-axis at the start of the tick. */
+	private int[] previousX;
+	/** Position of each bullet in the y-axis at the start of the tick. */
+	private int[] previousY;
+	/** Speed of each bullet, positive is down. */
+	private int[] speed;
+	/** Player who shot each bullet, or {@link #NO_OWNER}. */
+	private int[] owner;
+	/** Hits each bullet has gone through. */
+	private int[] penetrations;
+	/** Hits each bullet can go through. */
+	private int[] maxPenetrations;
+
+	/**
+	 * Constructor, starts with no bullets.
+	 */
+	public BulletStore() {
+		this.x = new int[INITIAL_CAPACITY];
+		this.y = new int[INITIAL_CAPACITY];
+		this.previousX = new int[INITIAL_CAPACITY];
+		this.previousY = new int[INITIAL_CAPACITY];
+		this.speed = new int[INITIAL_CAPACITY];
+		this.owner = new int[INITIAL_CAPACITY];
+		this.penetrations = new int[INITIAL_CAPACITY];
+		this.maxPenetrations = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Shoots a bullet, with no owner.
+	 *
+	 * @param centerX
+	 *            Position of the center of the bullet in the x-axis.
+	 * @param positionY
+	 *            Position of the bullet in the y-axis.
+	 * @param bulletSpeed
+	 *            Speed of the bullet, positive or negative depending on
+	 *            direction - positive is down.
+	 * @return Index of the new bullet.
+	 */
+	public int add(final int centerX, final int positionY,
+			final int bulletSpeed) {
+		if (this.count == this.x.length)
+			grow();
+		int i = this.count++;
+		this.x[i] = centerX - WIDTH / 2;
+		this.y[i] = positionY;
+		this.previousX[i] = this.x[i];
+		this.previousY[i] = positionY;
+		this.speed[i] = bulletSpeed;
+		this.owner[i] = NO_OWNER;
+		this.penetrations[i] = 0;
+		this.maxPenetrations[i] = ShopItem.getPenetrationCount();
+		return i;
+	}
+
+	/**
+	 * Setter for the player who shot a bullet.
+	 *
+	 * @param i
+	 *            Index of the bullet.
+	 * @param playerId
+	 *            Player number, 1 or 2.
+	 */
+	public void setOwner(final int i, final int playerId) {
+		this.owner[i] = playerId;
+	}
+
+	/**
+	 * Getter for the number of live bullets.
+	 *
+	 * @return Live bullets.
+	 */
+	public int size() {
+		return this.count;
+	}
+
+	/**
+	 * Getter for the position of a bullet in the x-axis.
+	 *
+	 * @param i
+	 *            Index of the bullet.
+	 * @return Position of the left side.
+	 */
+	public int getX(final int i) {
+		return this.x[i];
+	}
+
+	/**
+	 * Getter for the position of a bullet in the y-axis.
+	 *
+	 * @param i
+	 *            Index of the bullet.
+	 * @return Position of the top side.
+	 */
+	public int getY(final int i) {
+		return this.y[i];
+	}
+
+	/**
+	 * Getter for the position of a bullet in the x-axis at the start of
+	 * the tick.
+	 *
+	 * @param i
+	 *            Index of the bullet.
+	 * @return Position of the left side.
+	 */
+	public int getPreviousX(final int i) {
+		return this.previousX[i];
+	}
+
+	/**
+	 * Getter for the position of a bullet in the y-axis at the start of
+	 * the tick.
+	 *
+	 * @param i
+	 *            Index of the bullet.
+	 * @return Position of the top side.
+	 */
+	public int getPreviousY(final int i) {
+		return this.previousY[i];
+	}
+
+	/**
+	 * Getter for the speed of a bullet.
+	 *
+	 * @param i
+	 *            Index of the bullet.
+	 * @return Speed, positive is down.
+	 */
+	public int getSpeed(final int i) {
+		return this.speed[i];
+	}
+
+	/**
+	 * Getter for the player who shot a bullet.
+	 *
+	 * @param i
+	 *            Index of the bullet.
+	 * @return Player number, or {@link #NO_OWNER}.
+	 */
+	public int getOwner(final int i) {
+		return this.owner[i];
+	}
+
+	/**
+	 * Getter for the sprite of a bullet, based on its direction.
+	 *
+	 * @param i
+	 *            Index of the bullet.
+	 * @return Sprite of the bullet.
+	 */
+	public SpriteType getSpriteType(final int i) {
+		return this.speed[i] < 0 ? SpriteType.Bullet : SpriteType.EnemyBullet;
+	}
+
+	/**
+	 * Counts a hit going through a bullet.
+	 *
+	 * @param i
+	 *            Index of the bullet.
+	 * @return True if the bullet goes on, false if it is spent.
+	 */
+	public boolean penetrate(final int i) {
+		return ++this.penetrations[i] <= this.maxPenetrations[i];
+	}
+
+	/**
+	 * Remembers the position of every bullet as the start of the tick.
+	 */
+	public void storePreviousPositions() {
+		System.arraycopy(this.x, 0, this.previousX, 0, this.count);
+		System.arraycopy(this.y, 0, this.previousY, 0, this.count);
+	}
+
+	/**
+	 * Moves every bullet one tick.
+	 */
+	public void update() {
+		for (int i = 0; i < this.count; i++)
+			this.y[i] += this.speed[i];
+	}
+
+	/**
+	 * Removes a bullet, moving the last one into its place. Bullets after
+	 * it keep their index, so removing while going from the last bullet to
+	 * the first visits every bullet once.
+	 *
+	 * @param i
+	 *            Index of the bullet.
+	 */
+	public void remove(final int i) {
+		int last = --this.count;
+		this.x[i] = this.x[last];
+		this.y[i] = this.y[last];
+		this.previousX[i] = this.previousX[last];
+		this.previousY[i] = this.previousY[last];
+		this.speed[i] = this.speed[last];
+		this.owner[i] = this.owner[last];
+		this.penetrations[i] = this.penetrations[last];
+		this.maxPenetrations[i] = this.maxPenetrations[last];
+	}
+
+	/**
+	 * Removes every bullet.
+	 */
+	public void clear() {
+		this.count = 0;
+	}
+
+	/**
+	 * Adds every bullet to a snapshot.
+	 *
+	 * @param snapshot
+	 *            Snapshot being filled.
+	 * @param layer
+	 *            Layer the bullets are drawn in.
+	 */
+	public void capture(final FrameSnapshot snapshot, final RenderLayer layer) {
+		for (int i = 0; i < this.count; i++)
+			snapshot.addSprite(getSpriteType(i), Color.WHITE,
+					this.previousX[i], this.previousY[i], this.x[i], this.y[i],
+					WIDTH, HEIGHT, layer);
+	}
+
+	/**
+	 * Doubles the room for bullets.
+	 */
+	private void grow() {
+		int capacity = this.x.length * 2;
+		this.x = Arrays.copyOf(this.x, capacity);
+		this.y = Arrays.copyOf(this.y, capacity);
+		this.previousX = Arrays.copyOf(this.previousX, capacity);
+		this.previousY = Arrays.copyOf(this.previousY, capacity);
+		this.speed = Arrays.copyOf(this.speed, capacity);
+		this.owner = Arrays.copyOf(this.owner, capacity);
+		this.penetrations = Arrays.copyOf(this.penetrations, capacity);
+		this.maxPenetrations = Arrays.copyOf(this.maxPenetrations, capacity);
+	}
+}
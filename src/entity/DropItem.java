@@ -1,8 +1,9 @@
 package entity;
 import java.awt.Color;
 
+import engine.Core;
 import engine.DrawManager.SpriteType;
-import java.util.Random;
+import engine.GameRandom;
 
 public class DropItem extends Entity {
     public enum ItemType {
@@ -20,7 +21,6 @@ public class DropItem extends Entity {
         }
 
         private static final ItemType[] VALUES = values();
-        private static final Random RANDOM = new Random();
         private static final int TOTAL_WEIGHT;
 
         static {
@@ -38,7 +38,8 @@ public class DropItem extends Entity {
          */
 
         public static ItemType selectItemType() {
-            int randomWeight = RANDOM.nextInt(TOTAL_WEIGHT);
+            int randomWeight = Core.getRandom(GameRandom.Stream.ITEM_DROP)
+                    .nextInt(TOTAL_WEIGHT);
             int cumulativeWeight = 0;
 
             for (ItemType type : VALUES) {
@@ -115,11 +116,7 @@ public class DropItem extends Entity {
         }
 
         // All enemyship push
-        for (EnemyShip enemy : enemyShipFormation) {
-            if (enemy != null && !enemy.isDestroyed()) {
-                enemy.move(0, -distanceY);
-            }
-        }
+        enemyShipFormation.pushBack(distanceY);
     }
 
     /**
@@ -130,7 +127,7 @@ public class DropItem extends Entity {
      */
     public static void applyTimeFreezeItem(int durationMillis) {
         // current Time + duration Time = End Time
-        freezeEndTime = System.currentTimeMillis() + durationMillis;
+        freezeEndTime = Core.getClock().getMillis() + durationMillis;
     }
 
     /**
@@ -139,10 +136,11 @@ public class DropItem extends Entity {
      * @return If returning true, don't move all enemy ship except special enemy
      */
     public static boolean isTimeFreezeActive() {
-        if (freezeEndTime > 0 && System.currentTimeMillis() < freezeEndTime) {
+        final long now = Core.getClock().getMillis();
+        if (freezeEndTime > 0 && now < freezeEndTime) {
             return true;
         }
-        if (freezeEndTime > 0 && System.currentTimeMillis() >= freezeEndTime) {
+        if (freezeEndTime > 0 && now >= freezeEndTime) {
             freezeEndTime = 0;
         }
         return false;
@@ -181,7 +179,7 @@ public class DropItem extends Entity {
         this.setSprite();
     }
     public static ItemType getRandomItemType(final double proba) {
-        if (Math.random() < proba){
+        if (Core.getRandom(GameRandom.Stream.ITEM_DROP).nextDouble() < proba){
             return ItemType.selectItemType();
         }
         else {
@@ -1,6 +1,7 @@
 package entity;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -13,9 +14,11 @@ import screen.Screen;
 import screen.GameScreen;
 import engine.Cooldown;
 import engine.Core;
-import engine.DrawManager;
+import engine.FrameSnapshot;
 import engine.DrawManager.SpriteType;
+import engine.GameRandom;
 import engine.GameSettings;
+import engine.RenderLayer;
 import engine.level.Level;
 /**
  * Groups enemy ships into a formation that moves together.
@@ -50,8 +53,6 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	/** Minimum speed allowed. */
 	private static final int MINIMUM_SPEED = 10;
 
-	/** DrawManager instance. */
-	private DrawManager drawManager;
 	/** Application logger. */
 	private Logger logger;
 	/** Screen to draw ships on. */
@@ -61,6 +62,27 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 
 	/** List of enemy ships forming the formation. */
 	private List<List<EnemyShip>> enemyShips;
+	/**
+	 * Ships by the column and row they started in, which never change as
+	 * the formation moves as one.
+	 */
+	private EnemyShip[][] cells;
+	/** Position in the x-axis of the ship in the first column and row. */
+	private int originX;
+	/** Position in the y-axis of the ship in the first column and row. */
+	private int originY;
+	/** Position in the x-axis of the first cell at the start of the tick. */
+	private int previousOriginX;
+	/** Position in the y-axis of the first cell at the start of the tick. */
+	private int previousOriginY;
+	/** Ships found by the last lookup, in the order of the columns. */
+	private EnemyShip[] found;
+	/** Number of ships found by the last lookup. */
+	private int foundCount;
+	/** Ships returned by lookups since the counters were reset. */
+	private int lookupCandidates;
+	/** Ships a full scan would have checked since the counters were reset. */
+	private int lookupScanned;
 	/** Minimum time between shots. */
 	private Cooldown shootingCooldown;
 	/** Number of ships in the formation - horizontally. */
@@ -127,7 +149,6 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	 *            Current game settings.
 	 */
 	public EnemyShipFormation(final GameSettings gameSettings) {
-		this.drawManager = Core.getDrawManager();
 		this.logger = Core.getLogger();
 		this.enemyShips = new ArrayList<List<EnemyShip>>();
 		this.currentDirection = Direction.DOWN_RIGHT;
@@ -142,6 +163,11 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 		this.positionX = INIT_POS_X;
 		this.positionY = INIT_POS_Y;
 		this.shooters = new ArrayList<EnemyShip>();
+		this.cells = new EnemyShip[this.nShipsWide][this.nShipsHigh];
+		this.originX = this.positionX;
+		this.originY = this.positionY;
+		this.previousOriginX = this.originX;
+		this.previousOriginY = this.originY;
 		SpriteType spriteType;
 
 		this.logger.info("Initializing " + nShipsWide + "x" + nShipsHigh
@@ -161,10 +187,12 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 				else
 					spriteType = SpriteType.EnemyShipA1;
 
-				column.add(new EnemyShip((SEPARATION_DISTANCE 
-						* this.enemyShips.indexOf(column))
-								+ positionX, (SEPARATION_DISTANCE * i)
-								+ positionY, spriteType));
+				int columnIndex = this.enemyShips.indexOf(column);
+				EnemyShip enemyShip = new EnemyShip((SEPARATION_DISTANCE
+						* columnIndex) + positionX, (SEPARATION_DISTANCE * i)
+								+ positionY, spriteType);
+				column.add(enemyShip);
+				this.cells[columnIndex][i] = enemyShip;
 				this.shipCount++;
 			}
 		}
@@ -176,6 +204,7 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 				+ this.shipWidth;
 		this.height = (this.nShipsHigh - 1) * SEPARATION_DISTANCE
 				+ this.shipHeight;
+		this.found = new EnemyShip[this.nShipsWide * this.nShipsHigh];
 
 		for (List<EnemyShip> column : this.enemyShips)
 			this.shooters.add(column.get(column.size() - 1));
@@ -186,7 +215,6 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
      * @param level Current level data.
      */
     public EnemyShipFormation(final Level level) {
-        this.drawManager = Core.getDrawManager();
         this.logger = Core.getLogger();
         this.enemyShips = new ArrayList<List<EnemyShip>>();
         this.currentDirection = Direction.DOWN_RIGHT;
@@ -203,6 +231,11 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
         this.positionY = INIT_POS_Y;
         this.shooters = new ArrayList<EnemyShip>();
         this.levelObj = level;
+        this.cells = new EnemyShip[this.nShipsWide][this.nShipsHigh];
+        this.originX = this.positionX;
+        this.originY = this.positionY;
+        this.previousOriginX = this.originX;
+        this.previousOriginY = this.originY;
         SpriteType spriteType;
 
         this.logger.info("Initializing " + nShipsWide + "x" + nShipsHigh
@@ -232,10 +265,13 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
                         chosen = SpriteType.EnemyShipA1;
                 }
 
-                column.add(new EnemyShip(
-                        (SEPARATION_DISTANCE * this.enemyShips.indexOf(column)) + positionX,
+                int columnIndex = this.enemyShips.indexOf(column);
+                EnemyShip enemyShip = new EnemyShip(
+                        (SEPARATION_DISTANCE * columnIndex) + positionX,
                         (SEPARATION_DISTANCE * i) + positionY,
-                        chosen));
+                        chosen);
+                column.add(enemyShip);
+                this.cells[columnIndex][i] = enemyShip;
                 this.shipCount++;
             }
         }
@@ -245,6 +281,7 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 
         this.width = (this.nShipsWide - 1) * SEPARATION_DISTANCE + this.shipWidth;
         this.height = (this.nShipsHigh - 1) * SEPARATION_DISTANCE + this.shipHeight;
+        this.found = new EnemyShip[this.nShipsWide * this.nShipsHigh];
 
         for (List<EnemyShip> column : this.enemyShips)
             this.shooters.add(column.get(column.size() - 1));
@@ -261,13 +298,149 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	}
 
 	/**
-	 * Draws every individual component of the formation.
+	 * Adds every individual component of the formation to a frame snapshot,
+	 * leaving out ships whose explosion is over.
+	 *
+	 * @param snapshot
+	 *            Snapshot being published.
+	 */
+	public final void capture(final FrameSnapshot snapshot) {
+		for (List<EnemyShip> column : this.enemyShips)
+			for (EnemyShip enemyShip : column)
+				if (!enemyShip.isExplosionFinished())
+					snapshot.addEntity(enemyShip, RenderLayer.ENEMIES);
+	}
+
+	/**
+	 * Finds the ships not yet destroyed that may touch an entity at any
+	 * point of the tick. Ships keep the cell they started in, so only the
+	 * cells the entity crossed, as seen from the moving formation, are
+	 * looked at, whatever the size of the formation. They are read with
+	 * {@link #getFoundShip(int)} until the next lookup, in the same order
+	 * as iterating the columns.
+	 *
+	 * @param entity
+	 *            Entity to find ships near.
+	 * @return Number of ships found.
+	 */
+	public final int findShips(final Entity entity) {
+		return findShips(entity.getPreviousPositionX(),
+				entity.getPreviousPositionY(), entity.getPositionX(),
+				entity.getPositionY(), entity.getWidth(), entity.getHeight());
+	}
+
+	/**
+	 * Finds the ships not yet destroyed that may touch a box moving over
+	 * the tick.
+	 *
+	 * @param fromX
+	 *            Position of the box in the x-axis at the start of the tick.
+	 * @param fromY
+	 *            Position of the box in the y-axis at the start of the tick.
+	 * @param toX
+	 *            Position of the box in the x-axis now.
+	 * @param toY
+	 *            Position of the box in the y-axis now.
+	 * @param boxWidth
+	 *            Width of the box.
+	 * @param boxHeight
+	 *            Height of the box.
+	 * @return Number of ships found.
+	 */
+	public final int findShips(final int fromX, final int fromY,
+			final int toX, final int toY, final int boxWidth,
+			final int boxHeight) {
+		this.foundCount = 0;
+		// Where the box started, seen from where the formation is now.
+		int startX = fromX - this.previousOriginX;
+		int startY = fromY - this.previousOriginY;
+		int endX = toX - this.originX;
+		int endY = toY - this.originY;
+		int left = Math.min(startX, endX);
+		int top = Math.min(startY, endY);
+		// A ship reaches into the cells to its right and below by its size,
+		// so the ranges start that far before the entity.
+		int firstColumn = Math.max(0, Math.floorDiv(left - this.shipWidth,
+				SEPARATION_DISTANCE));
+		int lastColumn = Math.min(this.cells.length - 1, Math.floorDiv(
+				Math.max(startX, endX) + boxWidth, SEPARATION_DISTANCE));
+		int firstRow = Math.max(0, Math.floorDiv(top - this.shipHeight,
+				SEPARATION_DISTANCE));
+		int lastRow = Math.min(this.nShipsHigh - 1, Math.floorDiv(
+				Math.max(startY, endY) + boxHeight, SEPARATION_DISTANCE));
+		for (int column = firstColumn; column <= lastColumn; column++)
+			for (int row = firstRow; row <= lastRow; row++) {
+				EnemyShip enemyShip = this.cells[column][row];
+				if (enemyShip != null && !enemyShip.isDestroyed())
+					this.found[this.foundCount++] = enemyShip;
+			}
+		this.lookupCandidates += this.foundCount;
+		this.lookupScanned += this.shipCount;
+		return this.foundCount;
+	}
+
+	/**
+	 * Getter for a ship found by the last lookup.
+	 *
+	 * @param index
+	 *            Ship index, below the count the lookup returned.
+	 * @return Ship near the entity looked up.
+	 */
+	public final EnemyShip getFoundShip(final int index) {
+		return this.found[index];
+	}
+
+	/**
+	 * Getter for the ships returned by lookups since the counters were
+	 * reset, the pairs left for the exact check.
+	 *
+	 * @return Candidate pairs.
+	 */
+	public final int getCandidatePairs() {
+		return this.lookupCandidates;
+	}
+
+	/**
+	 * Getter for the pairs a full scan would have checked on top of the
+	 * candidates since the counters were reset.
+	 *
+	 * @return Pairs pruned by the lookups.
+	 */
+	public final int getPrunedPairs() {
+		return this.lookupScanned - this.lookupCandidates;
+	}
+
+	/**
+	 * Sets the lookup counters back to zero.
 	 */
-	public final void draw() {
+	public final void resetCounters() {
+		this.lookupCandidates = 0;
+		this.lookupScanned = 0;
+	}
+
+	/**
+	 * Moves every ship not yet destroyed up.
+	 *
+	 * @param distanceY
+	 *            Distance to move the ships up.
+	 */
+	public final void pushBack(final int distanceY) {
 		for (List<EnemyShip> column : this.enemyShips)
 			for (EnemyShip enemyShip : column)
-				drawManager.drawEntity(enemyShip, enemyShip.getPositionX(),
-						enemyShip.getPositionY());
+				if (!enemyShip.isDestroyed())
+					enemyShip.move(0, -distanceY);
+		this.originY -= distanceY;
+	}
+
+	/**
+	 * Stores the position of every ship at the start of the tick.
+	 */
+	public final void storePreviousPositions() {
+		for (List<EnemyShip> column : this.enemyShips)
+			for (EnemyShip enemyShip : column)
+				enemyShip.storePreviousPosition();
+		this.previousOriginX = this.originX;
+		this.previousOriginY = this.originY;
 	}
 
 	/**
@@ -367,6 +540,8 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 
 			positionX += movementX;
 			positionY += movementY;
+			this.originX += movementX;
+			this.originY += movementY;
 
 			// Cleans explosions.
 			List<EnemyShip> destroyed;
@@ -439,18 +614,19 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	 * Shoots a bullet downwards.
 	 *
 	 * @param bullets
-	 *            Bullets set to add the bullet being shot.
+	 *            Bullets to add the bullet being shot to.
 	 */
-	public final void shoot(final Set<Bullet> bullets) {
+	public final void shoot(final BulletStore bullets) {
 		// For now, only ships in the bottom row are able to shoot.
 		if (this.shooters.isEmpty()) {return; }
-		int index = (int) (Math.random() * this.shooters.size());
+		int index = Core.getRandom(GameRandom.Stream.ENEMY_FIRE)
+				.nextInt(this.shooters.size());
 		EnemyShip shooter = this.shooters.get(index);
 
 		if (this.shootingCooldown.checkFinished()) {
 			this.shootingCooldown.reset();
-			bullets.add(BulletPool.getBullet(shooter.getPositionX()
-					+ shooter.width / 2, shooter.getPositionY(), BULLET_SPEED));
+			bullets.add(shooter.getPositionX() + shooter.width / 2,
+					shooter.getPositionY(), BULLET_SPEED);
 		}
 	}
 
@@ -559,6 +735,15 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 		return this.shipCount <= 0;
 	}
 
+	/**
+	 * Getter for the number of ships remaining.
+	 *
+	 * @return Ships not yet destroyed.
+	 */
+	public final int getShipCount() {
+		return this.shipCount;
+	}
+
     /**
      * Activates slowdown effect on the formation.
      */
@@ -600,6 +785,8 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 			column.clear();
 		}
 		this.enemyShips.clear();
+		for (EnemyShip[] column : this.cells)
+			Arrays.fill(column, null);
 		this.shipCount = 0;
 	}
 
@@ -683,7 +870,14 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
         final int lv = level.getLevel();
         applyEnemyColor(getColorForLevel(lv));
     }
-    private Color getColorForLevel(final int levelNumber) {
+    /**
+     * Getter for the color of the formation on a level.
+     *
+     * @param levelNumber
+     *            Level number.
+     * @return Color of the enemies, white past the last colored level.
+     */
+    public static Color getColorForLevel(final int levelNumber) {
         switch (levelNumber) {
             case 1: return new Color(0x3DDC84); // green
             case 2: return new Color(0x00BCD4); // cyan
@@ -9,8 +9,10 @@ import screen.Screen;
 import engine.level.Level;
 import engine.Cooldown;
 import engine.Core;
-import engine.DrawManager;
+import engine.FrameSnapshot;
 import engine.GameSettings;
+import engine.RenderLayer;
+import engine.SpatialGrid;
 
 /**
  * Groups enemy ships into a formation that moves together.
@@ -34,10 +36,6 @@ public class EnemyShipSpecialFormation implements Iterable<EnemyShip> {
      */
     private static final int SIDE_MARGIN = 20;
 
-    /**
-     * DrawManager instance.
-     */
-    private DrawManager drawManager;
     /**
      * Application logger.
      */
@@ -85,7 +83,6 @@ public class EnemyShipSpecialFormation implements Iterable<EnemyShip> {
      */
     public EnemyShipSpecialFormation(final GameSettings gameSettings, Cooldown cooldown, Cooldown explosionCooldown) {
         /** Option **/
-        this.drawManager = Core.getDrawManager();
         this.logger = Core.getLogger();
 
         /** Move **/
@@ -139,19 +136,29 @@ public class EnemyShipSpecialFormation implements Iterable<EnemyShip> {
     }
 
     /**
-     * Draws every component of the formation.
+     * Adds every component of the formation to a frame snapshot.
+     *
+     * @param snapshot Snapshot being published.
      */
-    public final void draw() {
+    public final void capture(final FrameSnapshot snapshot) {
         if (this.enemyShipSpecialRed != null)
-            drawManager.drawEntity(this.enemyShipSpecialRed,
-                    this.enemyShipSpecialRed.getPositionX(),
-                    this.enemyShipSpecialRed.getPositionY());
+            snapshot.addEntity(this.enemyShipSpecialRed, RenderLayer.ENEMIES);
 
         if (this.enemyShipSpecialBlue != null)
-            drawManager.drawEntity(this.enemyShipSpecialBlue,
-                    this.enemyShipSpecialBlue.getPositionX(),
-                    this.enemyShipSpecialBlue.getPositionY());
+            snapshot.addEntity(this.enemyShipSpecialBlue, RenderLayer.ENEMIES);
+    }
 
+    /**
+     * Adds every ship not yet destroyed to a collision grid.
+     *
+     * @param grid Grid being filled.
+     * @param tag  Tag the ships are added with.
+     */
+    public final void addTo(final SpatialGrid grid, final int tag) {
+        if (this.enemyShipSpecialRed != null && !this.enemyShipSpecialRed.isDestroyed())
+            grid.add(this.enemyShipSpecialRed, tag);
+        if (this.enemyShipSpecialBlue != null && !this.enemyShipSpecialBlue.isDestroyed())
+            grid.add(this.enemyShipSpecialBlue, tag);
     }
 
     /**
@@ -16,6 +16,10 @@ public class Entity {
 	protected int positionX;
 	/** Position in the y-axis of the upper left corner of the entity. */
 	protected int positionY;
+	/** Position in the x-axis at the start of the current tick. */
+	protected int previousPositionX;
+	/** Position in the y-axis at the start of the current tick. */
+	protected int previousPositionY;
 	/** Width of the entity. */
 	protected int width;
 	/** Height of the entity. */
@@ -43,6 +47,8 @@ public class Entity {
 			final int height, final Color color) {
 		this.positionX = positionX;
 		this.positionY = positionY;
+		this.previousPositionX = positionX;
+		this.previousPositionY = positionY;
 		this.width = width;
 		this.height = height;
 		this.color = color;
@@ -105,6 +111,35 @@ public class Entity {
 		this.positionY = positionY;
 	}
 
+	/**
+	 * Remembers the current position as the start of the next tick, used to
+	 * interpolate between ticks when rendering.
+	 */
+	public final void storePreviousPosition() {
+		this.previousPositionX = this.positionX;
+		this.previousPositionY = this.positionY;
+	}
+
+	/**
+	 * Getter for the X axis position of the entity at the start of the
+	 * current tick.
+	 * 
+	 * @return Position of the entity in the X axis before the last update.
+	 */
+	public final int getPreviousPositionX() {
+		return this.previousPositionX;
+	}
+
+	/**
+	 * Getter for the Y axis position of the entity at the start of the
+	 * current tick.
+	 * 
+	 * @return Position of the entity in the Y axis before the last update.
+	 */
+	public final int getPreviousPositionY() {
+		return this.previousPositionY;
+	}
+
 	/**
 	 * Getter for the sprite that the entity will be drawn as.
 	 * 
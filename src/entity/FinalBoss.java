@@ -4,6 +4,7 @@ import audio.SoundManager;
 import engine.DrawManager;
 import engine.Cooldown;
 import engine.Core;
+import engine.GameRandom;
 import screen.GameScreen;
 
 import java.awt.*;
@@ -161,7 +162,7 @@ public class FinalBoss extends Entity implements BossEntity{
         if (this.shootCooldown2.checkFinished()) {
             this.shootCooldown2.reset();
             Set<BossBullet> bullets = new HashSet<>();
-            int randomX = (int) (Math.random() * screenWidth);
+            int randomX = Core.getRandom(GameRandom.Stream.BOSS).nextInt(screenWidth);
             BossBullet bullet = new BossBullet(randomX, 1, 0, 2,6,10,Color.yellow);
             bullets.add(bullet);
             return bullets;
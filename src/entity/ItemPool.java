@@ -51,6 +51,7 @@ public final class ItemPool {
             dropItem = new DropItem(positionX, positionY, speed, itemType);
             dropItem.setPositionX(positionX - dropItem.getWidth() / 2);
         }
+        dropItem.storePreviousPosition();
         return dropItem;
     }
 
@@ -63,4 +64,13 @@ public final class ItemPool {
     public static void recycle(final Set<DropItem> dropItem) {
         pool.addAll(dropItem);
     }
+
+    /**
+     * Getter for the number of items waiting to be reused.
+     *
+     * @return Items in the pool.
+     */
+    public static int getPoolSize() {
+        return pool.size();
+    }
 }
@@ -6,13 +6,28 @@ import java.util.ArrayList;
 import java.awt.event.KeyEvent;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.logging.Logger;
 
 import engine.Cooldown;
 import engine.Core;
+import engine.FrameProfiler;
+import engine.FrameSnapshot;
+import engine.GameClock;
+import engine.FrameProfiler.Phase;
+import engine.GameRandom;
 import engine.GameState;
 import engine.GameTimer;
+import engine.ParticleSystem;
+import engine.ParticleSystem.Emitter;
+import engine.PerformanceOverlay;
+import engine.RenderLayer;
+import engine.SpatialGrid;
+import engine.SpriteMask;
+import engine.RenderThread;
+import engine.SnapshotBuffer;
 import engine.AchievementManager;
+import engine.DrawManager.SpriteType;
 import engine.ItemHUDManager;
 import entity.*;
 import java.awt.event.KeyEvent;
@@ -49,6 +64,14 @@ public class GameScreen extends Screen {
 	private static final int SEPARATION_LINE_HEIGHT = 45;
 	/** Height of the items separation line (above items). */
 	private static final int ITEMS_SEPARATION_LINE_HEIGHT = 400;
+	/** Frames rendered per second, interpolated between ticks. */
+	private static final int RENDER_RATE = 120;
+	/** Render layers, from the back to the front. */
+	private static final RenderLayer[] RENDER_LAYERS = RenderLayer.values();
+	/** Side of a cell of the collision grid, about an enemy ship. */
+	private static final int COLLISION_CELL_SIZE = 32;
+	/** Collision grid tag of the special ships. */
+	private static final int SPECIAL_SHIP = 0;
     /** Returns the Y-coordinate of the bottom boundary for enemies (above items HUD) */
     public static int getItemsSeparationLineHeight() {
         return ITEMS_SEPARATION_LINE_HEIGHT;
@@ -80,10 +103,21 @@ public class GameScreen extends Screen {
 	private Cooldown screenFinishedCooldown;
 	/** OmegaBoss */
 	private MidBoss omegaBoss;
-	/** Set of all bullets fired by on-screen ships. */
-	private Set<Bullet> bullets;
+	/** All bullets fired by on-screen ships. */
+	private BulletStore bullets;
 	/** Set of all dropItems dropped by on screen ships. */
 	private Set<DropItem> dropItems;
+	/** Sparks of explosions, hits and pickups. */
+	private ParticleSystem particles;
+	/**
+	 * Special enemy ships by area, filled again every tick for collision
+	 * checks. Formation ships are looked up by the formation itself.
+	 */
+	private SpatialGrid enemyGrid;
+	/** Pairs left for the exact collision check in the last tick. */
+	private int collisionPairs;
+	/** Pairs the collision grid saved checking in the last tick. */
+	private int prunedPairs;
 	/** Current score. */
 	private int score;
     // === [ADD] Independent scores for two players ===
@@ -109,12 +143,11 @@ public class GameScreen extends Screen {
 	/** Current coin. */
 	private int coin;
     // Unified scoring entry: maintains both P1/P2 and legacy this.score (total score)
-    private void addPointsFor(Bullet bullet, int pts) {
-        Integer owner = (bullet != null ? bullet.getOwnerId() : null);
-        if (owner != null && owner == 2) {
+    private void addPointsFor(int owner, int pts) {
+        if (owner == 2) {
             this.scoreP2 += pts;   // P2
         } else {
-            this.scoreP1 += pts;   // Default to P1 (for null compatibility)
+            this.scoreP1 += pts;   // Default to P1 (for bullets with no owner)
 
         }
         this.score += pts;        // Keep maintaining the total score, for legacy process compatibility
@@ -137,6 +170,10 @@ public class GameScreen extends Screen {
   /** Health change popup. */
   private String healthPopupText;
   private Cooldown healthPopupCooldown;
+	/** Snapshots handed from the game thread to the render thread. */
+	private SnapshotBuffer snapshots;
+	/** Draws the published snapshots. */
+	private RenderThread renderThread;
 
 	    private GameState gameState;
 
@@ -203,20 +240,30 @@ public class GameScreen extends Screen {
 		this.bossExplosionCooldown = Core
 				.getCooldown(BOSS_EXPLOSION);
 		this.screenFinishedCooldown = Core.getCooldown(SCREEN_CHANGE_INTERVAL);
-		this.bullets = new HashSet<Bullet>();
+		this.bullets = new BulletStore();
         this.dropItems = new HashSet<DropItem>();
+		this.particles = new ParticleSystem(
+				Core.getRandom(GameRandom.Stream.PARTICLES));
+		this.enemyGrid = new SpatialGrid(this.width, this.height,
+				COLLISION_CELL_SIZE);
 
 		// Special input delay / countdown.
-		this.gameStartTime = System.currentTimeMillis();
+		this.gameStartTime = Core.getClock().getMillis();
 		this.inputDelay = Core.getCooldown(INPUT_DELAY);
 		this.inputDelay.reset();
 
 
-		this.gameTimer = new GameTimer();
+		this.gameTimer = new GameTimer(Core.getClock());
         this.elapsedTime = 0;
 		this.finalBoss = null;
 		this.omegaBoss = null;
 		this.currentPhase = StagePhase.wave;
+
+		this.snapshots = new SnapshotBuffer();
+		// Shop upgrades bought since the last level show on the item HUD.
+		drawManager.invalidateHud();
+		this.renderThread = new RenderThread(this.snapshots,
+				this::drawSnapshot, RENDER_RATE);
 	}
 
 	/**
@@ -225,7 +272,13 @@ public class GameScreen extends Screen {
 	 * @return Next screen code.
 	 */
 	public final int run() {
-		super.run();
+		if (!Core.isHeadless())
+			this.renderThread.start();
+		try {
+			super.run();
+		} finally {
+			this.renderThread.stop();
+		}
 
 		this.score += LIFE_SCORE * (this.livesP1 - 1);
 		this.score += LIFE_SCORE * (this.livesP2 - 1);
@@ -239,6 +292,9 @@ public class GameScreen extends Screen {
 	 */
 	protected final void update() {
 		super.update();
+		storePreviousPositions();
+		FrameProfiler profiler = Core.getProfiler();
+		long time = profiler.start();
 
 		if (this.inputDelay.checkFinished() && !this.levelFinished) {
 
@@ -299,6 +355,7 @@ public class GameScreen extends Screen {
 					}
 				}
 			}
+			time = profiler.record(Phase.INPUT, time);
 			switch (this.currentPhase) {
 				case wave:
 					if (!DropItem.isTimeFreezeActive()) {
@@ -308,6 +365,7 @@ public class GameScreen extends Screen {
 					if (this.enemyShipFormation.isEmpty()) {
 						this.currentPhase = StagePhase.boss_wave;
 					}
+					time = profiler.record(Phase.FORMATION, time);
 					break;
 				case boss_wave:
 					if (this.finalBoss == null && this.omegaBoss == null){
@@ -336,26 +394,48 @@ public class GameScreen extends Screen {
 							this.screenFinishedCooldown.reset();
 						}
 					}
+					time = profiler.record(Phase.BOSS, time);
 					break;
 			}
 			this.ship.update();
 			if (this.shipP2 != null) {
 				this.shipP2.update();
 			}
+			time = profiler.record(Phase.INPUT, time);
 			// special enemy update
 			this.enemyShipSpecialFormation.update();
+			time = profiler.record(Phase.FORMATION, time);
 		}
 
 		if (this.gameTimer.isRunning()) {
             this.elapsedTime = this.gameTimer.getElapsedTime();
 				AchievementManager.getInstance().onTimeElapsedSeconds((int)(this.elapsedTime / 1000));
         }
+		time = profiler.start();
         cleanItems();
+		time = profiler.record(Phase.CLEAN_ITEMS, time);
+		// Bullets move before the collision pass, so each one is checked
+		// over its whole move from the position stored at the start of
+		// the tick.
+		this.bullets.update();
+		fillEnemyGrid();
         manageBulletShipCollisions();
+		time = profiler.record(Phase.BULLET_SHIP_COLLISIONS, time);
         manageShipEnemyCollisions();
+		this.collisionPairs = this.enemyGrid.getCandidatePairs()
+				+ this.enemyShipFormation.getCandidatePairs();
+		this.prunedPairs = this.enemyGrid.getPrunedPairs()
+				+ this.enemyShipFormation.getPrunedPairs();
+		time = profiler.record(Phase.SHIP_ENEMY_COLLISIONS, time);
         manageItemCollisions();
+		time = profiler.record(Phase.ITEM_COLLISIONS, time);
 		cleanBullets();
-		draw();
+		time = profiler.record(Phase.CLEAN_BULLETS, time);
+		this.particles.setBudgetShare(Core.getQualityGovernor().getTier()
+				.getParticleShare());
+		this.particles.update();
+		profiler.record(Phase.PARTICLES, time);
+		profiler.flushTick();
 
 		if (((this.livesP1 == 0) && (this.shipP2 == null || this.livesP2 == 0)) && !this.levelFinished) {
 			this.levelFinished = true;
@@ -387,88 +467,232 @@ public class GameScreen extends Screen {
 			}
 			this.isRunning = false;
 		}
+
+		if (!Core.isHeadless())
+			publishSnapshot();
 	}
 
 
 	/**
-	 * Draws the elements associated with the screen.
+	 * Remembers where every entity is at the start of the tick, so rendering
+	 * can interpolate towards the positions the tick produces.
 	 */
-	private void draw() {
-		drawManager.initDrawing(this);
+	private void storePreviousPositions() {
+		this.ship.storePreviousPosition();
+		if (this.shipP2 != null)
+			this.shipP2.storePreviousPosition();
+		this.enemyShipFormation.storePreviousPositions();
+		for (EnemyShip enemyShipSpecial : this.enemyShipSpecialFormation)
+			enemyShipSpecial.storePreviousPosition();
+		if (this.finalBoss != null)
+			this.finalBoss.storePreviousPosition();
+		if (this.omegaBoss != null)
+			this.omegaBoss.storePreviousPosition();
+		this.bullets.storePreviousPositions();
+		for (BossBullet bossBullet : this.bossBullets)
+			bossBullet.storePreviousPosition();
+		for (DropItem dropItem : this.dropItems)
+			dropItem.storePreviousPosition();
+	}
 
-		if (this.livesP1 > 0) {
-			drawManager.drawEntity(this.ship, this.ship.getPositionX(),
-					this.ship.getPositionY());
-		}
+	/**
+	 * Publishes the drawable state at the end of the tick for the render
+	 * thread.
+	 */
+	private void publishSnapshot() {
+		FrameSnapshot snapshot = this.snapshots.getWriting();
+		snapshot.clear();
+		snapshot.setViewport(this.width, this.height);
 
-		if (this.shipP2 != null && this.livesP2 > 0) {
-			drawManager.drawEntity(this.shipP2, this.shipP2.getPositionX(), this.shipP2.getPositionY());
-		}
+		if (this.livesP1 > 0)
+			snapshot.addEntity(this.ship, RenderLayer.PLAYER);
+		if (this.shipP2 != null && this.livesP2 > 0)
+			snapshot.addEntity(this.shipP2, RenderLayer.PLAYER);
 
 		// special enemy draw
-		enemyShipSpecialFormation.draw();
+		this.enemyShipSpecialFormation.capture(snapshot);
 
 		/** draw final boss at the field */
 		/** draw final boss bullets */
-		if(this.finalBoss != null && !this.finalBoss.isDestroyed()){
-			for (BossBullet bossBullet : bossBullets) {
-				drawManager.drawEntity(bossBullet, bossBullet.getPositionX(), bossBullet.getPositionY());
-			}
-			drawManager.drawEntity(finalBoss, finalBoss.getPositionX(), finalBoss.getPositionY());
+		if (this.finalBoss != null && !this.finalBoss.isDestroyed()) {
+			for (BossBullet bossBullet : this.bossBullets)
+				snapshot.addEntity(bossBullet, RenderLayer.BULLETS);
+			snapshot.addEntity(this.finalBoss, RenderLayer.ENEMIES);
 		}
 
-		enemyShipFormation.draw();
+		this.enemyShipFormation.capture(snapshot);
 
-		if(this.omegaBoss != null) {
-			this.omegaBoss.draw(drawManager);
-		}
+		if (this.omegaBoss != null)
+			snapshot.addEntity(this.omegaBoss, RenderLayer.ENEMIES);
 
-		for (Bullet bullet : this.bullets)
-			drawManager.drawEntity(bullet, bullet.getPositionX(),
-					bullet.getPositionY());
+		this.bullets.capture(snapshot, RenderLayer.BULLETS);
 
 		for (DropItem dropItem : this.dropItems)
-			drawManager.drawEntity(dropItem, dropItem.getPositionX(), dropItem.getPositionY());
+			snapshot.addEntity(dropItem, RenderLayer.BULLETS);
+
+		this.particles.capture(snapshot);
+		snapshot.sortByLayer();
 
 		// Interface.
-        drawManager.drawScore(this, this.scoreP1);   // Top line still displays P1
-        drawManager.drawScoreP2(this, this.scoreP2); // Added second line for P2
-        drawManager.drawCoin(this,this.coin);
-		drawManager.drawLives(this, this.livesP1);
-		drawManager.drawLivesP2(this, this.livesP2);
-		drawManager.drawTime(this, this.elapsedTime);
-		drawManager.drawItemsHUD(this);
-		drawManager.drawLevel(this, this.currentLevel.getLevelName());
-		drawManager.drawHorizontalLine(this, SEPARATION_LINE_HEIGHT - 1);
-		drawManager.drawHorizontalLine(this, ITEMS_SEPARATION_LINE_HEIGHT);
-
-		if (this.achievementText != null && !this.achievementPopupCooldown.checkFinished()) {
-			drawManager.drawAchievementPopup(this, this.achievementText);
-		} else {
+		snapshot.scoreP1 = this.scoreP1;
+		snapshot.scoreP2 = this.scoreP2;
+		snapshot.coin = this.coin;
+		snapshot.livesP1 = this.livesP1;
+		snapshot.livesP2 = this.livesP2;
+		snapshot.elapsedTime = this.elapsedTime;
+		snapshot.level = this.level;
+		snapshot.levelName = this.currentLevel.getLevelName();
+		snapshot.bonusLife = this.bonusLife;
+		snapshot.droppedItemCount = ItemHUDManager.getInstance()
+				.getDroppedItems(snapshot.droppedItems);
+
+		if (this.achievementText != null && this.achievementPopupCooldown.checkFinished())
 			this.achievementText = null; // clear once expired
+		snapshot.achievementText = this.achievementText;
+		if (this.healthPopupText != null && this.healthPopupCooldown.checkFinished())
+			this.healthPopupText = null;
+		snapshot.healthPopupText = this.healthPopupText;
+
+		// Countdown to game start.
+		if (!this.inputDelay.checkFinished())
+			snapshot.countdown = (int) ((INPUT_DELAY
+					- (Core.getClock().getMillis()
+					- this.gameStartTime)) / 1000);
+		else
+			snapshot.countdown = -1;
+
+		snapshot.bulletCount = this.bullets.size();
+		snapshot.bossBulletCount = this.bossBullets.size();
+		snapshot.dropItemCount = this.dropItems.size();
+		snapshot.formationShipCount = this.enemyShipFormation.getShipCount();
+		snapshot.collisionPairs = this.collisionPairs;
+		snapshot.prunedPairs = this.prunedPairs;
+
+		this.snapshots.publish();
+	}
+
+	/**
+	 * Draws a snapshot of the screen, called from the render thread.
+	 *
+	 * @param snapshot
+	 *            Drawable state published at the end of a tick.
+	 * @param alpha
+	 *            Fraction of a tick elapsed since the snapshot was published,
+	 *            used to interpolate entity positions.
+	 */
+	private void drawSnapshot(final FrameSnapshot snapshot, final float alpha) {
+		FrameProfiler profiler = Core.getProfiler();
+		long time = profiler.start();
+		drawManager.initDrawing(this);
+
+		PerformanceOverlay overlay = Core.getPerformanceOverlay();
+		int culled = snapshot.getCulledParticleCount();
+		for (RenderLayer layer : RENDER_LAYERS) {
+			overlay.setLayerCount(layer, drawLayer(snapshot, layer, alpha));
+			culled += snapshot.getCulledCount(layer);
+		}
+		overlay.setCulledCount(culled);
+
+		overlay.setEntityCounts(snapshot.bulletCount,
+				snapshot.bossBulletCount, snapshot.dropItemCount,
+				snapshot.formationShipCount, snapshot.getParticleCount());
+		overlay.setCollisionCounts(snapshot.collisionPairs,
+				snapshot.prunedPairs);
+		time = profiler.record(Phase.DRAW, time);
+		drawManager.completeDrawing(this);
+		profiler.record(Phase.COMPLETE_DRAWING, time);
+		profiler.flushFrame();
+	}
+
+	/**
+	 * Draws the sprites of one layer of a snapshot, in a batch of their own
+	 * so they cover the layers before, followed by the particles on the
+	 * effects layer and the interface on the HUD layer.
+	 *
+	 * @param snapshot
+	 *            Drawable state published at the end of a tick.
+	 * @param layer
+	 *            Layer to draw.
+	 * @param alpha
+	 *            Fraction of a tick elapsed since the snapshot was published.
+	 * @return Number of sprites, particles and HUD elements drawn.
+	 */
+	private int drawLayer(final FrameSnapshot snapshot,
+			final RenderLayer layer, final float alpha) {
+		int start = snapshot.getLayerStart(layer);
+		int end = snapshot.getLayerEnd(layer);
+		drawManager.beginSpriteBatch();
+		for (int k = start; k < end; k++) {
+			int i = snapshot.getLayerEntry(k);
+			drawManager.drawSprite(snapshot.getSpriteType(i),
+					snapshot.getColor(i), snapshot.getX(i, alpha),
+					snapshot.getY(i, alpha));
+		}
+		drawManager.endSpriteBatch();
+
+		int drawn = end - start;
+		if (layer == RenderLayer.EFFECTS)
+			drawn += drawManager.drawParticles(snapshot, alpha);
+		else if (layer == RenderLayer.HUD)
+			drawn += drawHud(snapshot);
+		return drawn;
+	}
+
+	/**
+	 * Draws the interface of a snapshot.
+	 *
+	 * @param snapshot
+	 *            Drawable state published at the end of a tick.
+	 * @return Number of HUD elements drawn.
+	 */
+	private int drawHud(final FrameSnapshot snapshot) {
+		// Interface.
+		drawManager.drawTopHud(this, SEPARATION_LINE_HEIGHT - 1,
+				snapshot.scoreP1, snapshot.scoreP2, snapshot.livesP1,
+				snapshot.livesP2);
+		drawManager.drawBottomHud(this, ITEMS_SEPARATION_LINE_HEIGHT,
+				snapshot.coin, snapshot.elapsedTime, snapshot.levelName,
+				snapshot.droppedItems, snapshot.droppedItemCount);
+		int drawn = 2;
+
+		if (snapshot.achievementText != null) {
+			drawManager.drawAchievementPopup(this, snapshot.achievementText);
+			drawn++;
 		}
 
 		// Health notification popup
-		if(this.healthPopupText != null && !this.healthPopupCooldown.checkFinished()) {
-			drawManager.drawHealthPopup(this, this.healthPopupText);
-		} else {
-			this.healthPopupText = null;
+		if (snapshot.healthPopupText != null) {
+			drawManager.drawHealthPopup(this, snapshot.healthPopupText);
+			drawn++;
 		}
 
 		// Countdown to game start.
-		if (!this.inputDelay.checkFinished()) {
-			int countdown = (int) ((INPUT_DELAY
-					- (System.currentTimeMillis()
-					- this.gameStartTime)) / 1000);
-			drawManager.drawCountDown(this, this.level, countdown,
-					this.bonusLife);
+		if (snapshot.countdown >= 0) {
+			drawManager.drawCountDown(this, snapshot.level,
+					snapshot.countdown, snapshot.bonusLife);
 			drawManager.drawHorizontalLine(this, this.height / 2 - this.height
 					/ 12);
 			drawManager.drawHorizontalLine(this, this.height / 2 + this.height
 					/ 12);
+			drawn++;
 		}
 
-		drawManager.completeDrawing(this);
+		// Banner while the game clock is paused, no snapshots come then.
+		if (Core.getClock().getMode() == GameClock.Mode.PAUSED) {
+			drawManager.drawPaused(this);
+			drawn++;
+		}
+		return drawn;
+	}
+
+	/**
+	 * Lets the pause key pause the game.
+	 *
+	 * @return True, the game screen shows a banner while paused.
+	 */
+	@Override
+	protected final boolean isPausable() {
+		return true;
 	}
 
 
@@ -476,15 +700,10 @@ public class GameScreen extends Screen {
 	 * Cleans bullets that go off screen.
 	 */
 	private void cleanBullets() {
-		Set<Bullet> recyclable = new HashSet<Bullet>();
-		for (Bullet bullet : this.bullets) {
-			bullet.update();
-			if (bullet.getPositionY() < SEPARATION_LINE_HEIGHT
-					|| bullet.getPositionY() > this.height)
-				recyclable.add(bullet);
-		}
-		this.bullets.removeAll(recyclable);
-		BulletPool.recycle(recyclable);
+		for (int i = this.bullets.size() - 1; i >= 0; i--)
+			if (this.bullets.getY(i) < SEPARATION_LINE_HEIGHT
+					|| this.bullets.getY(i) > this.height)
+				this.bullets.remove(i);
 	}
 
     /**
@@ -504,14 +723,29 @@ public class GameScreen extends Screen {
     }
 
 	/**
-	 * Manages collisions between bullets and ships.
+	 * Fills the collision grid with the special enemy ships not yet
+	 * destroyed, at their positions for this tick, and resets the collision
+	 * counters.
+	 */
+	private void fillEnemyGrid() {
+		this.enemyGrid.clear();
+		this.enemyGrid.resetCounters();
+		this.enemyShipFormation.resetCounters();
+		this.enemyShipSpecialFormation.addTo(this.enemyGrid, SPECIAL_SHIP);
+	}
+
+	/**
+	 * Manages collisions between bullets and ships. Player bullets are only
+	 * checked against the formation ships in the cells they reach and the
+	 * special ships sharing a cell of the collision grid.
 	 */
 	private void manageBulletShipCollisions() {
-		Set<Bullet> recyclable = new HashSet<Bullet>();
-		for (Bullet bullet : this.bullets)
-			if (bullet.getSpeed() > 0) {
-				if (this.livesP1 > 0 && checkCollision(bullet, this.ship) && !this.levelFinished) {
-					recyclable.add(bullet);
+		// From the last bullet, so removing one keeps the rest to visit.
+		for (int i = this.bullets.size() - 1; i >= 0; i--) {
+			boolean spent = false;
+			if (this.bullets.getSpeed(i) > 0) {
+				if (this.livesP1 > 0 && hitsBullet(i, this.ship) && !this.levelFinished) {
+					spent = true;
 					if (!this.ship.isInvincible()) {
 						if (!this.ship.isDestroyed()) {
 							this.ship.destroy();
@@ -522,8 +756,8 @@ public class GameScreen extends Screen {
 						}
 					}
 				} else if (this.shipP2 != null && this.livesP2 > 0 && !this.shipP2.isDestroyed()
-						&& checkCollision(bullet, this.shipP2) && !this.levelFinished) {
-					recyclable.add(bullet);
+						&& hitsBullet(i, this.shipP2) && !this.levelFinished) {
+					spent = true;
 					if (!this.shipP2.isInvincible()) {
 						if (!this.shipP2.isDestroyed()) {
 							this.shipP2.destroy();
@@ -535,16 +769,24 @@ public class GameScreen extends Screen {
 					}
 				}
 			} else {
-				for (EnemyShip enemyShip : this.enemyShipFormation)
+				int ships = this.enemyShipFormation.findShips(
+						this.bullets.getPreviousX(i),
+						this.bullets.getPreviousY(i), this.bullets.getX(i),
+						this.bullets.getY(i), BulletStore.WIDTH,
+						BulletStore.HEIGHT);
+				for (int s = 0; s < ships; s++) {
+					EnemyShip enemyShip = this.enemyShipFormation
+							.getFoundShip(s);
 					if (!enemyShip.isDestroyed()
-							&& checkCollision(bullet, enemyShip)) {
+							&& hitsBullet(i, enemyShip)) {
                         int pts = enemyShip.getPointValue();
-                        addPointsFor(bullet, pts);
+                        addPointsFor(this.bullets.getOwner(i), pts);
                         this.coin += (pts / 10);
                         this.shipsDestroyed++;
 
                         String enemyType = enemyShip.getEnemyType();
 						this.enemyShipFormation.destroy(enemyShip);
+						this.particles.emit(Emitter.ENEMY_DEATH, enemyShip);
 						AchievementManager.getInstance().onEnemyDefeated();
 						if (enemyType != null && this.currentLevel.getItemDrops() != null) {
 							List<engine.level.ItemDrop> potentialDrops = new ArrayList<>();
@@ -554,15 +796,16 @@ public class GameScreen extends Screen {
 								}
 							}
 
+							SplittableRandom dropRandom = Core.getRandom(GameRandom.Stream.ITEM_DROP);
 							List<engine.level.ItemDrop> successfulDrops = new ArrayList<>();
 							for (engine.level.ItemDrop itemDrop : potentialDrops) {
-								if (Math.random() < itemDrop.getDropChance()) {
+								if (dropRandom.nextDouble() < itemDrop.getDropChance()) {
 									successfulDrops.add(itemDrop);
 								}
 							}
 
 							if (!successfulDrops.isEmpty()) {
-								engine.level.ItemDrop selectedDrop = successfulDrops.get((int) (Math.random() * successfulDrops.size()));
+								engine.level.ItemDrop selectedDrop = successfulDrops.get(dropRandom.nextInt(successfulDrops.size()));
 								DropItem.ItemType droppedType = DropItem.fromString(selectedDrop.getItemId());
 								if (droppedType != null) {
 									final int ITEM_DROP_SPEED = 2;
@@ -578,54 +821,71 @@ public class GameScreen extends Screen {
 								}
 							}
 						}
-						if (!bullet.penetration()) {
-							recyclable.add(bullet);
+						if (!this.bullets.penetrate(i)) {
+							spent = true;
 							break;
 						}
 					}
+				}
 
 				// special enemy bullet event
-				for (EnemyShip enemyShipSpecial : this.enemyShipSpecialFormation)
-					if (enemyShipSpecial != null && !enemyShipSpecial.isDestroyed()
-							&& checkCollision(bullet, enemyShipSpecial)) {
+				int candidates = this.enemyGrid.query(
+						this.bullets.getPreviousX(i),
+						this.bullets.getPreviousY(i), this.bullets.getX(i),
+						this.bullets.getY(i), BulletStore.WIDTH,
+						BulletStore.HEIGHT);
+				for (int c = 0; c < candidates; c++) {
+					if (this.enemyGrid.getCandidateTag(c) != SPECIAL_SHIP)
+						continue;
+					EnemyShip enemyShipSpecial = (EnemyShip) this.enemyGrid
+							.getCandidate(c);
+					if (!enemyShipSpecial.isDestroyed()
+							&& hitsBullet(i, enemyShipSpecial)) {
                         int pts = enemyShipSpecial.getPointValue();
-                        addPointsFor(bullet, pts);
+                        addPointsFor(this.bullets.getOwner(i), pts);
                         this.coin += (pts / 10);
                         this.shipsDestroyed++;
 						this.enemyShipSpecialFormation.destroy(enemyShipSpecial);
-						recyclable.add(bullet);
+						this.particles.emit(Emitter.ENEMY_DEATH, enemyShipSpecial);
+						spent = true;
 					}
+				}
 				if (this.omegaBoss != null
 						&& !this.omegaBoss.isDestroyed()
-						&& checkCollision(bullet, this.omegaBoss)) {
+						&& hitsBullet(i, this.omegaBoss)) {
 					this.omegaBoss.takeDamage(2);
+					this.particles.emit(Emitter.BOSS_HIT, this.omegaBoss);
 					if(this.omegaBoss.getHealPoint() <= 0) {
 						this.shipsDestroyed++;
                         int pts = this.omegaBoss.getPointValue();
-                        addPointsFor(bullet, pts);
+                        addPointsFor(this.bullets.getOwner(i), pts);
                         this.coin += (pts / 10);
                         this.omegaBoss.destroy();
+						this.particles.emit(Emitter.BOSS_DEATH, this.omegaBoss);
 						AchievementManager.getInstance().unlockAchievement("Boss Slayer");
 						this.bossExplosionCooldown.reset();
 					}
-					recyclable.add(bullet);
+					spent = true;
 				}
 
 				/** when final boss collide with bullet */
-				if(this.finalBoss != null && !this.finalBoss.isDestroyed() && checkCollision(bullet,this.finalBoss)){
+				if(this.finalBoss != null && !this.finalBoss.isDestroyed() && hitsBullet(i, this.finalBoss)){
 					this.finalBoss.takeDamage(1);
+					this.particles.emit(Emitter.BOSS_HIT, this.finalBoss);
 					if(this.finalBoss.getHealPoint() <= 0){
                         int pts = this.finalBoss.getPointValue();
-                        addPointsFor(bullet, pts);
+                        addPointsFor(this.bullets.getOwner(i), pts);
                         this.coin += (pts / 10);
 						this.finalBoss.destroy();
+						this.particles.emit(Emitter.BOSS_DEATH, this.finalBoss);
                         AchievementManager.getInstance().unlockAchievement("Boss Slayer");
 					}
-					recyclable.add(bullet);
+					spent = true;
 				}
             }
-        this.bullets.removeAll(recyclable);
-        BulletPool.recycle(recyclable);
+			if (spent)
+				this.bullets.remove(i);
+		}
     }
 
     /**
@@ -637,9 +897,12 @@ public class GameScreen extends Screen {
         if (!this.levelFinished && this.livesP1 > 0 && !this.ship.isDestroyed()
                 && !this.ship.isInvincible()) {
             // Check collision with normal enemy ships
-            for (EnemyShip enemyShip : this.enemyShipFormation) {
+            int ships = this.enemyShipFormation.findShips(this.ship);
+            for (int s = 0; s < ships; s++) {
+                EnemyShip enemyShip = this.enemyShipFormation.getFoundShip(s);
                 if (!enemyShip.isDestroyed() && checkCollision(this.ship, enemyShip)) {
                     this.enemyShipFormation.destroy(enemyShip);
+                    this.particles.emit(Emitter.ENEMY_DEATH, enemyShip);
                     this.ship.destroy();
                     this.livesP1--;
                     showHealthPopup("-1 Life (Collision!)");
@@ -650,10 +913,15 @@ public class GameScreen extends Screen {
             }
 
             // Check collision with special enemy formation (red/blue ships)
-            for (EnemyShip enemyShipSpecial : this.enemyShipSpecialFormation) {
-                if (enemyShipSpecial != null && !enemyShipSpecial.isDestroyed()
+            int candidates = this.enemyGrid.query(this.ship);
+            for (int c = 0; c < candidates; c++) {
+                if (this.enemyGrid.getCandidateTag(c) != SPECIAL_SHIP)
+                    continue;
+                EnemyShip enemyShipSpecial = (EnemyShip) this.enemyGrid.getCandidate(c);
+                if (!enemyShipSpecial.isDestroyed()
                         && checkCollision(this.ship, enemyShipSpecial)) {
                     enemyShipSpecial.destroy();
+                    this.particles.emit(Emitter.ENEMY_DEATH, enemyShipSpecial);
                     this.ship.destroy();
                     this.livesP1--;
                     showHealthPopup("-1 Life (Collision!)");
@@ -690,9 +958,12 @@ public class GameScreen extends Screen {
         if (!this.levelFinished && this.shipP2 != null && this.livesP2 > 0
                 && !this.shipP2.isDestroyed() && !this.shipP2.isInvincible()) {
             // Check collision with normal enemy ships
-            for (EnemyShip enemyShip : this.enemyShipFormation) {
+            int ships = this.enemyShipFormation.findShips(this.shipP2);
+            for (int s = 0; s < ships; s++) {
+                EnemyShip enemyShip = this.enemyShipFormation.getFoundShip(s);
                 if (!enemyShip.isDestroyed() && checkCollision(this.shipP2, enemyShip)) {
 	                this.enemyShipFormation.destroy(enemyShip);
+                    this.particles.emit(Emitter.ENEMY_DEATH, enemyShip);
                     this.shipP2.destroy();
                     this.livesP2--;
                     showHealthPopup("-1 Life (Collision!)");
@@ -703,10 +974,15 @@ public class GameScreen extends Screen {
             }
 
             // Check collision with special enemy formation
-            for (EnemyShip enemyShipSpecial : this.enemyShipSpecialFormation) {
-                if (enemyShipSpecial != null && !enemyShipSpecial.isDestroyed()
+            int candidates = this.enemyGrid.query(this.shipP2);
+            for (int c = 0; c < candidates; c++) {
+                if (this.enemyGrid.getCandidateTag(c) != SPECIAL_SHIP)
+                    continue;
+                EnemyShip enemyShipSpecial = (EnemyShip) this.enemyGrid.getCandidate(c);
+                if (!enemyShipSpecial.isDestroyed()
                         && checkCollision(this.shipP2, enemyShipSpecial)) {
                     enemyShipSpecial.destroy();
+                    this.particles.emit(Emitter.ENEMY_DEATH, enemyShipSpecial);
                     this.shipP2.destroy();
                     this.livesP2--;
                     showHealthPopup("-1 Life (Collision!)");
@@ -756,6 +1032,7 @@ public class GameScreen extends Screen {
 
 					// Add item to HUD display
 					ItemHUDManager.getInstance().addDroppedItem(dropItem.getItemType());
+					this.particles.emit(Emitter.ITEM_PICKUP, dropItem);
 
 					switch (dropItem.getItemType()) {
 						case Heal:
@@ -771,9 +1048,9 @@ public class GameScreen extends Screen {
 							DropItem.PushbackItem(this.enemyShipFormation,20);
 							break;
 						case Explode:
-							int destroyedEnemy = this.enemyShipFormation.destroyAll();
+							int destroyedEnemy = explodeFormation();
                             int pts = destroyedEnemy * 5;
-                            addPointsFor(null, pts);
+                            addPointsFor(BulletStore.NO_OWNER, pts);
                             break;
 						case Slow:
 							enemyShipFormation.activateSlowdown();
@@ -790,6 +1067,7 @@ public class GameScreen extends Screen {
 
 					// Add item to HUD display
 					ItemHUDManager.getInstance().addDroppedItem(dropItem.getItemType());
+					this.particles.emit(Emitter.ITEM_PICKUP, dropItem);
 
 					switch (dropItem.getItemType()) {
 						case Heal:
@@ -805,9 +1083,9 @@ public class GameScreen extends Screen {
 							DropItem.PushbackItem(this.enemyShipFormation,20);
 							break;
 						case Explode:
-							int destroyedEnemy = this.enemyShipFormation.destroyAll();
+							int destroyedEnemy = explodeFormation();
                             int pts = destroyedEnemy * 5;
-                            addPointsFor(null, pts);
+                            addPointsFor(BulletStore.NO_OWNER, pts);
                             break;
 						case Slow:
 							enemyShipFormation.activateSlowdown();
@@ -827,7 +1105,28 @@ public class GameScreen extends Screen {
 
 
 	/**
-	 * Checks if two entities are colliding.
+	 * Destroys every ship of the formation, each throwing an equal share of
+	 * the particles left to spawn this tick.
+	 *
+	 * @return Number of ships destroyed.
+	 */
+	private int explodeFormation() {
+		int ships = this.enemyShipFormation.getShipCount();
+		if (ships > 0) {
+			int share = Math.max(1, Math.min(Emitter.ENEMY_DEATH.getCount(),
+					this.particles.getBudget() / ships));
+			for (EnemyShip enemyShip : this.enemyShipFormation)
+				if (!enemyShip.isDestroyed())
+					this.particles.emit(Emitter.ENEMY_DEATH, enemyShip, share);
+		}
+		return this.enemyShipFormation.destroyAll();
+	}
+
+	/**
+	 * Checks if two entities are colliding. Boxes that do not overlap are
+	 * rejected first, then the lit pixels of both sprites are compared, so
+	 * transparent corners do not count as hits. Entities whose sprite does
+	 * not fill their box at a common scale fall back to the box test.
 	 * 
 	 * @param a
 	 *            First entity, the bullet.
@@ -836,19 +1135,191 @@ public class GameScreen extends Screen {
 	 * @return Result of the collision test.
 	 */
 	private boolean checkCollision(final Entity a, final Entity b) {
-		// Calculate center point of the entities in both axis.
-		int centerAX = a.getPositionX() + a.getWidth() / 2;
-		int centerAY = a.getPositionY() + a.getHeight() / 2;
-		int centerBX = b.getPositionX() + b.getWidth() / 2;
-		int centerBY = b.getPositionY() + b.getHeight() / 2;
-		// Calculate maximum distance without collision.
-		int maxDistanceX = a.getWidth() / 2 + b.getWidth() / 2;
-		int maxDistanceY = a.getHeight() / 2 + b.getHeight() / 2;
-		// Calculates distance.
-		int distanceX = Math.abs(centerAX - centerBX);
-		int distanceY = Math.abs(centerAY - centerBY);
-
-		return distanceX < maxDistanceX && distanceY < maxDistanceY;
+		return checkCollisionAt(a.getSpriteType(), a.getPositionX(),
+				a.getPositionY(), a.getWidth(), a.getHeight(), b,
+				b.getPositionX(), b.getPositionY());
+	}
+
+	/**
+	 * Checks if a bullet touched an entity at any point of its move this
+	 * tick.
+	 *
+	 * @param i
+	 *            Index of the bullet.
+	 * @param target
+	 *            Entity it may hit.
+	 * @return Result of the collision test.
+	 */
+	private boolean hitsBullet(final int i, final Entity target) {
+		return checkSweptCollision(this.bullets.getSpriteType(i),
+				this.bullets.getPreviousX(i), this.bullets.getPreviousY(i),
+				this.bullets.getX(i), this.bullets.getY(i), BulletStore.WIDTH,
+				BulletStore.HEIGHT, target);
+	}
+
+	/**
+	 * Checks if a projectile touched an entity at any point of its move
+	 * this tick.
+	 *
+	 * @param projectile
+	 *            Moving entity, the bullet.
+	 * @param target
+	 *            Entity it may hit, the ship.
+	 * @return Result of the collision test.
+	 */
+	private boolean checkSweptCollision(final Entity projectile,
+			final Entity target) {
+		return checkSweptCollision(projectile.getSpriteType(),
+				projectile.getPreviousPositionX(),
+				projectile.getPreviousPositionY(), projectile.getPositionX(),
+				projectile.getPositionY(), projectile.getWidth(),
+				projectile.getHeight(), target);
+	}
+
+	/**
+	 * Checks if a projectile touched an entity at any point of its move
+	 * this tick, so fast projectiles cannot pass through thin entities
+	 * between ticks. The move is taken relative to the entity, to follow
+	 * both. Moves that miss the entity box grown by the projectile box are
+	 * rejected at once; otherwise the projectile is checked at every pixel
+	 * of the move that lies inside it.
+	 *
+	 * @param spriteType
+	 *            Sprite of the projectile.
+	 * @param fromX
+	 *            Position of the projectile in the x-axis at the start of
+	 *            the tick.
+	 * @param fromY
+	 *            Position of the projectile in the y-axis at the start of
+	 *            the tick.
+	 * @param toX
+	 *            Position of the projectile in the x-axis now.
+	 * @param toY
+	 *            Position of the projectile in the y-axis now.
+	 * @param width
+	 *            Width of the projectile.
+	 * @param height
+	 *            Height of the projectile.
+	 * @param target
+	 *            Entity it may hit, the ship.
+	 * @return Result of the collision test.
+	 */
+	private boolean checkSweptCollision(final SpriteType spriteType,
+			final int fromX, final int fromY, final int toX, final int toY,
+			final int width, final int height, final Entity target) {
+		int targetX = target.getPositionX();
+		int targetY = target.getPositionY();
+		int startX = fromX - target.getPreviousPositionX();
+		int startY = fromY - target.getPreviousPositionY();
+		int moveX = toX - targetX - startX;
+		int moveY = toY - targetY - startY;
+		int steps = Math.max(Math.abs(moveX), Math.abs(moveY));
+		if (steps == 0)
+			return checkCollisionAt(spriteType, toX, toY, width, height,
+					target, targetX, targetY);
+
+		// Part of the move where the boxes overlap, in each axis in turn.
+		double enter = 0;
+		double exit = 1;
+		for (int axis = 0; axis < 2; axis++) {
+			int start = axis == 0 ? startX : startY;
+			int move = axis == 0 ? moveX : moveY;
+			int low = -(axis == 0 ? width : height);
+			int high = axis == 0 ? target.getWidth() : target.getHeight();
+			if (move == 0) {
+				if (start <= low || start >= high)
+					return false;
+				continue;
+			}
+			double t1 = (double) (low - start) / move;
+			double t2 = (double) (high - start) / move;
+			enter = Math.max(enter, Math.min(t1, t2));
+			exit = Math.min(exit, Math.max(t1, t2));
+		}
+		if (enter >= exit)
+			return false;
+
+		int first = Math.max(0, (int) Math.floor(enter * steps));
+		int last = Math.min(steps, (int) Math.ceil(exit * steps));
+		for (int step = first; step <= last; step++)
+			if (checkCollisionAt(spriteType, targetX + startX
+					+ Math.round((float) moveX * step / steps), targetY
+					+ startY + Math.round((float) moveY * step / steps),
+					width, height, target, targetX, targetY))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Checks if a sprite placed at a given position collides with an entity
+	 * placed at another.
+	 *
+	 * @param spriteType
+	 *            Sprite of the first box.
+	 * @param ax
+	 *            Position of the first box in the x-axis.
+	 * @param ay
+	 *            Position of the first box in the y-axis.
+	 * @param aWidth
+	 *            Width of the first box.
+	 * @param aHeight
+	 *            Height of the first box.
+	 * @param b
+	 *            Second entity.
+	 * @param bx
+	 *            Position of the second entity in the x-axis.
+	 * @param by
+	 *            Position of the second entity in the y-axis.
+	 * @return Result of the collision test.
+	 */
+	private boolean checkCollisionAt(final SpriteType spriteType,
+			final int ax, final int ay, final int aWidth, final int aHeight,
+			final Entity b, final int bx, final int by) {
+		if (!SpriteMask.boxesOverlap(ax, ay, aWidth, aHeight, bx, by,
+				b.getWidth(), b.getHeight()))
+			return false;
+
+		SpriteMask maskA = getSpriteMask(spriteType);
+		SpriteMask maskB = getSpriteMask(b.getSpriteType());
+		if (maskA == null || maskB == null || maskA.getWidth() == 0)
+			return true;
+		int scale = aWidth / maskA.getWidth();
+		if (scale == 0 || !fitsBox(maskA, aWidth, aHeight, scale)
+				|| !fitsBox(maskB, b.getWidth(), b.getHeight(), scale))
+			return true;
+		return SpriteMask.overlaps(maskA, ax, ay, maskB, bx, by, scale);
+	}
+
+	/**
+	 * Getter for the lit pixels of a sprite.
+	 *
+	 * @param spriteType
+	 *            Sprite to look up, may be null.
+	 * @return Mask of the sprite, null if there is none.
+	 */
+	private SpriteMask getSpriteMask(final SpriteType spriteType) {
+		if (spriteType == null)
+			return null;
+		return this.drawManager.getSpriteMask(spriteType);
+	}
+
+	/**
+	 * Checks if a sprite drawn at a scale exactly fills a box.
+	 *
+	 * @param mask
+	 *            Sprite drawn in the box.
+	 * @param width
+	 *            Width of the box.
+	 * @param height
+	 *            Height of the box.
+	 * @param scale
+	 *            Screen pixels per sprite pixel.
+	 * @return True if the sprite covers the box.
+	 */
+	private static boolean fitsBox(final SpriteMask mask, final int width,
+			final int height, final int scale) {
+		return mask.getWidth() * scale == width
+				&& mask.getHeight() * scale == height;
 	}
 
     /**
@@ -959,7 +1430,7 @@ public class GameScreen extends Screen {
 					bulletsToRemove.add(b);
 				}
 				/** If the bullet collides with ship */
-				else if (this.livesP1 > 0 && this.checkCollision(b, this.ship)) {
+				else if (this.livesP1 > 0 && this.checkSweptCollision(b, this.ship)) {
 					if (!this.ship.isDestroyed()) {
 						this.ship.destroy();
 						this.livesP1--;
@@ -967,7 +1438,7 @@ public class GameScreen extends Screen {
 					}
 					bulletsToRemove.add(b);
 				}
-				else if (this.shipP2 != null && this.livesP2 > 0 && !this.shipP2.isDestroyed() && this.checkCollision(b, this.shipP2)) {
+				else if (this.shipP2 != null && this.livesP2 > 0 && !this.shipP2.isDestroyed() && this.checkSweptCollision(b, this.shipP2)) {
 					if (!this.shipP2.isDestroyed()) {
 						this.shipP2.destroy();
 						this.livesP2--;
@@ -1,12 +1,14 @@
 package screen;
 
 import java.awt.Insets;
+import java.awt.event.KeyEvent;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import engine.Cooldown;
 import engine.Core;
 import engine.DrawManager;
+import engine.GameClock;
 import engine.InputManager;
 
 /**
@@ -19,6 +21,12 @@ public class Screen {
 	
 	/** Milliseconds until the screen accepts user input. */
 	private static final int INPUT_DELAY = 1000;
+	/** Nanoseconds in a second. */
+	private static final long NANOS_PER_SECOND = 1000000000L;
+	/** Maximum updates run before rendering, to avoid spiraling after hitches. */
+	private static final int MAX_TICKS_PER_FRAME = 5;
+	/** Key that pauses and resumes the game time. */
+	private static final int PAUSE_KEY = KeyEvent.VK_P;
 
 	/** Draw Manager instance. */
 	protected DrawManager drawManager;
@@ -31,8 +39,10 @@ public class Screen {
 	protected int width;
 	/** Screen height. */
 	protected int height;
-	/** Frames per second shown on the screen. */
+	/** Updates per second, the fixed rate at which the logic is stepped. */
 	protected int fps;
+	/** Maximum frames rendered per second, 0 to render once per update. */
+	protected int maxRenderRate;
 	/** Screen insets. */
 	protected Insets insets;
 	/** Time until the screen accepts user input. */
@@ -42,6 +52,8 @@ public class Screen {
 	protected boolean isRunning;
 	/** What kind of screen goes next. */
 	protected int returnCode;
+	/** If the pause key was down on the last loop. */
+	private boolean pauseKeyDown;
 
 	/**
 	 * Constructor, establishes the properties of the screen.
@@ -51,12 +63,13 @@ public class Screen {
 	 * @param height
 	 *            Screen height.
 	 * @param fps
-	 *            Frames per second, frame rate at which the game is run.
+	 *            Frames per second, tick rate at which the game is run.
 	 */
 	public Screen(final int width, final int height, final int fps) {
 		this.width = width;
 		this.height = height;
 		this.fps = fps;
+		this.maxRenderRate = 0;
 
 		this.drawManager = Core.getDrawManager();
 		this.inputManager = Core.getInputManager();
@@ -74,22 +87,70 @@ public class Screen {
 	}
 
 	/**
-	 * Activates the screen.
+	 * Activates the screen. Logic is stepped at a fixed rate of fps updates
+	 * per second of game time, catching up after slow frames, while rendering
+	 * happens once per loop with the fraction of a tick left over. The game
+	 * clock is advanced once per update, and its mode decides how much game
+	 * time each real second is worth. On screens that can be paused the
+	 * pause key is polled on every loop, not from update(), so it still
+	 * resumes the clock while no updates run.
 	 * 
 	 * @return Next screen code.
 	 */
 	public int run() {
 		this.isRunning = true;
 
+		final GameClock clock = Core.getClock();
+		final long tickNanos = NANOS_PER_SECOND / this.fps;
+		final long frameNanos = this.maxRenderRate > 0
+				? NANOS_PER_SECOND / this.maxRenderRate : tickNanos;
+		long accumulator = tickNanos;
+		long previousTime = System.nanoTime();
+
+		if (Core.isHeadless()) {
+			// Nothing to draw and no real time to keep up with.
+			while (this.isRunning) {
+				clock.advance(tickNanos);
+				update();
+			}
+			return 0;
+		}
+
+		this.pauseKeyDown = this.inputManager.isKeyDown(PAUSE_KEY);
 		while (this.isRunning) {
-			long time = System.currentTimeMillis();
+			long frameStart = System.nanoTime();
+			if (isPausable())
+				pollPauseKey(clock);
+			final int timeScale = clock.getTimeScale();
+			accumulator += (frameStart - previousTime) * timeScale;
+			previousTime = frameStart;
+
+			final int maxTicks = MAX_TICKS_PER_FRAME * Math.max(1, timeScale);
+			int ticks = 0;
+			while (accumulator >= tickNanos && this.isRunning) {
+				if (ticks == maxTicks) {
+					// Too far behind, drop the backlog instead of spiraling.
+					this.logger.fine("Dropped " + accumulator / tickNanos
+							+ " ticks after a slow frame.");
+					accumulator %= tickNanos;
+					break;
+				}
+				clock.advance(tickNanos);
+				update();
+				accumulator -= tickNanos;
+				ticks++;
+			}
+			if (!this.isRunning)
+				break;
 
-			update();
+			render((float) accumulator / tickNanos);
 
-			time = (1000 / this.fps) - (System.currentTimeMillis() - time);
+			long elapsed = System.nanoTime() - frameStart;
+			long untilTick = (tickNanos - accumulator) / Math.max(1, timeScale);
+			long time = Math.min(untilTick, frameNanos) - elapsed;
 			if (time > 0) {
 				try {
-					TimeUnit.MILLISECONDS.sleep(time);
+					TimeUnit.NANOSECONDS.sleep(time);
 				} catch (InterruptedException e) {
 					return 0;
 				}
@@ -100,11 +161,48 @@ public class Screen {
 	}
 
 	/**
-	 * Updates the elements on screen and checks for events.
+	 * Checks if the pause key pauses this screen. Screens that can be
+	 * paused must show it, since nothing on them moves while paused.
+	 * 
+	 * @return False, screens are not paused unless they say so.
+	 */
+	protected boolean isPausable() {
+		return false;
+	}
+
+	/**
+	 * Pauses or resumes the game clock when the pause key is pressed.
+	 * 
+	 * @param clock
+	 *            Game clock of the session.
+	 */
+	private void pollPauseKey(final GameClock clock) {
+		boolean down = this.inputManager.isKeyDown(PAUSE_KEY);
+		if (down && !this.pauseKeyDown) {
+			clock.togglePause();
+			this.logger.info("Game clock " + (clock.getMode()
+					== GameClock.Mode.PAUSED ? "paused." : "resumed."));
+		}
+		this.pauseKeyDown = down;
+	}
+
+	/**
+	 * Updates the elements on screen and checks for events. Called once per
+	 * tick.
 	 */
 	protected void update() {
 	}
 
+	/**
+	 * Draws the screen between ticks. Screens that draw from update() leave
+	 * this empty.
+	 * 
+	 * @param alpha
+	 *            Fraction of a tick elapsed since the last update, 0 to 1.
+	 */
+	protected void render(final float alpha) {
+	}
+
 	/**
 	 * Getter for screen width.
 	 * 
@@ -2,15 +2,14 @@ package screen;
 
 import java.awt.event.KeyEvent;
 import java.awt.Color;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import engine.Cooldown;
 import engine.Core;
 import engine.DrawManager;
 import engine.DrawManager.SpriteType;
-import entity.Entity;
+import engine.GameRandom;
+import engine.Starfield;
 import entity.SoundButton;
 
 import audio.SoundManager;
@@ -24,60 +23,6 @@ import audio.SoundManager;
  */
 public class TitleScreen extends Screen {
 
-	/**
-	 * A simple class to represent a star for the animated background.
-	 * Stores the non-rotating base coordinates and speed.
-	 */
-	public static class Star {
-		public float baseX;
-		public float baseY;
-		public float speed;
-		public float brightness;
-        public float brightnessOffset;
-
-		public Star(float baseX, float baseY, float speed) {
-			this.baseX = baseX;
-			this.baseY = baseY;
-			this.speed = speed;
-			this.brightness = 0;
-			this.brightnessOffset = (float) (Math.random() * Math.PI * 2);
-		}
-	}
-
-	/**
-	 * A simple class to represent a shooting star.
-	 */
-	public static class ShootingStar {
-		public float x;
-		public float y;
-		public float speedX;
-		public float speedY;
-
-		public ShootingStar(float x, float y, float speedX, float speedY) {
-			this.x = x;
-			this.y = y;
-			this.speedX = speedX;
-			this.speedY = speedY;
-		}
-	}
-
-	/**
-	 * A simple class to represent a background enemy.
-	 */
-	private static class BackgroundEnemy extends Entity {
-		private int speed;
-
-		public BackgroundEnemy(int positionX, int positionY, int speed, SpriteType spriteType) {
-			super(positionX, positionY, 12 * 2, 8 * 2, Color.WHITE);
-			this.speed = speed;
-			this.spriteType = spriteType;
-		}
-
-		public int getSpeed() {
-			return speed;
-		}
-	}
-
 	/** Milliseconds between changes in user selection. */
 	private static final int SELECTION_TIME = 200;
 	/** Number of stars in the background. */
@@ -92,6 +37,18 @@ public class TitleScreen extends Screen {
     private static final int SHOOTING_STAR_COOLDOWN = 3000;
     /** Probability of a shooting star spawning. */
     private static final double SHOOTING_STAR_SPAWN_CHANCE = 0.2;
+	/**
+	 * Shades the selected sound button pulses through. A few fixed shades
+	 * keep the sprite cache hitting instead of rasterizing a new color
+	 * every frame.
+	 */
+	private static final Color[] PULSE_COLORS = new Color[8];
+
+	static {
+		for (int i = 0; i < PULSE_COLORS.length; i++)
+			PULSE_COLORS[i] = new Color(0,
+					0.5f + 0.5f * i / (PULSE_COLORS.length - 1), 0);
+	}
 
 	/** Time between changes in user selection. */
 	private Cooldown selectionCooldown;
@@ -100,12 +57,8 @@ public class TitleScreen extends Screen {
 	/** Cooldown for shooting star spawning. */
     private Cooldown shootingStarCooldown;
 
-	/** List of stars for the background animation. */
-	private List<Star> stars;
-	/** List of background enemies. */
-	private List<Entity> backgroundEnemies;
-	/** List of shooting stars. */
-    private List<ShootingStar> shootingStars;
+	/** Stars, shooting stars and enemies of the background animation. */
+	private Starfield starfield;
 
 	/** Sound button on/off object. */
 	private SoundButton soundButton;
@@ -118,7 +71,7 @@ public class TitleScreen extends Screen {
     private float targetAngle;
 
 	/** Random number generator. */
-    private Random random;
+    private SplittableRandom random;
 
 	/**
 	 * Constructor, establishes the properties of the screen.
@@ -143,16 +96,8 @@ public class TitleScreen extends Screen {
 		this.enemySpawnCooldown.reset();
 		this.shootingStarCooldown.reset();
 
-		this.random = new Random();
-		this.stars = new ArrayList<Star>();
-		for (int i = 0; i < NUM_STARS; i++) {
-			float speed = (float) (Math.random() * 2.5 + 0.5);
-			this.stars.add(new Star((float) (Math.random() * width),
-					(float) (Math.random() * height), speed));
-		}
-
-		this.backgroundEnemies = new ArrayList<Entity>();
-		this.shootingStars = new ArrayList<ShootingStar>();
+		this.random = Core.getRandom(GameRandom.Stream.BACKGROUND);
+		this.starfield = new Starfield(width, height, NUM_STARS, random);
 
 		// Initialize rotation angles
 		this.currentAngle = 0;
@@ -184,64 +129,40 @@ public class TitleScreen extends Screen {
             currentAngle = Math.max(currentAngle - ROTATION_SPEED, targetAngle);
         }
 
-		// Animate stars in their non-rotating space
-		for (Star star : this.stars) {
-			star.baseY += star.speed;
-			if (star.baseY > this.getHeight()) {
-				star.baseY = 0;
-				star.baseX = (float) (Math.random() * this.getWidth());
-			}
-			// Update brightness for twinkling effect
-			star.brightness = 0.5f + (float) (Math.sin(star.brightnessOffset + System.currentTimeMillis() / 500.0) + 1.0) / 4.0f;
-		}
+		// Animate stars, enemies and shooting stars in their non-rotating space
+		final long now = Core.getClock().getMillis();
+		this.starfield.update(now);
+		this.starfield.setVisibleStars(Math.round(NUM_STARS
+				* Core.getQualityGovernor().getTier().getStarShare()));
+		this.starfield.setAngle(this.currentAngle);
 
-		// Spawn and move background enemies
+		// Spawn background enemies
 		if (this.enemySpawnCooldown.checkFinished()) {
 			this.enemySpawnCooldown.reset();
-			if (Math.random() < ENEMY_SPAWN_CHANCE) {
+			if (random.nextDouble() < ENEMY_SPAWN_CHANCE) {
 				SpriteType[] enemyTypes = { SpriteType.EnemyShipA1, SpriteType.EnemyShipB1, SpriteType.EnemyShipC1 };
 				SpriteType randomEnemyType = enemyTypes[random.nextInt(enemyTypes.length)];
-				int randomX = (int) (Math.random() * this.getWidth());
+				int randomX = (int) (random.nextDouble() * this.getWidth());
 				int speed = random.nextInt(2) + 1;
-				this.backgroundEnemies.add(new BackgroundEnemy(randomX, -20, speed, randomEnemyType));
+				this.starfield.addEnemy(randomX, -20, speed, randomEnemyType);
 			}
 		}
 
-		java.util.Iterator<Entity> enemyIterator = this.backgroundEnemies.iterator();
-		while (enemyIterator.hasNext()) {
-			BackgroundEnemy enemy = (BackgroundEnemy) enemyIterator.next();
-			enemy.setPositionY(enemy.getPositionY() + enemy.getSpeed());
-			if (enemy.getPositionY() > this.getHeight()) {
-				enemyIterator.remove();
-			}
-		}
-
-		// Spawn and move shooting stars
+		// Spawn shooting stars
         if (this.shootingStarCooldown.checkFinished()) {
             this.shootingStarCooldown.reset();
-            if (Math.random() < SHOOTING_STAR_SPAWN_CHANCE) {
-                float speedX = (float) (Math.random() * 10 + 5) * (Math.random() > 0.5 ? 1 : -1);
-                float speedY = (float) (Math.random() * 10 + 5) * (Math.random() > 0.5 ? 1 : -1);
-                this.shootingStars.add(new ShootingStar(random.nextInt(this.getWidth()), -10, speedX, speedY));
-            }
-        }
-
-		java.util.Iterator<ShootingStar> shootingStarIterator = this.shootingStars.iterator();
-        while (shootingStarIterator.hasNext()) {
-            ShootingStar shootingStar = shootingStarIterator.next();
-            shootingStar.x += shootingStar.speedX;
-            shootingStar.y += shootingStar.speedY;
-            if (shootingStar.x < -20 || shootingStar.x > this.getWidth() + 20 ||
-                shootingStar.y < -20 || shootingStar.y > this.getHeight() + 20) {
-                shootingStarIterator.remove();
+            if (random.nextDouble() < SHOOTING_STAR_SPAWN_CHANCE) {
+                float speedX = (float) (random.nextDouble() * 10 + 5) * (random.nextDouble() > 0.5 ? 1 : -1);
+                float speedY = (float) (random.nextDouble() * 10 + 5) * (random.nextDouble() > 0.5 ? 1 : -1);
+                this.starfield.addShootingStar(random.nextInt(this.getWidth()), -10, speedX, speedY);
             }
         }
 
 		// Handle sound button color
 		if (this.returnCode == 5) {
-            float pulse = (float) ((Math.sin(System.currentTimeMillis() / 200.0) + 1.0) / 2.0);
-            Color pulseColor = new Color(0, 0.5f + pulse * 0.5f, 0);
-            this.soundButton.setColor(pulseColor);
+            float pulse = (float) ((Math.sin(now / 200.0) + 1.0) / 2.0);
+            this.soundButton.setColor(PULSE_COLORS[Math.round(pulse
+                    * (PULSE_COLORS.length - 1))]);
         } else {
             this.soundButton.setColor(Color.WHITE);
         }
@@ -342,31 +263,8 @@ public class TitleScreen extends Screen {
 	private void draw() {
 		drawManager.initDrawing(this);
 
-		// Draw stars with rotation
-		drawManager.drawStars(this, this.stars, this.currentAngle);
-
-		// Draw shooting stars with rotation
-        drawManager.drawShootingStars(this, this.shootingStars, this.currentAngle);
-
-		// Draw background enemies with rotation
-		final double angleRad = Math.toRadians(this.currentAngle);
-        final double cosAngle = Math.cos(angleRad);
-        final double sinAngle = Math.sin(angleRad);
-        final int centerX = this.getWidth() / 2;
-        final int centerY = this.getHeight() / 2;
-
-		for (Entity enemy : this.backgroundEnemies) {
-			float relX = enemy.getPositionX() - centerX;
-            float relY = enemy.getPositionY() - centerY;
-
-            double rotatedX = relX * cosAngle - relY * sinAngle;
-            double rotatedY = relX * sinAngle + relY * cosAngle;
-
-            int screenX = (int) (rotatedX + centerX);
-            int screenY = (int) (rotatedY + centerY);
-
-			drawManager.drawEntity(enemy, screenX, screenY);
-		}
+		// Draw stars and background enemies with rotation
+		drawManager.drawStarfield(this, this.starfield);
 
 		drawManager.drawTitle(this);
 		drawManager.drawMenu(this, this.returnCode);